@@ -0,0 +1,45 @@
+package com.example.benchmarks;
+
+import com.example.demo.converter.MqToKafkaMessageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link MqToKafkaMessageConverter#convert} across message sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConverterBenchmark {
+
+    @Param({"128", "1024", "4096", "16384", "65536"})
+    private int size;
+
+    private MqToKafkaMessageConverter converter;
+    private String message;
+
+    @Setup
+    public void setUp() {
+        converter = new MqToKafkaMessageConverter();
+        message = Payloads.text(size);
+    }
+
+    @Benchmark
+    public String convert() {
+        return converter.convert(message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.benchmarks;
+
+import com.example.demo.service.KafkaMessageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link KafkaMessageService} that completes every send immediately without a producer.
+ * The last value is kept so the JIT cannot eliminate the work that produced it.
+ */
+class DiscardingKafkaMessageService extends KafkaMessageService {
+
+    private Object lastValue;
+    private Headers lastHeaders;
+
+    DiscardingKafkaMessageService() {
+        super(null, null, "mq-messages", new SimpleMeterRegistry());
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, String>> sendMessage(String topic, String key,
+                                                                     String messagePayload, Headers headers) {
+        lastValue = messagePayload;
+        lastHeaders = headers;
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<SendResult<byte[], byte[]>> sendBytes(String topic, byte[] key, byte[] messagePayload,
+                                                                   Headers headers) {
+        lastValue = messagePayload;
+        lastHeaders = headers;
+        return CompletableFuture.completedFuture(null);
+    }
+
+    Object lastValue() {
+        return lastHeaders != null ? lastValue : null;
+    }
+}
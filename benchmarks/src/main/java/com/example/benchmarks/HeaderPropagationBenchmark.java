@@ -0,0 +1,87 @@
+package com.example.benchmarks;
+
+import com.example.demo.config.HeaderMappingProperties;
+import com.example.demo.converter.JmsHeaderMapper;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.converter.MessagingMessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a JMS message's correlation properties into a Kafka {@link ProducerRecord}.
+ * <ul>
+ *     <li>{@code messageBuilderPath}: the previous path - properties copied into a {@code HashMap},
+ *     wrapped in a Spring {@code Message} and mapped back to a record as {@code KafkaTemplate.send(Message)}
+ *     does</li>
+ *     <li>{@code directHeaderPath}: {@link JmsHeaderMapper} writing straight into the record headers</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HeaderPropagationBenchmark {
+
+    private static final String TOPIC = "mq-messages";
+
+    private Message jmsMessage;
+    private String payload;
+    private JmsHeaderMapper headerMapper;
+    private MessagingMessageConverter messageConverter;
+
+    @Setup
+    public void setUp() throws JMSException {
+        payload = "0200B23A800128A180180000000014000000123456789012";
+        jmsMessage = new StubTextMessage(payload);
+        jmsMessage.setStringProperty("correlationId", "run-1-0000012345");
+        jmsMessage.setLongProperty("sendTimestamp", System.currentTimeMillis());
+        jmsMessage.setStringProperty("testRunId", "run-1");
+        jmsMessage.setStringProperty("unrelated", "not propagated");
+
+        headerMapper = new JmsHeaderMapper(new HeaderMappingProperties());
+        messageConverter = new MessagingMessageConverter();
+    }
+
+    @Benchmark
+    public ProducerRecord<?, ?> messageBuilderPath() throws JMSException {
+        Map<String, String> headers = new HashMap<>();
+        if (jmsMessage.propertyExists("correlationId")) {
+            headers.put("correlationId", jmsMessage.getStringProperty("correlationId"));
+        }
+        if (jmsMessage.propertyExists("sendTimestamp")) {
+            headers.put("sendTimestamp", String.valueOf(jmsMessage.getLongProperty("sendTimestamp")));
+        }
+        if (jmsMessage.propertyExists("testRunId")) {
+            headers.put("testRunId", jmsMessage.getStringProperty("testRunId"));
+        }
+
+        MessageBuilder<String> messageBuilder = MessageBuilder
+                .withPayload(payload)
+                .setHeader(KafkaHeaders.TOPIC, TOPIC);
+        headers.forEach(messageBuilder::setHeader);
+        return messageConverter.fromMessage(messageBuilder.build(), TOPIC);
+    }
+
+    @Benchmark
+    public ProducerRecord<?, ?> directHeaderPath() {
+        return new ProducerRecord<>(TOPIC, null, (String) null, payload, headerMapper.toKafkaHeaders(jmsMessage));
+    }
+}
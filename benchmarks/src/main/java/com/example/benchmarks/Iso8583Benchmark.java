@@ -0,0 +1,85 @@
+package com.example.benchmarks;
+
+import com.example.demo.converter.Iso8583Encoder;
+import com.example.demo.converter.Iso8583Message;
+import com.example.demo.converter.Iso8583Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per message of the ISO 8583 codec on a typical 0200 authorization request.
+ * At 20k TPS per pod a single core has 50 µs per message for everything, so parsing should stay
+ * in the low single-digit microseconds; {@link #parseAllFields} shows what materializing every
+ * field as a {@code String} would cost instead of reading only what routing needs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class Iso8583Benchmark {
+
+    private Iso8583Parser parser;
+    private Iso8583Encoder encoder;
+    private byte[] authorizationRequest;
+
+    @Setup
+    public void setUp() {
+        parser = new Iso8583Parser();
+        encoder = new Iso8583Encoder();
+        authorizationRequest = encode();
+    }
+
+    @Benchmark
+    public Iso8583Message parse() {
+        return parser.parse(authorizationRequest);
+    }
+
+    @Benchmark
+    public void parseRoutingFields(Blackhole blackhole) {
+        Iso8583Message message = parser.parse(authorizationRequest);
+        blackhole.consume(message.mtiEquals("0200"));
+        blackhole.consume(message.fieldEquals(3, "000000"));
+        blackhole.consume(message.getString(41));
+    }
+
+    @Benchmark
+    public void parseAllFields(Blackhole blackhole) {
+        Iso8583Message message = parser.parse(authorizationRequest);
+        for (int field : message.fieldNumbers()) {
+            blackhole.consume(message.getString(field));
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoder.message("0200")
+                .set(2, "4111111111111111")
+                .set(3, "000000")
+                .set(4, 10_000L)
+                .set(7, "1016120000")
+                .set(11, 123456L)
+                .set(12, "120000")
+                .set(13, "1016")
+                .set(18, "5411")
+                .set(22, "051")
+                .set(37, "123456789012")
+                .set(41, "TERM0001")
+                .set(42, "MERCHANT000001")
+                .set(49, "840")
+                .set(55, "9F2608C1D2E3F4A5B6C7D89F2701809F10120110A00003220000000000000000000000FF")
+                .encode();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.benchmarks;
+
+import com.example.demo.config.HeaderMappingProperties;
+import com.example.demo.converter.JmsHeaderMapper;
+import com.example.demo.service.KafkaMessageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.JMSException;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KafkaMessageService} sends through a real {@link KafkaTemplate} onto a {@link MockProducer},
+ * so serialization, record creation and template overhead are measured without a broker.
+ * {@code sendWithMessageBuilder} is the previous header path for comparison.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KafkaSendBenchmark {
+
+    /**
+     * MockProducer keeps every record it has been sent; it is cleared at this interval.
+     */
+    private static final int HISTORY_LIMIT = 10_000;
+
+    @Param({"128", "1024", "4096", "16384", "65536"})
+    private int size;
+
+    private MockProducer<String, String> textProducer;
+    private MockProducer<byte[], byte[]> binaryProducer;
+    private KafkaMessageService kafkaMessageService;
+    private String textPayload;
+    private byte[] binaryPayload;
+    private Headers headers;
+    private Map<String, String> headerMap;
+    private int sent;
+
+    @Setup
+    public void setUp() throws JMSException {
+        textProducer = reusableProducer(new StringSerializer());
+        binaryProducer = reusableProducer(new ByteArraySerializer());
+        kafkaMessageService = new KafkaMessageService(
+                new KafkaTemplate<>(new MockProducerFactory<>(() -> textProducer)),
+                new KafkaTemplate<>(new MockProducerFactory<>(() -> binaryProducer)),
+                "mq-messages",
+                new SimpleMeterRegistry());
+
+        textPayload = Payloads.text(size);
+        binaryPayload = Payloads.bytes(size);
+
+        StubTextMessage jmsMessage = new StubTextMessage(textPayload);
+        jmsMessage.setStringProperty("correlationId", "run-1-0000012345");
+        jmsMessage.setLongProperty("sendTimestamp", System.currentTimeMillis());
+        jmsMessage.setStringProperty("testRunId", "run-1");
+        headers = new JmsHeaderMapper(new HeaderMappingProperties()).toKafkaHeaders(jmsMessage);
+        headerMap = Map.of("correlationId", "run-1-0000012345",
+                "sendTimestamp", String.valueOf(System.currentTimeMillis()),
+                "testRunId", "run-1");
+    }
+
+    @Benchmark
+    public CompletableFuture<?> sendText() {
+        trimHistory();
+        return kafkaMessageService.sendMessage(null, textPayload, headers);
+    }
+
+    @Benchmark
+    public CompletableFuture<?> sendBytes() {
+        trimHistory();
+        return kafkaMessageService.sendBytes(null, binaryPayload, headers);
+    }
+
+    @Benchmark
+    public CompletableFuture<?> sendWithMessageBuilder() {
+        trimHistory();
+        return kafkaMessageService.sendMessage(textPayload, headerMap);
+    }
+
+    private void trimHistory() {
+        if (++sent == HISTORY_LIMIT) {
+            sent = 0;
+            textProducer.clear();
+            binaryProducer.clear();
+        }
+    }
+
+    /**
+     * The template closes its producer after every non-transactional send; the mock is kept open
+     * so one instance serves the whole run.
+     */
+    private static <T> MockProducer<T, T> reusableProducer(Serializer<T> serializer) {
+        return new MockProducer<>(true, null, serializer, serializer) {
+            @Override
+            public void close(Duration timeout) {
+                // reused across sends
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmarks;
+
+import com.example.demo.config.HeaderMappingProperties;
+import com.example.demo.config.PayloadLogProperties;
+import com.example.demo.config.PayloadProperties;
+import com.example.demo.config.RoutingProperties;
+import com.example.demo.converter.Iso8583Parser;
+import com.example.demo.converter.JmsHeaderMapper;
+import com.example.demo.converter.MqToKafkaMessageConverter;
+import com.example.demo.converter.RecordKeyExtractors;
+import com.example.demo.listener.ConsumerThreadMetrics;
+import com.example.demo.listener.MessageListener;
+import com.example.demo.listener.PutLatencyMetrics;
+import com.example.demo.listener.StageTimers;
+import com.example.demo.service.MessageRouter;
+import com.example.demo.service.PayloadLogger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body and header extraction in {@link MessageListener#forward}, with Kafka replaced by
+ * {@link DiscardingKafkaMessageService} so only the JMS side of the hot path is measured.
+ * Covers text and binary payload mode for both JMS body types.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MessageExtractionBenchmark {
+
+    @Param({"128", "1024", "4096", "16384", "65536"})
+    private int size;
+
+    @Param({"TEXT", "BINARY"})
+    private PayloadProperties.Mode mode;
+
+    private DiscardingKafkaMessageService kafkaMessageService;
+    private MessageListener messageListener;
+    private StubTextMessage textMessage;
+    private StubBytesMessage bytesMessage;
+
+    @Setup
+    public void setUp() throws JMSException {
+        PayloadProperties payloadProperties = new PayloadProperties();
+        payloadProperties.setMode(mode);
+        kafkaMessageService = new DiscardingKafkaMessageService();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MessageRouter messageRouter = new MessageRouter(new RoutingProperties(), new Iso8583Parser(), meterRegistry,
+                "mq-messages");
+        messageListener = new MessageListener(kafkaMessageService, new MqToKafkaMessageConverter(),
+                new JmsHeaderMapper(new HeaderMappingProperties()), RecordKeyExtractors.none(), messageRouter,
+                new PayloadLogger(new PayloadLogProperties(), meterRegistry), new ConsumerThreadMetrics(meterRegistry),
+                new StageTimers(meterRegistry), new PutLatencyMetrics(meterRegistry), payloadProperties);
+
+        textMessage = new StubTextMessage(Payloads.text(size));
+        bytesMessage = new StubBytesMessage(Payloads.bytes(size));
+        setCorrelationProperties(textMessage);
+        setCorrelationProperties(bytesMessage);
+    }
+
+    @Benchmark
+    public Object textMessage() throws JMSException {
+        messageListener.forward(textMessage, "DEV.QUEUE.1");
+        return kafkaMessageService.lastValue();
+    }
+
+    @Benchmark
+    public Object bytesMessage() throws JMSException {
+        bytesMessage.reset();
+        messageListener.forward(bytesMessage, "DEV.QUEUE.1");
+        return kafkaMessageService.lastValue();
+    }
+
+    private static void setCorrelationProperties(Message message) throws JMSException {
+        message.setStringProperty("correlationId", "run-1-0000012345");
+        message.setLongProperty("sendTimestamp", System.currentTimeMillis());
+        message.setStringProperty("testRunId", "run-1");
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Message bodies for the payload size parameters shared by all benchmarks.
+ */
+final class Payloads {
+
+    /**
+     * Template repeated to the requested size; ASCII like the ISO 8583 messages on the queue.
+     */
+    private static final String TEMPLATE =
+            "0200B23A800128A180180000000014000000123456789012345600000000010000001231235959123456";
+
+    private Payloads() {
+    }
+
+    static String text(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        while (builder.length() < size) {
+            builder.append(TEMPLATE, 0, Math.min(TEMPLATE.length(), size - builder.length()));
+        }
+        return builder.toString();
+    }
+
+    static byte[] bytes(int size) {
+        return text(size).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.benchmarks;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageNotWriteableException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only in-memory {@link BytesMessage} for benchmarks, as received from a queue.
+ * Call {@link #reset()} before reading the body again.
+ */
+class StubBytesMessage extends StubMessage implements BytesMessage {
+
+    private final byte[] body;
+    private final ByteBuffer reader;
+
+    StubBytesMessage(byte[] body) {
+        this.body = body;
+        this.reader = ByteBuffer.wrap(body);
+    }
+
+    @Override
+    public long getBodyLength() {
+        return body.length;
+    }
+
+    @Override
+    public boolean readBoolean() {
+        return reader.get() != 0;
+    }
+
+    @Override
+    public byte readByte() {
+        return reader.get();
+    }
+
+    @Override
+    public int readUnsignedByte() {
+        return reader.get() & 0xFF;
+    }
+
+    @Override
+    public short readShort() {
+        return reader.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() {
+        return reader.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() {
+        return reader.getChar();
+    }
+
+    @Override
+    public int readInt() {
+        return reader.getInt();
+    }
+
+    @Override
+    public long readLong() {
+        return reader.getLong();
+    }
+
+    @Override
+    public float readFloat() {
+        return reader.getFloat();
+    }
+
+    @Override
+    public double readDouble() {
+        return reader.getDouble();
+    }
+
+    @Override
+    public String readUTF() {
+        byte[] utf = new byte[readUnsignedShort()];
+        reader.get(utf);
+        return new String(utf, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int readBytes(byte[] value) {
+        return readBytes(value, value.length);
+    }
+
+    @Override
+    public int readBytes(byte[] value, int length) {
+        if (!reader.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(length, reader.remaining());
+        reader.get(value, 0, count);
+        return count;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeByte(byte value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeShort(short value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeChar(char value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeInt(int value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeLong(long value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeFloat(float value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeDouble(double value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeUTF(String value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeBytes(byte[] value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeBytes(byte[] value, int offset, int length) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void writeObject(Object value) throws JMSException {
+        throw notWriteable();
+    }
+
+    @Override
+    public void reset() {
+        reader.rewind();
+    }
+
+    @Override
+    public <T> T getBody(Class<T> type) {
+        return type.cast(body.clone());
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isBodyAssignableTo(Class type) {
+        return type.isAssignableFrom(byte[].class);
+    }
+
+    private static MessageNotWriteableException notWriteable() {
+        return new MessageNotWriteableException("Received message is read-only");
+    }
+}
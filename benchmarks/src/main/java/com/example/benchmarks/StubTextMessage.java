@@ -0,0 +1,41 @@
+package com.example.benchmarks;
+
+import jakarta.jms.TextMessage;
+
+/**
+ * In-memory {@link TextMessage} for benchmarks.
+ */
+class StubTextMessage extends StubMessage implements TextMessage {
+
+    private String text;
+
+    StubTextMessage(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public void clearBody() {
+        text = null;
+    }
+
+    @Override
+    public <T> T getBody(Class<T> type) {
+        return type.cast(text);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isBodyAssignableTo(Class type) {
+        return type.isAssignableFrom(String.class);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for back-pressure between the Kafka producer and the MQ consumers.
+ * MQ consumption pauses when either the producer buffer or the number of unacknowledged sends reaches its
+ * high watermark, and resumes once both are back at or below their low watermarks.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.backpressure")
+public class BackPressureProperties {
+
+    /**
+     * Whether MQ consumption is paused while Kafka cannot keep up.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How often producer buffer occupancy and in-flight sends are checked.
+     */
+    private Duration interval = Duration.ofMillis(100);
+
+    /**
+     * Producer buffer utilization (0..1) at which consumption pauses.
+     */
+    private double bufferHighWatermark = 0.8;
+
+    /**
+     * Producer buffer utilization (0..1) at or below which consumption may resume.
+     */
+    private double bufferLowWatermark = 0.5;
+
+    /**
+     * Number of unacknowledged Kafka sends at which consumption pauses.
+     */
+    private long inFlightHighWatermark = 10_000;
+
+    /**
+     * Number of unacknowledged Kafka sends at or below which consumption may resume.
+     */
+    private long inFlightLowWatermark = 2_000;
+}
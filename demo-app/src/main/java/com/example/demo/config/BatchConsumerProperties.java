@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the transacted batch MQ consumer.
+ * When enabled, the batch consumer replaces the per-message {@code @JmsListener}.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.batch")
+public class BatchConsumerProperties {
+
+    /**
+     * Whether MQ messages are consumed in transacted batches instead of one by one.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of messages drained into a single batch.
+     */
+    private int maxMessages = 500;
+
+    /**
+     * Maximum number of Kafka sends awaiting acknowledgement; receiving pauses while the window is full.
+     */
+    private int maxInFlight = 256;
+
+    /**
+     * Maximum time to keep draining once the first message of a batch has arrived.
+     */
+    private Duration maxWait = Duration.ofMillis(50);
+
+    /**
+     * How long to block waiting for the first message of a batch.
+     */
+    private Duration receiveTimeout = Duration.ofSeconds(1);
+
+    /**
+     * How long to wait for Kafka to acknowledge every send of a batch before rolling back.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Delay before reconnecting to MQ after a connection failure.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the MQ connection factory.
+ * All listener containers and batch consumers share one MQ connection; their sessions are taken from a cache,
+ * together with the producers and consumers opened on them, instead of being opened and closed with every use.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.connection-pool")
+public class ConnectionPoolProperties {
+
+    /**
+     * Idle sessions kept open per acknowledge mode; sessions in use beyond this are closed when released.
+     * Size it to the total number of consumers, i.e. the sum of all bindings' max concurrency.
+     */
+    private int sessionCacheSize = 16;
+
+    /**
+     * Keep message producers open on cached sessions, one per destination.
+     */
+    private boolean cacheProducers = true;
+
+    /**
+     * Keep message consumers open on cached sessions, one per destination and selector.
+     * Off by default because the listener containers already keep their consumers open.
+     */
+    private boolean cacheConsumers = false;
+}
@@ -0,0 +1,74 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the MQ listener consumer pool.
+ * Applied to every {@code @JmsListener} container on top of the {@code spring.jms.listener.*} defaults.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.consumers")
+public class ConsumerPoolProperties {
+
+    /**
+     * Number of consumers each listener container keeps open at all times.
+     */
+    private int minConcurrency = 1;
+
+    /**
+     * Upper bound of consumers a listener container may scale up to.
+     */
+    private int maxConcurrency = 8;
+
+    /**
+     * Whether listener containers run their consumers on virtual threads.
+     */
+    private boolean virtualThreads = true;
+
+    /**
+     * Name prefix of consumer threads, also used as the {@code consumer} metric tag.
+     */
+    private String threadNamePrefix = "mq-consumer-";
+
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * Adaptive scaling of each queue binding's consumer ceiling between its min and max concurrency.
+     */
+    @Getter
+    @Setter
+    public static class Adaptive {
+
+        /**
+         * Whether the consumer ceiling is adjusted automatically.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How often receive latency and Kafka back-pressure are evaluated.
+         */
+        private Duration interval = Duration.ofSeconds(5);
+
+        /**
+         * Average receive wait below which the queue is considered backlogged and a consumer is added.
+         */
+        private Duration scaleUpReceiveWait = Duration.ofMillis(5);
+
+        /**
+         * Average receive wait above which consumers are mostly idle and one is removed.
+         */
+        private Duration scaleDownReceiveWait = Duration.ofMillis(500);
+
+        /**
+         * Producer buffer utilization (0..1) above which Kafka is considered back-pressured.
+         */
+        private double maxProducerBufferUtilization = 0.8;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration properties for propagating JMS message properties as Kafka record headers.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.headers")
+public class HeaderMappingProperties {
+
+    /**
+     * JMS properties copied to Kafka headers of the same name; all other properties are dropped.
+     */
+    private List<String> allowList = List.of("correlationId", "sendTimestamp", "intendedSendMicros", "sendMicros",
+            "testRunId");
+}
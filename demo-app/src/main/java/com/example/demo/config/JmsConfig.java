@@ -0,0 +1,159 @@
+package com.example.demo.config;
+
+import com.example.demo.listener.AdaptiveConcurrencyController;
+import com.example.demo.listener.BackPressureController;
+import com.example.demo.listener.BatchConsumerGroup;
+import com.example.demo.listener.BatchMessageListener;
+import com.example.demo.listener.ConsumerThreadMetrics;
+import com.example.demo.listener.MessageListener;
+import com.example.demo.listener.QueueListener;
+import com.example.demo.listener.StageTimers;
+import com.example.demo.service.KafkaMessageService;
+import com.example.demo.service.MeteredConnectionFactory;
+import com.example.demo.service.ProducerBufferMonitor;
+import com.example.demo.service.SpillLog;
+import com.ibm.mq.jakarta.jms.MQConnectionFactory;
+import com.ibm.mq.spring.boot.MQConfigurationProperties;
+import com.ibm.mq.spring.boot.MQConnectionDetails;
+import com.ibm.mq.spring.boot.MQConnectionFactoryCustomizer;
+import com.ibm.mq.spring.boot.MQConnectionFactoryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.jms.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jms.autoconfigure.DefaultJmsListenerContainerFactoryConfigurer;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jms.annotation.JmsListenerConfigurer;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.config.SimpleJmsListenerEndpoint;
+
+import java.util.List;
+
+@Configuration
+public class JmsConfig {
+
+    /**
+     * Replaces the MQ starter's implicit caching connection factory with an explicitly sized and metered one.
+     * The MQ connection factory underneath is built from {@code ibm.mq.*} exactly as the starter builds it.
+     */
+    @Bean
+    public MeteredConnectionFactory connectionFactory(
+            MQConnectionDetails connectionDetails,
+            MQConfigurationProperties mqProperties,
+            ObjectProvider<SslBundles> sslBundles,
+            ObjectProvider<List<MQConnectionFactoryCustomizer>> customizers,
+            ConnectionPoolProperties poolProperties,
+            MeterRegistry meterRegistry) {
+        MQConnectionFactory mqConnectionFactory = new MQConnectionFactoryFactory(connectionDetails, mqProperties,
+                sslBundles.getIfAvailable(), customizers.getIfAvailable())
+                .createConnectionFactory(MQConnectionFactory.class);
+        MeteredConnectionFactory connectionFactory = new MeteredConnectionFactory(mqConnectionFactory, meterRegistry);
+        connectionFactory.setSessionCacheSize(poolProperties.getSessionCacheSize());
+        connectionFactory.setCacheProducers(poolProperties.isCacheProducers());
+        connectionFactory.setCacheConsumers(poolProperties.isCacheConsumers());
+        return connectionFactory;
+    }
+
+    @Bean
+    public QueueBindings queueBindings(QueueBindingProperties bindingProperties,
+                                       ConsumerPoolProperties poolProperties,
+                                       @Value("${ibm.mq.queue-name}") String defaultQueue) {
+        return new QueueBindings(bindingProperties, poolProperties, defaultQueue);
+    }
+
+    /**
+     * Registers one listener container per queue binding.
+     * Each container is created from its own factory with the standard {@code spring.jms.listener.*} settings,
+     * the binding's consumer pool size and its own consumer threads, named {@code <thread-name-prefix><queue>-},
+     * so consumers are never shared between queues. The containers are kept stopped when the transacted batch
+     * consumers own the queues.
+     */
+    @Bean
+    public JmsListenerConfigurer queueListenerConfigurer(
+            DefaultJmsListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            QueueBindings queueBindings,
+            MessageListener messageListener,
+            BatchConsumerProperties batchProperties,
+            ConsumerPoolProperties poolProperties,
+            MeterRegistry meterRegistry) {
+        return registrar -> {
+            for (QueueBindings.Binding binding : queueBindings.bindings()) {
+                DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+                configurer.configure(factory, connectionFactory);
+                factory.setTaskExecutor(consumerTaskExecutor(poolProperties, binding));
+                if (batchProperties.isEnabled()) {
+                    factory.setAutoStartup(false);
+                }
+
+                SimpleJmsListenerEndpoint endpoint = new SimpleJmsListenerEndpoint();
+                endpoint.setId(binding.containerId());
+                endpoint.setDestination(binding.queue());
+                endpoint.setConcurrency(binding.concurrency());
+                endpoint.setMessageListener(new QueueListener(messageListener, binding.queue(), meterRegistry));
+                registrar.registerEndpoint(endpoint, factory);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bridge.batch", name = "enabled", havingValue = "true")
+    public BatchConsumerGroup batchConsumerGroup(
+            ConnectionFactory connectionFactory,
+            MessageListener messageListener,
+            KafkaMessageService kafkaMessageService,
+            BatchConsumerProperties batchProperties,
+            QueueBindings queueBindings,
+            StageTimers stageTimers,
+            MeterRegistry meterRegistry) {
+        return new BatchConsumerGroup(queueBindings.bindings().stream()
+                .map(binding -> new BatchMessageListener(connectionFactory, messageListener, kafkaMessageService,
+                        batchProperties, stageTimers, meterRegistry, binding.queue()))
+                .toList());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bridge.consumers.adaptive", name = "enabled", havingValue = "true")
+    public AdaptiveConcurrencyController adaptiveConcurrencyController(
+            JmsListenerEndpointRegistry endpointRegistry,
+            QueueBindings queueBindings,
+            ConsumerThreadMetrics consumerMetrics,
+            ProducerBufferMonitor producerBufferMonitor,
+            ConsumerPoolProperties poolProperties,
+            MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyController(endpointRegistry, queueBindings, consumerMetrics,
+                producerBufferMonitor, poolProperties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bridge.backpressure", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public BackPressureController backPressureController(
+            JmsListenerEndpointRegistry endpointRegistry,
+            ProducerBufferMonitor producerBufferMonitor,
+            KafkaMessageService kafkaMessageService,
+            ObjectProvider<BatchConsumerGroup> batchConsumerGroup,
+            BackPressureProperties backPressureProperties,
+            ObjectProvider<SpillLog> spillLog,
+            MeterRegistry meterRegistry) {
+        return new BackPressureController(endpointRegistry, producerBufferMonitor, kafkaMessageService,
+                batchConsumerGroup.getIfAvailable(() -> new BatchConsumerGroup(List.of())).consumers(),
+                backPressureProperties, spillLog.getIfAvailable(), meterRegistry);
+    }
+
+    /**
+     * One long-lived task per consumer; named threads become the {@code consumer} metric tag.
+     */
+    private static SimpleAsyncTaskExecutor consumerTaskExecutor(ConsumerPoolProperties poolProperties,
+                                                                QueueBindings.Binding binding) {
+        SimpleAsyncTaskExecutor executor =
+                new SimpleAsyncTaskExecutor(poolProperties.getThreadNamePrefix() + binding.queue() + "-");
+        executor.setVirtualThreads(poolProperties.isVirtualThreads());
+        return executor;
+    }
+}
@@ -1,18 +1,135 @@
 package com.example.demo.config;
 
+import com.example.demo.converter.Iso8583Parser;
+import com.example.demo.converter.RecordKeyExtractor;
+import com.example.demo.converter.RecordKeyExtractors;
 import com.example.demo.service.KafkaMessageService;
+import com.example.demo.service.MessageRouter;
+import com.example.demo.service.PartitionSkewMonitor;
+import com.example.demo.service.ProducerBufferMonitor;
+import com.example.demo.service.SpillDrainer;
+import com.example.demo.service.SpillLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.kafka.autoconfigure.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.ProducerListener;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
 
+    private static final Map<String, Object> BINARY_SERIALIZERS = Map.of(
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+
+    /**
+     * In binary mode a second template is derived from the auto-configured producer factory,
+     * so it shares all {@code spring.kafka.producer.*} settings and only swaps the serializers.
+     * It also reports to the same producer listener as the auto-configured template.
+     * With {@code bridge.spill.enabled}, records are appended to the spill log while back-pressure diverts them.
+     */
     @Bean
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public KafkaMessageService kafkaMessageService(
             KafkaTemplate<String, String> kafkaTemplate,
+            ProducerFactory<byte[], byte[]> producerFactory,
+            ProducerListener<Object, Object> producerListener,
+            PayloadProperties payloadProperties,
+            MeterRegistry meterRegistry,
+            ObjectProvider<SpillLog> spillLog,
             @Value("${kafka.topic.name}") String kafkaTopic) {
-        return new KafkaMessageService(kafkaTemplate, kafkaTopic);
+        KafkaTemplate<byte[], byte[]> binaryKafkaTemplate = null;
+        if (payloadProperties.getMode() == PayloadProperties.Mode.BINARY) {
+            binaryKafkaTemplate = new KafkaTemplate<>(producerFactory, BINARY_SERIALIZERS);
+            binaryKafkaTemplate.setProducerListener((ProducerListener) producerListener);
+        }
+        return new KafkaMessageService(kafkaTemplate, binaryKafkaTemplate, kafkaTopic, meterRegistry,
+                spillLog.getIfAvailable());
+    }
+
+    /**
+     * Replaces Boot's default {@code LoggingProducerListener}, which it extends, so every template
+     * counts acknowledged records per partition.
+     */
+    @Bean
+    public PartitionSkewMonitor kafkaProducerListener(MeterRegistry meterRegistry, KafkaAdmin kafkaAdmin) {
+        return new PartitionSkewMonitor(meterRegistry, kafkaAdmin);
+    }
+
+    /**
+     * Routes messages by content, then by the topic of their queue binding; unmatched messages go to
+     * {@code kafka.topic.name}.
+     */
+    @Bean
+    public MessageRouter messageRouter(RoutingProperties routingProperties, QueueBindings queueBindings,
+                                       Iso8583Parser iso8583Parser, MeterRegistry meterRegistry,
+                                       @Value("${kafka.topic.name}") String kafkaTopic) {
+        return new MessageRouter(routingProperties, queueBindings.topicsByQueue(), iso8583Parser, meterRegistry,
+                kafkaTopic);
+    }
+
+    @Bean
+    public RecordKeyExtractor recordKeyExtractor(RecordKeyProperties keyProperties, Iso8583Parser iso8583Parser) {
+        return RecordKeyExtractors.fromProperties(keyProperties, iso8583Parser);
+    }
+
+    /**
+     * Applies the throughput profile to the auto-configured producer factory, and through it to the
+     * binary template derived from that factory.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "bridge.producer", name = "profile", havingValue = "throughput")
+    public DefaultKafkaProducerFactoryCustomizer throughputProducerProfile(ProducerProfileProperties properties) {
+        Map<String, Object> configs = throughputConfigs(properties.getThroughput());
+        return producerFactory -> producerFactory.updateConfigs(configs);
+    }
+
+    static Map<String, Object> throughputConfigs(ProducerProfileProperties.Throughput throughput) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(ProducerConfig.LINGER_MS_CONFIG, (int) throughput.getLinger().toMillis());
+        configs.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) throughput.getBatchSize().toBytes());
+        configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, throughput.getCompression().name);
+        configs.put(ProducerConfig.BUFFER_MEMORY_CONFIG, throughput.getBufferMemory().toBytes());
+        configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, throughput.isIdempotence());
+        if (throughput.isIdempotence()) {
+            configs.put(ProducerConfig.ACKS_CONFIG, "all");
+        }
+        return configs;
+    }
+
+    /**
+     * Spilling is switched on by the back-pressure controller, so it cannot be used without it.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "bridge.spill", name = "enabled", havingValue = "true")
+    public SpillLog spillLog(SpillProperties spillProperties, BackPressureProperties backPressureProperties,
+                             MeterRegistry meterRegistry) {
+        if (!backPressureProperties.isEnabled()) {
+            throw new IllegalArgumentException("bridge.spill.enabled requires bridge.backpressure.enabled");
+        }
+        return new SpillLog(spillProperties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "bridge.spill", name = "enabled", havingValue = "true")
+    public SpillDrainer spillDrainer(SpillLog spillLog, KafkaMessageService kafkaMessageService,
+                                     SpillProperties spillProperties) {
+        return new SpillDrainer(spillLog, kafkaMessageService, spillProperties);
+    }
+
+    @Bean
+    public ProducerBufferMonitor producerBufferMonitor(KafkaMessageService kafkaMessageService) {
+        return new ProducerBufferMonitor(kafkaMessageService.producerTemplate());
     }
 }
@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for logging forwarded payloads.
+ * Only every {@code sample-every}th message is logged, and only as a digest or a short preview, by a background
+ * writer fed through a bounded queue; entries that do not fit are dropped and counted instead of slowing down
+ * forwarding.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.payload-log")
+public class PayloadLogProperties {
+
+    /**
+     * Log one in this many forwarded messages; 1 logs every message, 0 disables payload logging.
+     */
+    private int sampleEvery = 1000;
+
+    /**
+     * What is logged of a sampled payload.
+     */
+    private Content content = Content.PREVIEW;
+
+    /**
+     * Characters (text) or bytes (binary, hex-encoded) of the payload shown in a preview.
+     */
+    private int previewLength = 64;
+
+    /**
+     * Sampled entries waiting for the writer; entries arriving while it is full are dropped.
+     */
+    private int queueCapacity = 4096;
+
+    public enum Content {
+        /**
+         * Payload length and a SHA-256 prefix, enough to match the message on both sides of the bridge.
+         */
+        DIGEST,
+        /**
+         * The digest plus the beginning of the payload.
+         */
+        PREVIEW
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for how MQ message bodies are carried to Kafka.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.payload")
+public class PayloadProperties {
+
+    /**
+     * Whether bodies are decoded and converted as text, or forwarded unchanged as bytes.
+     */
+    private Mode mode = Mode.TEXT;
+
+    public enum Mode {
+        /**
+         * Bodies are read as {@code String}, passed through the converter and sent with the String serializer.
+         */
+        TEXT,
+        /**
+         * Bodies are read as {@code byte[]} and sent unchanged with {@code ByteArraySerializer}.
+         */
+        BINARY
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.common.record.CompressionType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the Kafka producer profile.
+ * The throughput profile is applied on top of {@code spring.kafka.producer.*} and wins where both set a value.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.producer")
+public class ProducerProfileProperties {
+
+    /**
+     * Producer profile: {@code default} keeps the {@code spring.kafka.producer.*} settings as they are,
+     * {@code throughput} batches and compresses records.
+     */
+    private Profile profile = Profile.DEFAULT;
+
+    private Throughput throughput = new Throughput();
+
+    public enum Profile {
+        DEFAULT,
+        THROUGHPUT
+    }
+
+    /**
+     * Settings of the throughput profile.
+     */
+    @Getter
+    @Setter
+    public static class Throughput {
+
+        /**
+         * How long the producer waits for more records before sending a partially filled batch.
+         */
+        private Duration linger = Duration.ofMillis(10);
+
+        /**
+         * Upper bound of a per-partition batch.
+         */
+        private DataSize batchSize = DataSize.ofKilobytes(256);
+
+        /**
+         * Compression applied to whole batches.
+         */
+        private CompressionType compression = CompressionType.LZ4;
+
+        /**
+         * Memory for records waiting to be sent; sends block once it is full.
+         */
+        private DataSize bufferMemory = DataSize.ofMegabytes(64);
+
+        /**
+         * Whether the producer is idempotent, which also requires {@code acks=all}.
+         */
+        private boolean idempotence = true;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the MQ queues the bridge consumes.
+ * Every queue gets its own listener container, consumer pool and consumer threads, so a slow queue cannot take
+ * consumers away from the others. Without bindings the bridge consumes {@code ibm.mq.queue-name} only.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.bindings")
+public class QueueBindingProperties {
+
+    /**
+     * Queues to consume, each with an optional topic and consumer pool size.
+     */
+    private List<Binding> queues = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Binding {
+
+        /**
+         * Name of the MQ queue.
+         */
+        private String queue;
+
+        /**
+         * Topic for messages of this queue that no routing rule matches; defaults to {@code kafka.topic.name}.
+         */
+        private String topic;
+
+        /**
+         * Consumers kept open on this queue; defaults to {@code bridge.consumers.min-concurrency}.
+         */
+        private Integer minConcurrency;
+
+        /**
+         * Upper bound of consumers, and so of threads, for this queue; defaults to
+         * {@code bridge.consumers.max-concurrency}.
+         */
+        private Integer maxConcurrency;
+    }
+}
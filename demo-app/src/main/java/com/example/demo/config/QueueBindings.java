@@ -0,0 +1,84 @@
+package com.example.demo.config;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The queues the bridge consumes, resolved from {@code bridge.bindings.queues} with the consumer pool defaults of
+ * {@code bridge.consumers}, or the single {@code ibm.mq.queue-name} if no bindings are configured.
+ */
+public class QueueBindings {
+
+    private static final String CONTAINER_ID_PREFIX = "mq-";
+
+    private final List<Binding> bindings;
+
+    public QueueBindings(QueueBindingProperties properties, ConsumerPoolProperties poolProperties,
+                         String defaultQueue) {
+        List<QueueBindingProperties.Binding> configured = properties.getQueues();
+        if (configured.isEmpty()) {
+            this.bindings = List.of(new Binding(defaultQueue, null,
+                    poolProperties.getMinConcurrency(), poolProperties.getMaxConcurrency()));
+        } else {
+            this.bindings = configured.stream()
+                    .map(binding -> new Binding(binding.getQueue(), binding.getTopic(),
+                            binding.getMinConcurrency() != null
+                                    ? binding.getMinConcurrency() : poolProperties.getMinConcurrency(),
+                            binding.getMaxConcurrency() != null
+                                    ? binding.getMaxConcurrency() : poolProperties.getMaxConcurrency()))
+                    .toList();
+        }
+        validate(bindings);
+    }
+
+    public List<Binding> bindings() {
+        return bindings;
+    }
+
+    /**
+     * Topics of the bindings that set one, by queue name.
+     */
+    public Map<String, String> topicsByQueue() {
+        Map<String, String> topics = new HashMap<>();
+        bindings.stream()
+                .filter(binding -> binding.topic() != null)
+                .forEach(binding -> topics.put(binding.queue(), binding.topic()));
+        return topics;
+    }
+
+    private static void validate(List<Binding> bindings) {
+        Set<String> queues = new HashSet<>();
+        for (Binding binding : bindings) {
+            if (binding.queue() == null || binding.queue().isBlank() || !queues.add(binding.queue())) {
+                throw new IllegalArgumentException("Queue bindings need unique queue names: " + binding.queue());
+            }
+            if (binding.minConcurrency() < 1 || binding.maxConcurrency() < binding.minConcurrency()) {
+                throw new IllegalArgumentException("Queue binding " + binding.queue()
+                        + " needs 1 <= min-concurrency <= max-concurrency");
+            }
+        }
+    }
+
+    /**
+     * One consumed queue with its resolved consumer pool size.
+     */
+    public record Binding(String queue, String topic, int minConcurrency, int maxConcurrency) {
+
+        /**
+         * ID of the queue's listener container in the {@code JmsListenerEndpointRegistry}.
+         */
+        public String containerId() {
+            return CONTAINER_ID_PREFIX + queue;
+        }
+
+        /**
+         * Concurrency range in the {@code min-max} form of listener containers.
+         */
+        public String concurrency() {
+            return minConcurrency + "-" + maxConcurrency;
+        }
+    }
+}
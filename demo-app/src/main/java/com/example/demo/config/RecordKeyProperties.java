@@ -0,0 +1,52 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the Kafka record key, which decides the partition of each record.
+ * Records with the same key always land on the same partition, so they are consumed in the order they were sent.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.key")
+public class RecordKeyProperties {
+
+    /**
+     * Where the record key is taken from.
+     */
+    private Source source = Source.NONE;
+
+    /**
+     * JMS property holding the key when the source is {@code jms-property}.
+     */
+    private String propertyName = "correlationId";
+
+    /**
+     * ISO 8583 data element holding the key when the source is {@code iso8583-field},
+     * e.g. 2 for the PAN or 41 for the terminal ID.
+     */
+    private int isoField = 2;
+
+    public enum Source {
+        /**
+         * Records are sent without a key and spread over partitions by the producer.
+         */
+        NONE,
+        /**
+         * The key is a JMS message property.
+         */
+        JMS_PROPERTY,
+        /**
+         * The key is the JMS correlation ID.
+         */
+        CORRELATION_ID,
+        /**
+         * The key is a data element of an ISO 8583 payload.
+         */
+        ISO8583_FIELD
+    }
+}
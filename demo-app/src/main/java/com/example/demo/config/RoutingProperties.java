@@ -0,0 +1,108 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for content-based routing of MQ messages to Kafka topics.
+ * Rules are evaluated in order and the first matching rule decides the route; messages no rule matches go to
+ * {@code kafka.topic.name}. Rules may also be kept in {@code rules-file}, which is reloaded when it changes.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.routing")
+public class RoutingProperties {
+
+    /**
+     * Routing rules in priority order.
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * Optional YAML file with {@code bridge.routing.rules}; when set, its rules replace {@link #rules}.
+     */
+    private String rulesFile;
+
+    /**
+     * How often the rules file is checked for changes.
+     */
+    private Duration reloadInterval = Duration.ofSeconds(10);
+
+    @Getter
+    @Setter
+    public static class Rule {
+
+        /**
+         * Name of the route, used as the {@code route} tag of its metrics; defaults to {@code rule-<index>}.
+         */
+        private String name;
+
+        /**
+         * What part of the message the rule matches on.
+         */
+        private Match match = Match.JMS_PROPERTY;
+
+        /**
+         * JMS property to match when matching on {@code jms-property}.
+         */
+        private String property;
+
+        /**
+         * Values that select this rule, compared exactly.
+         */
+        private List<String> values = new ArrayList<>();
+
+        /**
+         * What happens to matching messages.
+         */
+        private Action action = Action.ROUTE;
+
+        /**
+         * Target topic of {@code route} and {@code sample} rules; sampled messages default to
+         * {@code kafka.topic.name}.
+         */
+        private String topic;
+
+        /**
+         * Fraction (0..1) of matching messages forwarded by a {@code sample} rule.
+         */
+        private double sampleRate = 0.01;
+    }
+
+    public enum Match {
+        /**
+         * The message type indicator of an ISO 8583 body.
+         */
+        MTI,
+        /**
+         * A JMS message property; non-string values are compared with {@code toString()}.
+         */
+        JMS_PROPERTY,
+        /**
+         * The name of the queue the message was received from.
+         */
+        QUEUE
+    }
+
+    public enum Action {
+        /**
+         * Forward every matching message to the rule's topic.
+         */
+        ROUTE,
+        /**
+         * Acknowledge matching messages on MQ without forwarding them.
+         */
+        DROP,
+        /**
+         * Forward a random {@code sample-rate} fraction of matching messages and drop the rest.
+         */
+        SAMPLE
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for spilling records to local disk while Kafka cannot take them.
+ * When back-pressure trips, records are appended to a memory-mapped segment log instead of the producer, and MQ
+ * consumption only pauses once the log is full. A background drainer replays the log in order once Kafka
+ * acknowledges sends again, and records go straight to the producer once the log is empty.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "bridge.spill")
+public class SpillProperties {
+
+    /**
+     * Whether records are spilled to disk instead of pausing MQ consumption; requires back-pressure.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory of the segment files, ideally on a persistent volume of the pod.
+     */
+    private String directory = "spill";
+
+    /**
+     * Size of one memory-mapped segment file; also the upper bound of a single spilled record.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Segments kept at most; once all are full, spilling fails and MQ consumption pauses.
+     */
+    private int maxSegments = 16;
+
+    /**
+     * Whether every append is forced to disk, so spilled records also survive a node crash, at the cost of a
+     * disk flush per record. Without it they survive a crash of the bridge but not of the node.
+     */
+    private boolean sync = false;
+
+    /**
+     * Records replayed per batch; the drainer waits for all of them to be acknowledged before the next batch.
+     */
+    private int replayBatchSize = 500;
+
+    /**
+     * How long the drainer waits before retrying a batch Kafka did not acknowledge.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(5);
+
+    /**
+     * How often the drainer checks an empty log.
+     */
+    private Duration pollInterval = Duration.ofMillis(100);
+}
@@ -0,0 +1,124 @@
+package com.example.demo.converter;
+
+import java.util.List;
+
+/**
+ * Field definitions and bitmap encoding of an ISO 8583 message format.
+ * {@link #standard()} covers the ISO 8583:1987 ASCII data elements used by card authorization traffic.
+ */
+public final class Iso8583Dictionary {
+
+    static final int MAX_FIELD = 128;
+
+    private final Iso8583FieldSpec[] specs = new Iso8583FieldSpec[MAX_FIELD + 1];
+    private final BitmapEncoding bitmapEncoding;
+
+    public Iso8583Dictionary(List<Iso8583FieldSpec> fields, BitmapEncoding bitmapEncoding) {
+        for (Iso8583FieldSpec field : fields) {
+            if (specs[field.number()] != null) {
+                throw new IllegalArgumentException("Duplicate ISO 8583 field definition: " + field.number());
+            }
+            specs[field.number()] = field;
+        }
+        this.bitmapEncoding = bitmapEncoding;
+    }
+
+    public static Iso8583Dictionary standard() {
+        return standard(BitmapEncoding.HEX);
+    }
+
+    public static Iso8583Dictionary standard(BitmapEncoding bitmapEncoding) {
+        return new Iso8583Dictionary(List.of(
+                Iso8583FieldSpec.llvar(2, 19, true),          // Primary account number
+                Iso8583FieldSpec.fixedNumeric(3, 6),          // Processing code
+                Iso8583FieldSpec.fixedNumeric(4, 12),         // Amount, transaction
+                Iso8583FieldSpec.fixedNumeric(5, 12),         // Amount, settlement
+                Iso8583FieldSpec.fixedNumeric(6, 12),         // Amount, cardholder billing
+                Iso8583FieldSpec.fixedNumeric(7, 10),         // Transmission date and time (MMDDhhmmss)
+                Iso8583FieldSpec.fixedNumeric(11, 6),         // System trace audit number
+                Iso8583FieldSpec.fixedNumeric(12, 6),         // Local transaction time (hhmmss)
+                Iso8583FieldSpec.fixedNumeric(13, 4),         // Local transaction date (MMDD)
+                Iso8583FieldSpec.fixedNumeric(14, 4),         // Expiration date (YYMM)
+                Iso8583FieldSpec.fixedNumeric(15, 4),         // Settlement date
+                Iso8583FieldSpec.fixedNumeric(18, 4),         // Merchant category code
+                Iso8583FieldSpec.fixedNumeric(19, 3),         // Acquiring institution country code
+                Iso8583FieldSpec.fixedNumeric(22, 3),         // POS entry mode
+                Iso8583FieldSpec.fixedNumeric(23, 3),         // Card sequence number
+                Iso8583FieldSpec.fixedNumeric(25, 2),         // POS condition code
+                Iso8583FieldSpec.llvar(32, 11, true),         // Acquiring institution identification code
+                Iso8583FieldSpec.llvar(33, 11, true),         // Forwarding institution identification code
+                Iso8583FieldSpec.llvar(35, 37, false),        // Track 2 data
+                Iso8583FieldSpec.fixed(37, 12),               // Retrieval reference number
+                Iso8583FieldSpec.fixed(38, 6),                // Authorization identification response
+                Iso8583FieldSpec.fixed(39, 2),                // Response code
+                Iso8583FieldSpec.fixed(41, 8),                // Card acceptor terminal identification
+                Iso8583FieldSpec.fixed(42, 15),               // Card acceptor identification code
+                Iso8583FieldSpec.fixed(43, 40),               // Card acceptor name/location
+                Iso8583FieldSpec.lllvar(48, 999, false),      // Additional data, private
+                Iso8583FieldSpec.fixedNumeric(49, 3),         // Currency code, transaction
+                Iso8583FieldSpec.fixedNumeric(50, 3),         // Currency code, settlement
+                Iso8583FieldSpec.fixedNumeric(51, 3),         // Currency code, cardholder billing
+                Iso8583FieldSpec.fixed(52, 16),               // PIN data (hex)
+                Iso8583FieldSpec.fixedNumeric(53, 16),        // Security related control information
+                Iso8583FieldSpec.lllvar(54, 120, false),      // Additional amounts
+                Iso8583FieldSpec.lllvar(55, 999, false),      // ICC data
+                Iso8583FieldSpec.lllvar(60, 999, false),      // Reserved (national)
+                Iso8583FieldSpec.lllvar(61, 999, false),      // Reserved (private)
+                Iso8583FieldSpec.lllvar(62, 999, false),      // Reserved (private)
+                Iso8583FieldSpec.lllvar(63, 999, false),      // Reserved (private)
+                Iso8583FieldSpec.fixed(64, 16),               // Message authentication code
+                Iso8583FieldSpec.fixedNumeric(70, 3),         // Network management information code
+                Iso8583FieldSpec.fixedNumeric(90, 42),        // Original data elements
+                Iso8583FieldSpec.fixed(95, 42),               // Replacement amounts
+                Iso8583FieldSpec.llvar(100, 11, true),        // Receiving institution identification code
+                Iso8583FieldSpec.llvar(102, 28, false),       // Account identification 1
+                Iso8583FieldSpec.llvar(103, 28, false),       // Account identification 2
+                Iso8583FieldSpec.lllvar(120, 999, false),     // Reserved (private)
+                Iso8583FieldSpec.fixed(128, 16)),             // Message authentication code
+                bitmapEncoding);
+    }
+
+    /**
+     * Definition of a data element.
+     *
+     * @throws IllegalArgumentException if the field is not part of this dictionary
+     */
+    public Iso8583FieldSpec spec(int field) {
+        Iso8583FieldSpec spec = field > 1 && field <= MAX_FIELD ? specs[field] : null;
+        if (spec == null) {
+            throw new IllegalArgumentException("ISO 8583 field " + field + " is not defined");
+        }
+        return spec;
+    }
+
+    public BitmapEncoding bitmapEncoding() {
+        return bitmapEncoding;
+    }
+
+    /**
+     * How each 64-bit bitmap is carried on the wire.
+     */
+    public enum BitmapEncoding {
+        /**
+         * 16 ASCII hex characters per bitmap, as used by text (TextMessage) payloads.
+         */
+        HEX(16),
+        /**
+         * 8 raw bytes per bitmap, as used by binary (BytesMessage) payloads.
+         */
+        BINARY(8);
+
+        private final int length;
+
+        BitmapEncoding(int length) {
+            this.length = length;
+        }
+
+        /**
+         * Bytes one bitmap occupies.
+         */
+        public int length() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.converter;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes ISO 8583 messages in the format described by an {@link Iso8583Dictionary}.
+ * Field values are validated and padded when set, and {@link Builder#encode()} sizes the output
+ * once and writes every element straight into it.
+ */
+@Component
+public class Iso8583Encoder {
+
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final Iso8583Dictionary dictionary;
+
+    public Iso8583Encoder() {
+        this(Iso8583Dictionary.standard());
+    }
+
+    public Iso8583Encoder(Iso8583Dictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Starts a message with the given four digit message type indicator.
+     */
+    public Builder message(String mti) {
+        if (mti.length() != Iso8583Parser.MTI_LENGTH || !isDigits(mti)) {
+            throw new IllegalArgumentException("Invalid ISO 8583 MTI: " + mti);
+        }
+        return new Builder(mti);
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public final class Builder {
+
+        private final String mti;
+        private final byte[][] values = new byte[Iso8583Dictionary.MAX_FIELD + 1][];
+
+        private Builder(String mti) {
+            this.mti = mti;
+        }
+
+        public Builder set(int field, String value) {
+            return set(field, value.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        public Builder set(int field, long value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("ISO 8583 field " + field + " cannot hold negative value " + value);
+            }
+            return set(field, Long.toString(value));
+        }
+
+        /**
+         * Sets a field from raw bytes; fixed-length fields shorter than their length are padded.
+         *
+         * @throws IllegalArgumentException if the field is not defined, too long, or not numeric when it must be
+         */
+        public Builder set(int field, byte[] value) {
+            Iso8583FieldSpec spec = dictionary.spec(field);
+            if (value.length > spec.maxLength()) {
+                throw new IllegalArgumentException("ISO 8583 field " + field + " length " + value.length
+                        + " exceeds maximum " + spec.maxLength());
+            }
+            if (spec.numeric()) {
+                Iso8583Parser.parseDigits(value, 0, value.length, field);
+            }
+            values[field] = spec.lengthType() == Iso8583FieldSpec.LengthType.FIXED
+                    ? pad(value, spec)
+                    : value.clone();
+            return this;
+        }
+
+        public byte[] encode() {
+            boolean secondary = false;
+            int size = Iso8583Parser.MTI_LENGTH;
+            for (int field = 2; field <= Iso8583Dictionary.MAX_FIELD; field++) {
+                byte[] value = values[field];
+                if (value != null) {
+                    size += dictionary.spec(field).lengthType().prefixDigits() + value.length;
+                    secondary |= field > 64;
+                }
+            }
+            int bitmapLength = dictionary.bitmapEncoding().length();
+            size += secondary ? 2 * bitmapLength : bitmapLength;
+
+            long primaryBitmap = secondary ? Iso8583Message.bitOf(1) : 0;
+            long secondaryBitmap = 0;
+            for (int field = 2; field <= Iso8583Dictionary.MAX_FIELD; field++) {
+                if (values[field] != null) {
+                    if (field <= 64) {
+                        primaryBitmap |= Iso8583Message.bitOf(field);
+                    } else {
+                        secondaryBitmap |= Iso8583Message.bitOf(field);
+                    }
+                }
+            }
+
+            byte[] message = new byte[size];
+            int position = 0;
+            for (int i = 0; i < Iso8583Parser.MTI_LENGTH; i++) {
+                message[position++] = (byte) mti.charAt(i);
+            }
+            position = writeBitmap(message, position, primaryBitmap);
+            if (secondary) {
+                position = writeBitmap(message, position, secondaryBitmap);
+            }
+            for (int field = 2; field <= Iso8583Dictionary.MAX_FIELD; field++) {
+                byte[] value = values[field];
+                if (value == null) {
+                    continue;
+                }
+                int prefixDigits = dictionary.spec(field).lengthType().prefixDigits();
+                for (int i = prefixDigits - 1, length = value.length; i >= 0; i--, length /= 10) {
+                    message[position + i] = (byte) ('0' + length % 10);
+                }
+                position += prefixDigits;
+                System.arraycopy(value, 0, message, position, value.length);
+                position += value.length;
+            }
+            return message;
+        }
+
+        private int writeBitmap(byte[] message, int position, long bitmap) {
+            if (dictionary.bitmapEncoding() == Iso8583Dictionary.BitmapEncoding.BINARY) {
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    message[position++] = (byte) (bitmap >>> shift);
+                }
+                return position;
+            }
+            for (int shift = 60; shift >= 0; shift -= 4) {
+                message[position++] = HEX_DIGITS[(int) (bitmap >>> shift) & 0xF];
+            }
+            return position;
+        }
+
+        private static byte[] pad(byte[] value, Iso8583FieldSpec spec) {
+            int length = spec.maxLength();
+            if (value.length == length) {
+                return value.clone();
+            }
+            byte[] padded = new byte[length];
+            if (spec.numeric()) {
+                int padding = length - value.length;
+                Arrays.fill(padded, 0, padding, (byte) '0');
+                System.arraycopy(value, 0, padded, padding, value.length);
+            } else {
+                System.arraycopy(value, 0, padded, 0, value.length);
+                Arrays.fill(padded, value.length, length, (byte) ' ');
+            }
+            return padded;
+        }
+    }
+}
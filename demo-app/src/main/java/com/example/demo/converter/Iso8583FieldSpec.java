@@ -0,0 +1,65 @@
+package com.example.demo.converter;
+
+/**
+ * Wire format of one ISO 8583 data element.
+ *
+ * @param number     data element number (2..128)
+ * @param lengthType fixed length, or variable with a 2 or 3 digit length prefix
+ * @param maxLength  exact length of fixed fields, maximum length of variable fields
+ * @param numeric    numeric fields are left-padded with zeros, others right-padded with spaces
+ */
+public record Iso8583FieldSpec(int number, LengthType lengthType, int maxLength, boolean numeric) {
+
+    public Iso8583FieldSpec {
+        if (number < 2 || number > Iso8583Dictionary.MAX_FIELD) {
+            throw new IllegalArgumentException("ISO 8583 field number out of range: " + number);
+        }
+        if (maxLength < 1 || maxLength > lengthType.maxLength()) {
+            throw new IllegalArgumentException(
+                    "Invalid length " + maxLength + " for " + lengthType + " field " + number);
+        }
+    }
+
+    public static Iso8583FieldSpec fixedNumeric(int number, int length) {
+        return new Iso8583FieldSpec(number, LengthType.FIXED, length, true);
+    }
+
+    public static Iso8583FieldSpec fixed(int number, int length) {
+        return new Iso8583FieldSpec(number, LengthType.FIXED, length, false);
+    }
+
+    public static Iso8583FieldSpec llvar(int number, int maxLength, boolean numeric) {
+        return new Iso8583FieldSpec(number, LengthType.LLVAR, maxLength, numeric);
+    }
+
+    public static Iso8583FieldSpec lllvar(int number, int maxLength, boolean numeric) {
+        return new Iso8583FieldSpec(number, LengthType.LLLVAR, maxLength, numeric);
+    }
+
+    public enum LengthType {
+        FIXED(0),
+        LLVAR(2),
+        LLLVAR(3);
+
+        private final int prefixDigits;
+
+        LengthType(int prefixDigits) {
+            this.prefixDigits = prefixDigits;
+        }
+
+        /**
+         * Number of ASCII digits carrying the field length in front of the value.
+         */
+        public int prefixDigits() {
+            return prefixDigits;
+        }
+
+        int maxLength() {
+            return switch (this) {
+                case FIXED -> Integer.MAX_VALUE;
+                case LLVAR -> 99;
+                case LLLVAR -> 999;
+            };
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.demo.converter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parsed ISO 8583 message as a view over the original payload.
+ * Parsing only records where each present field starts; nothing is copied or decoded until
+ * a field is read, so a router that looks at two fields pays for two fields.
+ * The payload must not be modified while the view is in use.
+ */
+public final class Iso8583Message {
+
+    private static final long SECONDARY_BITMAP_BIT = Long.MIN_VALUE;
+
+    private final byte[] payload;
+    private final int mtiOffset;
+    private final long primaryBitmap;
+    private final long secondaryBitmap;
+    private final int[] fieldOffsets;
+    private final Iso8583Dictionary dictionary;
+
+    Iso8583Message(byte[] payload, int mtiOffset, long primaryBitmap, long secondaryBitmap,
+                   int[] fieldOffsets, Iso8583Dictionary dictionary) {
+        this.payload = payload;
+        this.mtiOffset = mtiOffset;
+        this.primaryBitmap = primaryBitmap;
+        this.secondaryBitmap = secondaryBitmap;
+        this.fieldOffsets = fieldOffsets;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Message type indicator, e.g. {@code 0200}.
+     */
+    public String mti() {
+        return new String(payload, mtiOffset, Iso8583Parser.MTI_LENGTH, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Compares the message type indicator without creating a {@code String}.
+     */
+    public boolean mtiEquals(String mti) {
+        return regionEquals(mtiOffset, Iso8583Parser.MTI_LENGTH, mti);
+    }
+
+    public boolean hasField(int field) {
+        if (field < 2 || field > Iso8583Dictionary.MAX_FIELD) {
+            return false;
+        }
+        long bitmap = field <= 64 ? primaryBitmap : secondaryBitmap;
+        return (bitmap & bitOf(field)) != 0;
+    }
+
+    /**
+     * Data element numbers present in this message, ascending.
+     */
+    public int[] fieldNumbers() {
+        int[] fields = new int[fieldOffsets.length];
+        int index = 0;
+        for (int field = 2; field <= Iso8583Dictionary.MAX_FIELD; field++) {
+            if (hasField(field)) {
+                fields[index++] = field;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Length of the field value in bytes, without any length prefix; -1 if the field is absent.
+     */
+    public int fieldLength(int field) {
+        if (!hasField(field)) {
+            return -1;
+        }
+        return valueLength(field, fieldOffsets[indexOf(field)]);
+    }
+
+    /**
+     * Field value decoded as ASCII, or {@code null} if the field is absent.
+     */
+    public String getString(int field) {
+        if (!hasField(field)) {
+            return null;
+        }
+        int offset = fieldOffsets[indexOf(field)];
+        return new String(payload, offset, valueLength(field, offset), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Copy of the field value, or {@code null} if the field is absent.
+     */
+    public byte[] getBytes(int field) {
+        if (!hasField(field)) {
+            return null;
+        }
+        int offset = fieldOffsets[indexOf(field)];
+        return Arrays.copyOfRange(payload, offset, offset + valueLength(field, offset));
+    }
+
+    /**
+     * Numeric field value parsed straight from the payload digits.
+     *
+     * @throws IllegalArgumentException if the field is absent, not all digits, or longer than 18 digits
+     */
+    public long getLong(int field) {
+        if (!hasField(field)) {
+            throw new IllegalArgumentException("ISO 8583 field " + field + " is not present");
+        }
+        int offset = fieldOffsets[indexOf(field)];
+        int length = valueLength(field, offset);
+        if (length > 18) {
+            throw new IllegalArgumentException("ISO 8583 field " + field + " is too long for a long value");
+        }
+        return Iso8583Parser.parseDigits(payload, offset, length, field);
+    }
+
+    /**
+     * Compares a field with an ASCII value without creating a {@code String}; false if the field is absent.
+     */
+    public boolean fieldEquals(int field, String value) {
+        if (!hasField(field)) {
+            return false;
+        }
+        int offset = fieldOffsets[indexOf(field)];
+        return regionEquals(offset, valueLength(field, offset), value);
+    }
+
+    /**
+     * Copies the field value into {@code target}.
+     *
+     * @return number of bytes copied, or -1 if the field is absent
+     */
+    public int copyField(int field, byte[] target, int targetOffset) {
+        if (!hasField(field)) {
+            return -1;
+        }
+        int offset = fieldOffsets[indexOf(field)];
+        int length = valueLength(field, offset);
+        System.arraycopy(payload, offset, target, targetOffset, length);
+        return length;
+    }
+
+    public long primaryBitmap() {
+        return primaryBitmap;
+    }
+
+    public long secondaryBitmap() {
+        return secondaryBitmap;
+    }
+
+    public Iso8583Dictionary dictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public String toString() {
+        return "Iso8583Message[mti=" + mti() + ", fields=" + Arrays.toString(fieldNumbers()) + "]";
+    }
+
+    static long bitOf(int field) {
+        return SECONDARY_BITMAP_BIT >>> ((field - 1) & 63);
+    }
+
+    /**
+     * Position of a present field in {@link #fieldOffsets}: the number of present fields before it.
+     */
+    private int indexOf(int field) {
+        long primaryFields = primaryBitmap & ~SECONDARY_BITMAP_BIT;
+        if (field <= 64) {
+            return Long.bitCount(primaryFields >>> (65 - field));
+        }
+        int secondaryBefore = field == 65 ? 0 : Long.bitCount(secondaryBitmap >>> (129 - field));
+        return Long.bitCount(primaryFields) + secondaryBefore;
+    }
+
+    private int valueLength(int field, int offset) {
+        Iso8583FieldSpec spec = dictionary.spec(field);
+        int prefixDigits = spec.lengthType().prefixDigits();
+        if (prefixDigits == 0) {
+            return spec.maxLength();
+        }
+        return (int) Iso8583Parser.parseDigits(payload, offset - prefixDigits, prefixDigits, field);
+    }
+
+    private boolean regionEquals(int offset, int length, String value) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (payload[offset + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
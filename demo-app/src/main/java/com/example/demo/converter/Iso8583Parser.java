@@ -0,0 +1,162 @@
+package com.example.demo.converter;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses ISO 8583 messages (MTI, primary and optional secondary bitmap, data elements) from bytes.
+ * A single pass over the payload reads only the bitmaps and length prefixes; field values are left
+ * in place and exposed lazily through {@link Iso8583Message}. The only allocations per message are
+ * the view and one {@code int} per present field.
+ */
+@Component
+public class Iso8583Parser {
+
+    static final int MTI_LENGTH = 4;
+
+    private final Iso8583Dictionary dictionary;
+
+    public Iso8583Parser() {
+        this(Iso8583Dictionary.standard());
+    }
+
+    public Iso8583Parser(Iso8583Dictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public Iso8583Message parse(byte[] payload) {
+        return parse(payload, 0, payload.length);
+    }
+
+    /**
+     * Reads only the MTI at the start of a payload, without scanning the bitmaps or fields.
+     *
+     * @throws IllegalArgumentException if the payload is shorter than an MTI or the MTI is not numeric
+     */
+    public String mti(byte[] payload) {
+        requireAvailable(0, MTI_LENGTH, payload.length, "MTI");
+        parseDigits(payload, 0, MTI_LENGTH, 0);
+        return new String(payload, 0, MTI_LENGTH, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Parses the message occupying {@code length} bytes of {@code payload} from {@code offset}.
+     *
+     * @throws IllegalArgumentException if the message is truncated, has trailing bytes, malformed
+     *                                  bitmaps or length prefixes, or fields the dictionary does not define
+     */
+    public Iso8583Message parse(byte[] payload, int offset, int length) {
+        int end = offset + length;
+        int position = offset;
+
+        requireAvailable(position, MTI_LENGTH, end, "MTI");
+        parseDigits(payload, position, MTI_LENGTH, 0);
+        int mtiOffset = position;
+        position += MTI_LENGTH;
+
+        int bitmapLength = dictionary.bitmapEncoding().length();
+        requireAvailable(position, bitmapLength, end, "primary bitmap");
+        long primaryBitmap = readBitmap(payload, position);
+        position += bitmapLength;
+
+        long secondaryBitmap = 0;
+        if ((primaryBitmap & Iso8583Message.bitOf(1)) != 0) {
+            requireAvailable(position, bitmapLength, end, "secondary bitmap");
+            secondaryBitmap = readBitmap(payload, position);
+            position += bitmapLength;
+        }
+
+        long primaryFields = primaryBitmap & ~Iso8583Message.bitOf(1);
+        int primaryCount = Long.bitCount(primaryFields);
+        int[] fieldOffsets = new int[primaryCount + Long.bitCount(secondaryBitmap)];
+        position = scanFields(payload, primaryFields, 0, position, end, fieldOffsets, 0);
+        position = scanFields(payload, secondaryBitmap, 64, position, end, fieldOffsets, primaryCount);
+
+        if (position != end) {
+            throw new IllegalArgumentException("ISO 8583 message has " + (end - position) + " trailing bytes");
+        }
+        return new Iso8583Message(payload, mtiOffset, primaryBitmap, secondaryBitmap, fieldOffsets, dictionary);
+    }
+
+    /**
+     * Records the value offset of every field set in one bitmap.
+     *
+     * @return position just after the last field of this bitmap
+     */
+    private int scanFields(byte[] payload, long bitmap, int fieldBase, int start, int end,
+                           int[] fieldOffsets, int firstIndex) {
+        int position = start;
+        int index = firstIndex;
+        long remaining = bitmap;
+        while (remaining != 0) {
+            int bit = Long.numberOfLeadingZeros(remaining);
+            remaining &= ~(Long.MIN_VALUE >>> bit);
+            int field = fieldBase + bit + 1;
+
+            Iso8583FieldSpec spec = dictionary.spec(field);
+            int prefixDigits = spec.lengthType().prefixDigits();
+            int valueLength = spec.maxLength();
+            if (prefixDigits > 0) {
+                if (end - position < prefixDigits) {
+                    throw truncated("length of field " + field);
+                }
+                valueLength = (int) parseDigits(payload, position, prefixDigits, field);
+                if (valueLength > spec.maxLength()) {
+                    throw new IllegalArgumentException("ISO 8583 field " + field + " length " + valueLength
+                            + " exceeds maximum " + spec.maxLength());
+                }
+                position += prefixDigits;
+            }
+            if (end - position < valueLength) {
+                throw truncated("field " + field);
+            }
+            fieldOffsets[index++] = position;
+            position += valueLength;
+        }
+        return position;
+    }
+
+    private long readBitmap(byte[] payload, int offset) {
+        long bitmap = 0;
+        if (dictionary.bitmapEncoding() == Iso8583Dictionary.BitmapEncoding.BINARY) {
+            for (int i = 0; i < Long.BYTES; i++) {
+                bitmap = (bitmap << 8) | (payload[offset + i] & 0xFF);
+            }
+            return bitmap;
+        }
+        for (int i = 0; i < 16; i++) {
+            int nibble = Character.digit(payload[offset + i], 16);
+            if (nibble < 0) {
+                throw new IllegalArgumentException("Invalid ISO 8583 bitmap: "
+                        + new String(payload, offset, 16, StandardCharsets.US_ASCII));
+            }
+            bitmap = (bitmap << 4) | nibble;
+        }
+        return bitmap;
+    }
+
+    static long parseDigits(byte[] payload, int offset, int length, int field) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = payload[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException(field == 0
+                        ? "Invalid ISO 8583 MTI"
+                        : "ISO 8583 field " + field + " is not numeric");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void requireAvailable(int position, int length, int end, String element) {
+        if (end - position < length) {
+            throw truncated(element);
+        }
+    }
+
+    private static IllegalArgumentException truncated(String element) {
+        return new IllegalArgumentException("ISO 8583 message truncated in " + element);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.converter;
+
+import com.example.demo.config.HeaderMappingProperties;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Copies an allow-list of JMS message properties into Kafka record headers.
+ * Each property is read once with {@code getObjectProperty} and written straight into the record's
+ * headers, without an intermediate map or Spring header conversion. Numeric values are encoded as
+ * fixed-width big-endian bytes ({@code long} as 8 bytes, {@code int} as 4) rather than decimal text;
+ * strings are encoded as UTF-8.
+ */
+@Slf4j
+@Component
+public class JmsHeaderMapper {
+
+    private final String[] propertyNames;
+
+    public JmsHeaderMapper(HeaderMappingProperties properties) {
+        this.propertyNames = properties.getAllowList().toArray(String[]::new);
+    }
+
+    /**
+     * Maps the allowed properties present on the message; properties that cannot be read are skipped.
+     */
+    public Headers toKafkaHeaders(Message jmsMessage) {
+        RecordHeaders headers = new RecordHeaders();
+        for (String propertyName : propertyNames) {
+            try {
+                Object value = jmsMessage.getObjectProperty(propertyName);
+                if (value != null) {
+                    headers.add(propertyName, encode(value));
+                }
+            } catch (JMSException e) {
+                log.warn("Error extracting JMS property {}", propertyName, e);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Encodes a JMS property value as Kafka header bytes.
+     */
+    static byte[] encode(Object value) {
+        return switch (value) {
+            case Long longValue -> longBytes(longValue);
+            case Integer intValue -> intBytes(intValue);
+            case Short shortValue -> new byte[] {(byte) (shortValue >>> 8), (byte) (short) shortValue};
+            case Byte byteValue -> new byte[] {byteValue};
+            case Boolean booleanValue -> new byte[] {(byte) (booleanValue ? 1 : 0)};
+            case Double doubleValue -> longBytes(Double.doubleToLongBits(doubleValue));
+            case Float floatValue -> intBytes(Float.floatToIntBits(floatValue));
+            default -> value.toString().getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    private static byte[] longBytes(long value) {
+        return new byte[] {
+                (byte) (value >>> 56), (byte) (value >>> 48), (byte) (value >>> 40), (byte) (value >>> 32),
+                (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    private static byte[] intBytes(int value) {
+        return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.converter;
+
+import jakarta.jms.Message;
+
+/**
+ * Chooses the Kafka record key for a message received from MQ.
+ * Implementations are created by {@link RecordKeyExtractors}.
+ */
+public interface RecordKeyExtractor {
+
+    /**
+     * @param body message body, only provided when {@link #needsBody()} is true
+     * @return record key, or {@code null} to send the record without a key
+     */
+    String extractKey(Message message, byte[] body);
+
+    /**
+     * Whether the key is read from the payload, so callers holding the body as text must encode it.
+     */
+    default boolean needsBody() {
+        return false;
+    }
+}
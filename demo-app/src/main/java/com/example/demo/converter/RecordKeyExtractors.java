@@ -0,0 +1,88 @@
+package com.example.demo.converter;
+
+import com.example.demo.config.RecordKeyProperties;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Factory methods for the supported {@link RecordKeyExtractor}s.
+ * A key that cannot be read is logged and the record is sent without a key rather than failing the message.
+ */
+@Slf4j
+public final class RecordKeyExtractors {
+
+    private RecordKeyExtractors() {
+    }
+
+    /**
+     * Creates the extractor selected by {@code bridge.key.source}.
+     */
+    public static RecordKeyExtractor fromProperties(RecordKeyProperties properties, Iso8583Parser parser) {
+        return switch (properties.getSource()) {
+            case NONE -> none();
+            case JMS_PROPERTY -> jmsProperty(properties.getPropertyName());
+            case CORRELATION_ID -> correlationId();
+            case ISO8583_FIELD -> iso8583Field(parser, properties.getIsoField());
+        };
+    }
+
+    public static RecordKeyExtractor none() {
+        return (message, body) -> null;
+    }
+
+    /**
+     * Key from a JMS message property; non-string values are converted with {@code toString()}.
+     */
+    public static RecordKeyExtractor jmsProperty(String propertyName) {
+        if (propertyName == null || propertyName.isBlank()) {
+            throw new IllegalArgumentException("bridge.key.property-name must be set for the jms-property key source");
+        }
+        return (message, body) -> {
+            try {
+                Object value = message.getObjectProperty(propertyName);
+                return value != null ? value.toString() : null;
+            } catch (JMSException e) {
+                log.warn("Error extracting record key from JMS property {}", propertyName, e);
+                return null;
+            }
+        };
+    }
+
+    public static RecordKeyExtractor correlationId() {
+        return (message, body) -> {
+            try {
+                return message.getJMSCorrelationID();
+            } catch (JMSException e) {
+                log.warn("Error extracting record key from JMS correlation ID", e);
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Key from a data element of an ISO 8583 payload, such as the PAN (2) or terminal ID (41).
+     * Only the bitmaps and length prefixes are parsed; the one field is decoded.
+     */
+    public static RecordKeyExtractor iso8583Field(Iso8583Parser parser, int field) {
+        if (field < 2 || field > Iso8583Dictionary.MAX_FIELD) {
+            throw new IllegalArgumentException("Invalid ISO 8583 field for the record key: " + field);
+        }
+        return new RecordKeyExtractor() {
+            @Override
+            public String extractKey(Message message, byte[] body) {
+                try {
+                    return parser.parse(body).getString(field);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Error extracting record key from ISO 8583 field {}: {}", field, e.getMessage());
+                    return null;
+                }
+            }
+
+            @Override
+            public boolean needsBody() {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.listener;
+
+import com.example.demo.config.ConsumerPoolProperties;
+import com.example.demo.config.QueueBindings;
+import com.example.demo.service.ProducerBufferMonitor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adjusts the consumer ceiling of every queue binding's listener container between the binding's own
+ * {@code min-concurrency} and {@code max-concurrency}, which default to {@code bridge.consumers}.
+ * Each binding is sized from the receive wait of its own consumers, so a busy queue gains consumers while an
+ * idle one sheds them.
+ * A short average receive wait means messages are queued up, so a consumer is added;
+ * a long wait means consumers are idle, and a filling producer buffer means Kafka cannot absorb
+ * more, so a consumer is removed.
+ * Every ceiling starts at its binding's maximum, so the controller only ever moves it away from what the
+ * containers were started with.
+ */
+@Slf4j
+public class AdaptiveConcurrencyController {
+
+    private final JmsListenerEndpointRegistry endpointRegistry;
+    private final ConsumerThreadMetrics consumerMetrics;
+    private final ProducerBufferMonitor producerBufferMonitor;
+    private final ConsumerPoolProperties properties;
+    private final Map<String, BindingTarget> targets = new LinkedHashMap<>();
+
+    public AdaptiveConcurrencyController(JmsListenerEndpointRegistry endpointRegistry,
+                                         QueueBindings queueBindings,
+                                         ConsumerThreadMetrics consumerMetrics,
+                                         ProducerBufferMonitor producerBufferMonitor,
+                                         ConsumerPoolProperties properties,
+                                         MeterRegistry meterRegistry) {
+        this.endpointRegistry = endpointRegistry;
+        this.consumerMetrics = consumerMetrics;
+        this.producerBufferMonitor = producerBufferMonitor;
+        this.properties = properties;
+
+        for (QueueBindings.Binding binding : queueBindings.bindings()) {
+            BindingTarget target = new BindingTarget(binding);
+            targets.put(binding.queue(), target);
+            Gauge.builder("mq.consumer.concurrency.target", target.concurrency, AtomicInteger::get)
+                    .description("Consumer ceiling chosen by the adaptive concurrency controller")
+                    .tag("queue", binding.queue())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Evaluates the last interval of every binding and applies the resulting consumer ceiling to its listener
+     * container.
+     */
+    @Scheduled(fixedDelayString = "${bridge.consumers.adaptive.interval:5s}")
+    public void adjust() {
+        boolean bufferFilling = producerBufferMonitor.bufferUtilization()
+                >= properties.getAdaptive().getMaxProducerBufferUtilization();
+        for (BindingTarget target : targets.values()) {
+            QueueBindings.Binding binding = target.binding;
+            int current = target.concurrency.get();
+            int next = nextTarget(target, current, bufferFilling);
+            if (next != current) {
+                log.info("Adjusting MQ consumer ceiling of {} from {} to {}", binding.queue(), current, next);
+                target.concurrency.set(next);
+            }
+            MessageListenerContainer container = endpointRegistry.getListenerContainer(binding.containerId());
+            if (container instanceof DefaultMessageListenerContainer listenerContainer) {
+                listenerContainer.setMaxConcurrentConsumers(next);
+            }
+        }
+    }
+
+    /**
+     * Current consumer ceiling of a queue binding.
+     */
+    public int getTargetConcurrency(String queue) {
+        BindingTarget target = targets.get(queue);
+        if (target == null) {
+            throw new IllegalArgumentException("No queue binding for " + queue);
+        }
+        return target.concurrency.get();
+    }
+
+    private int nextTarget(BindingTarget target, int current, boolean bufferFilling) {
+        String queue = target.binding.queue();
+        long messages = consumerMetrics.totalMessages(queue);
+        long receiveWaitNanos = consumerMetrics.totalReceiveWaitNanos(queue);
+        long intervalMessages = messages - target.lastMessages;
+        long intervalWaitNanos = receiveWaitNanos - target.lastReceiveWaitNanos;
+        target.lastMessages = messages;
+        target.lastReceiveWaitNanos = receiveWaitNanos;
+
+        ConsumerPoolProperties.Adaptive adaptive = properties.getAdaptive();
+        int scaledDown = Math.max(target.binding.minConcurrency(), current - 1);
+        int scaledUp = Math.min(target.binding.maxConcurrency(), current + 1);
+
+        if (bufferFilling) {
+            return scaledDown;
+        }
+        if (intervalMessages == 0) {
+            return scaledDown;
+        }
+
+        long averageWaitNanos = intervalWaitNanos / intervalMessages;
+        if (averageWaitNanos <= adaptive.getScaleUpReceiveWait().toNanos()) {
+            return scaledUp;
+        }
+        if (averageWaitNanos >= adaptive.getScaleDownReceiveWait().toNanos()) {
+            return scaledDown;
+        }
+        return current;
+    }
+
+    /**
+     * Ceiling and last-interval totals of one queue binding; only the scheduler thread updates them.
+     */
+    private static final class BindingTarget {
+
+        private final QueueBindings.Binding binding;
+        private final AtomicInteger concurrency;
+        private long lastMessages;
+        private long lastReceiveWaitNanos;
+
+        BindingTarget(QueueBindings.Binding binding) {
+            this.binding = binding;
+            this.concurrency = new AtomicInteger(binding.maxConcurrency());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.listener;
+
+import com.example.demo.config.BackPressureProperties;
+import com.example.demo.service.KafkaMessageService;
+import com.example.demo.service.ProducerBufferMonitor;
+import com.example.demo.service.SpillLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pauses MQ consumption while Kafka cannot absorb more records, so consumers do not block on
+ * {@code max.block.ms} inside the JMS thread.
+ * Consumption pauses when the producer buffer utilization or the number of unacknowledged sends reaches its
+ * high watermark, and resumes once both are at or below their low watermarks. The gap between the watermarks
+ * keeps the listeners from flapping. Only containers that were running are stopped, and only those are
+ * restarted; the transacted batch consumers, when enabled, are paused between batches.
+ * With a {@link SpillLog}, reaching a high watermark diverts records to the log instead, and consumption only
+ * pauses once the log is full; it resumes when the drainer has made room and Kafka is below the low watermarks.
+ */
+@Slf4j
+public class BackPressureController {
+
+    private final JmsListenerEndpointRegistry endpointRegistry;
+    private final ProducerBufferMonitor producerBufferMonitor;
+    private final KafkaMessageService kafkaMessageService;
+    private final List<BatchMessageListener> batchMessageListeners;
+    private final BackPressureProperties properties;
+    private final SpillLog spillLog;
+    private final Counter pauseCounter;
+    private final List<MessageListenerContainer> pausedContainers = new ArrayList<>();
+
+    private volatile boolean paused;
+
+    /**
+     * @param batchMessageListeners transacted batch consumers, empty when batch mode is disabled
+     * @param spillLog              log records are diverted to instead of pausing, or {@code null} if spilling is
+     *                              disabled
+     */
+    public BackPressureController(JmsListenerEndpointRegistry endpointRegistry,
+                                  ProducerBufferMonitor producerBufferMonitor,
+                                  KafkaMessageService kafkaMessageService,
+                                  List<BatchMessageListener> batchMessageListeners,
+                                  BackPressureProperties properties,
+                                  SpillLog spillLog,
+                                  MeterRegistry meterRegistry) {
+        if (properties.getBufferLowWatermark() > properties.getBufferHighWatermark()
+                || properties.getInFlightLowWatermark() > properties.getInFlightHighWatermark()) {
+            throw new IllegalArgumentException("Back-pressure low watermarks must not exceed the high watermarks");
+        }
+        this.endpointRegistry = endpointRegistry;
+        this.producerBufferMonitor = producerBufferMonitor;
+        this.kafkaMessageService = kafkaMessageService;
+        this.batchMessageListeners = batchMessageListeners;
+        this.properties = properties;
+        this.spillLog = spillLog;
+
+        Gauge.builder("mq.consumer.paused", this, controller -> controller.isPaused() ? 1 : 0)
+                .description("Whether MQ consumption is paused because Kafka cannot keep up (1) or not (0)")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.buffer.utilization", producerBufferMonitor,
+                        ProducerBufferMonitor::bufferUtilization)
+                .description("Fraction of the producer buffer memory holding unsent records")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.in.flight", kafkaMessageService, KafkaMessageService::inFlight)
+                .description("Kafka sends handed to the producer but not yet acknowledged")
+                .register(meterRegistry);
+        this.pauseCounter = Counter.builder("mq.consumer.pauses")
+                .description("Number of times MQ consumption was paused for Kafka back-pressure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compares producer buffer occupancy and in-flight sends with the watermarks and diverts records to the spill
+     * log, pauses or resumes consumption.
+     */
+    @Scheduled(fixedDelayString = "${bridge.backpressure.interval:100ms}")
+    public void evaluate() {
+        double bufferUtilization = producerBufferMonitor.bufferUtilization();
+        long inFlight = kafkaMessageService.inFlight();
+        boolean overloaded = bufferUtilization >= properties.getBufferHighWatermark()
+                || inFlight >= properties.getInFlightHighWatermark();
+        boolean spillFull = spillLog != null && spillLog.isFull();
+
+        if (!paused && overloaded && spillLog != null && !spillFull) {
+            if (!spillLog.isDiverting()) {
+                log.warn("Kafka back-pressure (buffer {}%, {} sends in flight), spilling records to disk",
+                        Math.round(bufferUtilization * 100), inFlight);
+                spillLog.divert();
+            }
+        } else if (!paused && spillFull) {
+            log.warn("Spill log is full, pausing MQ consumption");
+            pause();
+        } else if (!paused && overloaded) {
+            log.warn("Kafka back-pressure (buffer {}%, {} sends in flight), pausing MQ consumption",
+                    Math.round(bufferUtilization * 100), inFlight);
+            pause();
+        } else if (paused && !spillFull && bufferUtilization <= properties.getBufferLowWatermark()
+                && inFlight <= properties.getInFlightLowWatermark()) {
+            log.info("Kafka caught up (buffer {}%, {} sends in flight), resuming MQ consumption",
+                    Math.round(bufferUtilization * 100), inFlight);
+            resume();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    private void pause() {
+        for (MessageListenerContainer container : endpointRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                container.stop();
+                pausedContainers.add(container);
+            }
+        }
+        batchMessageListeners.forEach(BatchMessageListener::pause);
+        paused = true;
+        pauseCounter.increment();
+    }
+
+    private void resume() {
+        pausedContainers.forEach(MessageListenerContainer::start);
+        pausedContainers.clear();
+        batchMessageListeners.forEach(BatchMessageListener::resume);
+        paused = false;
+    }
+}
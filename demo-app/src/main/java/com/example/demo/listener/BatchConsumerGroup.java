@@ -0,0 +1,41 @@
+package com.example.demo.listener;
+
+import org.springframework.context.SmartLifecycle;
+
+import java.util.List;
+
+/**
+ * The transacted batch consumers of all queue bindings, started and stopped together.
+ * Each consumer owns its queue's thread, session and in-flight window, so one queue's batches never wait
+ * for another's.
+ */
+public class BatchConsumerGroup implements SmartLifecycle {
+
+    private final List<BatchMessageListener> consumers;
+
+    public BatchConsumerGroup(List<BatchMessageListener> consumers) {
+        this.consumers = List.copyOf(consumers);
+    }
+
+    public List<BatchMessageListener> consumers() {
+        return consumers;
+    }
+
+    @Override
+    public void start() {
+        consumers.forEach(BatchMessageListener::start);
+    }
+
+    /**
+     * Stops the consumers in parallel, so each finishes its current batch without waiting for the others.
+     */
+    @Override
+    public void stop() {
+        consumers.parallelStream().forEach(BatchMessageListener::stop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return consumers.stream().anyMatch(BatchMessageListener::isRunning);
+    }
+}
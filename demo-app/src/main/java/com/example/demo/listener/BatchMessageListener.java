@@ -0,0 +1,274 @@
+package com.example.demo.listener;
+
+import com.example.demo.config.BatchConsumerProperties;
+import com.example.demo.service.InFlightWindow;
+import com.example.demo.service.KafkaMessageService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transacted batch consumer for MQ.
+ * Drains up to {@code bridge.batch.max-messages} messages, or whatever arrives within
+ * {@code bridge.batch.max-wait}, under one transacted JMS session and hands them to Kafka as one batch.
+ * Sends are pipelined through a bounded {@link InFlightWindow}: each message goes to the producer as soon
+ * as it is received and receiving pauses while {@code bridge.batch.max-in-flight} sends are unacknowledged.
+ * The MQ session is committed only after every Kafka send of the batch has been acknowledged;
+ * any failure rolls the session back so MQ redelivers the whole batch (at-least-once).
+ */
+@Slf4j
+public class BatchMessageListener implements SmartLifecycle {
+
+    private static final Duration PAUSE_CHECK_INTERVAL = Duration.ofMillis(10);
+
+    private final ConnectionFactory connectionFactory;
+    private final MessageListener messageListener;
+    private final KafkaMessageService kafkaMessageService;
+    private final BatchConsumerProperties properties;
+    private final String queueName;
+    private final InFlightWindow inFlightWindow;
+    private final StageTimers stageTimers;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer batchProcessingTimer;
+
+    private volatile boolean running;
+    private volatile boolean paused;
+    private Thread consumerThread;
+
+    public BatchMessageListener(ConnectionFactory connectionFactory,
+                                MessageListener messageListener,
+                                KafkaMessageService kafkaMessageService,
+                                BatchConsumerProperties properties,
+                                StageTimers stageTimers,
+                                MeterRegistry meterRegistry,
+                                String queueName) {
+        this.connectionFactory = connectionFactory;
+        this.messageListener = messageListener;
+        this.kafkaMessageService = kafkaMessageService;
+        this.properties = properties;
+        this.queueName = queueName;
+        this.inFlightWindow = new InFlightWindow(properties.getMaxInFlight());
+        this.stageTimers = stageTimers;
+
+        Gauge.builder("kafka.messages.in.flight", inFlightWindow, InFlightWindow::inFlight)
+                .description("Kafka sends handed to the producer but not yet acknowledged")
+                .tag("queue", queueName)
+                .register(meterRegistry);
+
+        this.batchSizeSummary = DistributionSummary.builder("mq.batch.size")
+                .description("Number of MQ messages forwarded to Kafka per batch")
+                .tag("queue", queueName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.batchProcessingTimer = Timer.builder("mq.batch.processing.time")
+                .description("Time taken to forward a batch to Kafka and commit the MQ session")
+                .tag("queue", queueName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        consumerThread = Thread.ofVirtual()
+                .name("mq-batch-consumer-" + queueName)
+                .start(this::consumeLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (consumerThread != null) {
+            try {
+                consumerThread.join(properties.getReceiveTimeout().plus(properties.getSendTimeout()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops receiving once the current batch has been committed, keeping the MQ connection open.
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Keeps a transacted session open and processes batches until stopped,
+     * reconnecting after connection failures.
+     * The session and consumer are closed with the connection, and the session is rolled back first, because a
+     * caching connection factory keeps the physical connection open: an abandoned session would otherwise keep
+     * the uncommitted messages of its last batch locked on the queue manager.
+     */
+    private void consumeLoop() {
+        while (running) {
+            try (Connection connection = connectionFactory.createConnection();
+                 Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+                 MessageConsumer consumer = session.createConsumer(session.createQueue(queueName))) {
+                connection.start();
+                log.info("Batch consumer started on queue '{}' (max {} messages / {})",
+                        queueName, properties.getMaxMessages(), properties.getMaxWait());
+
+                try {
+                    while (running) {
+                        if (paused) {
+                            Thread.sleep(PAUSE_CHECK_INTERVAL);
+                            continue;
+                        }
+                        processBatch(session, consumer);
+                    }
+                } finally {
+                    rollbackQuietly(session);
+                }
+            } catch (JMSException e) {
+                log.error("Batch consumer on queue '{}' failed, reconnecting in {}",
+                        queueName, properties.getReconnectDelay(), e);
+                pauseBeforeReconnect();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+        log.info("Batch consumer on queue '{}' stopped", queueName);
+    }
+
+    /**
+     * Drains one batch while pipelining every message to Kafka as soon as it is received,
+     * then commits the MQ session once all sends are confirmed or rolls it back.
+     *
+     * @return number of messages received in the batch
+     */
+    int processBatch(Session session, MessageConsumer consumer) throws JMSException {
+        long receiveNanos = System.nanoTime();
+        Message message = consumer.receive(properties.getReceiveTimeout().toMillis());
+        if (message == null) {
+            return 0;
+        }
+
+        long startNanos = stageTimers.record(StageTimers.Stage.RECEIVE, receiveNanos);
+        long deadline = startNanos + properties.getMaxWait().toNanos();
+        int received = 0;
+        try {
+            while (message != null) {
+                received++;
+                forwardWithinWindow(message);
+                message = nextMessage(consumer, received, deadline);
+            }
+            kafkaMessageService.flush();
+            inFlightWindow.awaitConfirmed(properties.getSendTimeout());
+
+            session.commit();
+            batchSizeSummary.record(received);
+            log.debug("Committed batch of {} messages", received);
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            log.error("Batch of {} messages was not acknowledged by Kafka, rolling back MQ session",
+                    received, e);
+            rollback(session);
+        } catch (JMSException e) {
+            log.error("Batch of {} messages could not be read from MQ, rolling back MQ session", received, e);
+            rollback(session);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rollback(session);
+        } finally {
+            batchProcessingTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        return received;
+    }
+
+    /**
+     * Hands a message to Kafka once the in-flight window has room for it.
+     */
+    private void forwardWithinWindow(Message message)
+            throws JMSException, InterruptedException, TimeoutException {
+        inFlightWindow.acquire(properties.getSendTimeout());
+        CompletableFuture<?> send;
+        try {
+            send = messageListener.forward(message, queueName);
+        } catch (JMSException | RuntimeException e) {
+            inFlightWindow.release();
+            throw e;
+        }
+        inFlightWindow.track(send);
+    }
+
+    /**
+     * Receives the next message of the current batch, or {@code null} once the batch is full,
+     * {@code max-wait} has elapsed since its first message, or a send has already failed.
+     */
+    private Message nextMessage(MessageConsumer consumer, int received, long deadline) throws JMSException {
+        if (received >= properties.getMaxMessages() || inFlightWindow.hasFailed()) {
+            return null;
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            return null;
+        }
+        long receiveNanos = System.nanoTime();
+        Message message = consumer.receive(remainingMillis);
+        if (message != null) {
+            stageTimers.record(StageTimers.Stage.RECEIVE, receiveNanos);
+        }
+        return message;
+    }
+
+    /**
+     * Abandons the batch's outstanding sends before rolling back, so they are written off even if the
+     * rollback itself fails.
+     */
+    private void rollback(Session session) throws JMSException {
+        inFlightWindow.abandon();
+        session.rollback();
+    }
+
+    /**
+     * Rolls back whatever the session still holds when the consumer stops or reconnects.
+     */
+    private void rollbackQuietly(Session session) {
+        try {
+            session.rollback();
+        } catch (JMSException e) {
+            log.debug("Cannot roll back session of batch consumer on queue '{}'", queueName, e);
+        }
+    }
+
+    private void pauseBeforeReconnect() {
+        try {
+            Thread.sleep(properties.getReconnectDelay());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
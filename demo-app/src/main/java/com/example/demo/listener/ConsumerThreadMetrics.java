@@ -0,0 +1,188 @@
+package com.example.demo.listener;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-consumer-thread metrics for the MQ listener containers.
+ * The time a consumer spends between finishing one message and starting the next is the time it
+ * waited in the JMS receive, which is recorded as {@code mq.consumer.receive.wait}, and also summed per queue
+ * so each binding's consumer pool can be sized on its own.
+ * Listener containers retire idle consumers when they scale down, so meters of terminated
+ * consumer threads are removed periodically to keep the {@code consumer} tag bounded.
+ */
+@Component
+public class ConsumerThreadMetrics {
+
+    private static final long THROUGHPUT_SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+    private final Timer receiveWaitTimer;
+    private final ConcurrentHashMap<String, ConsumerStats> consumers = new ConcurrentHashMap<>();
+    private final ThreadLocal<ConsumerStats> currentConsumer = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<String, QueueTotals> queues = new ConcurrentHashMap<>();
+
+    public ConsumerThreadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.receiveWaitTimer = Timer.builder("mq.consumer.receive.wait")
+                .description("Time a consumer waited in the JMS receive before getting a message")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called by the listener when a message has been handed to the current consumer thread.
+     *
+     * @param queue queue the message was received from
+     * @return nanoseconds the consumer waited in the JMS receive for this message
+     */
+    public long messageStarted(String queue) {
+        ConsumerStats stats = statsForCurrentThread();
+        long now = System.nanoTime();
+        long waitNanos = now - stats.lastActivityNanos;
+        stats.busy = true;
+
+        receiveWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        totalsFor(queue).receiveWaitNanos.add(waitNanos);
+        return waitNanos;
+    }
+
+    /**
+     * Called by the listener once the current consumer thread has finished with its message.
+     *
+     * @param queue queue the message was received from
+     */
+    public void messageCompleted(String queue) {
+        ConsumerStats stats = statsForCurrentThread();
+        stats.messages.increment();
+        stats.lastActivityNanos = System.nanoTime();
+        stats.busy = false;
+        totalsFor(queue).messages.increment();
+    }
+
+    /**
+     * Total messages handled by the consumers of a queue, used to derive average receive wait over an interval.
+     */
+    public long totalMessages(String queue) {
+        QueueTotals totals = queues.get(queue);
+        return totals != null ? totals.messages.sum() : 0;
+    }
+
+    /**
+     * Total time the consumers of a queue spent waiting in JMS receive.
+     */
+    public long totalReceiveWaitNanos(String queue) {
+        QueueTotals totals = queues.get(queue);
+        return totals != null ? totals.receiveWaitNanos.sum() : 0;
+    }
+
+    /**
+     * Removes the meters of consumer threads that have terminated.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void removeTerminatedConsumers() {
+        consumers.values().removeIf(stats -> {
+            if (stats.thread.isAlive()) {
+                return false;
+            }
+            stats.meters.forEach(meterRegistry::remove);
+            return true;
+        });
+    }
+
+    int consumerCount() {
+        return consumers.size();
+    }
+
+    private ConsumerStats statsForCurrentThread() {
+        ConsumerStats stats = currentConsumer.get();
+        if (stats == null) {
+            String consumer = Thread.currentThread().getName();
+            stats = consumers.computeIfAbsent(consumer, this::register);
+            currentConsumer.set(stats);
+        }
+        return stats;
+    }
+
+    private QueueTotals totalsFor(String queue) {
+        return queues.computeIfAbsent(queue, q -> new QueueTotals());
+    }
+
+    private ConsumerStats register(String consumer) {
+        ConsumerStats stats = new ConsumerStats(Thread.currentThread());
+
+        stats.meters = List.of(
+                FunctionCounter.builder("mq.consumer.messages", stats, s -> s.messages.sum())
+                        .description("Messages handled by a single MQ consumer thread")
+                        .tag("consumer", consumer)
+                        .register(meterRegistry),
+                Gauge.builder("mq.consumer.throughput", stats, ConsumerStats::throughput)
+                        .description("Messages per second handled by a single MQ consumer thread")
+                        .tag("consumer", consumer)
+                        .baseUnit("messages")
+                        .register(meterRegistry),
+                Gauge.builder("mq.consumer.idle.time", stats, ConsumerStats::idleSeconds)
+                        .description("Seconds a single MQ consumer thread has been waiting for its next message")
+                        .tag("consumer", consumer)
+                        .baseUnit("seconds")
+                        .register(meterRegistry));
+
+        return stats;
+    }
+
+    /**
+     * Running totals of all consumers of one queue.
+     */
+    private static final class QueueTotals {
+
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder receiveWaitNanos = new LongAdder();
+    }
+
+    /**
+     * Counters for one consumer thread; only that thread writes them.
+     */
+    static final class ConsumerStats {
+
+        private final Thread thread;
+        private final LongAdder messages = new LongAdder();
+        private List<Meter> meters = List.of();
+        private volatile long lastActivityNanos = System.nanoTime();
+        private volatile boolean busy;
+
+        private long sampleNanos = System.nanoTime();
+        private long sampleMessages;
+        private double throughput;
+
+        ConsumerStats(Thread thread) {
+            this.thread = thread;
+        }
+
+        double idleSeconds() {
+            return busy ? 0.0 : (System.nanoTime() - lastActivityNanos) / 1_000_000_000.0;
+        }
+
+        synchronized double throughput() {
+            long now = System.nanoTime();
+            long elapsed = now - sampleNanos;
+            if (elapsed >= THROUGHPUT_SAMPLE_NANOS) {
+                long count = messages.sum();
+                throughput = (count - sampleMessages) * 1_000_000_000.0 / elapsed;
+                sampleMessages = count;
+                sampleNanos = now;
+            }
+            return throughput;
+        }
+    }
+}
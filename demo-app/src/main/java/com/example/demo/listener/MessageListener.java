@@ -1,87 +1,198 @@
 package com.example.demo.listener;
 
+import com.example.demo.config.PayloadProperties;
+import com.example.demo.converter.JmsHeaderMapper;
 import com.example.demo.converter.MqToKafkaMessageConverter;
+import com.example.demo.converter.RecordKeyExtractor;
 import com.example.demo.service.KafkaMessageService;
-import io.micrometer.core.annotation.Counted;
-import io.micrometer.core.annotation.Timed;
+import com.example.demo.service.MessageRouter;
+import com.example.demo.service.PayloadLogger;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jms.annotation.JmsListener;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import jakarta.jms.BytesMessage;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.TextMessage;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
 public class MessageListener {
 
+    private static final CompletableFuture<SendResult<?, ?>> DROPPED = CompletableFuture.completedFuture(null);
+
     private final KafkaMessageService kafkaMessageService;
     private final MqToKafkaMessageConverter messageConverter;
+    private final JmsHeaderMapper headerMapper;
+    private final RecordKeyExtractor keyExtractor;
+    private final MessageRouter messageRouter;
+    private final PayloadLogger payloadLogger;
+    private final ConsumerThreadMetrics consumerMetrics;
+    private final StageTimers stageTimers;
+    private final PutLatencyMetrics putLatencyMetrics;
+    private final boolean binaryPassthrough;
 
     public MessageListener(KafkaMessageService kafkaMessageService,
-                           MqToKafkaMessageConverter messageConverter) {
+                           MqToKafkaMessageConverter messageConverter,
+                           JmsHeaderMapper headerMapper,
+                           RecordKeyExtractor keyExtractor,
+                           MessageRouter messageRouter,
+                           PayloadLogger payloadLogger,
+                           ConsumerThreadMetrics consumerMetrics,
+                           StageTimers stageTimers,
+                           PutLatencyMetrics putLatencyMetrics,
+                           PayloadProperties payloadProperties) {
         this.kafkaMessageService = kafkaMessageService;
         this.messageConverter = messageConverter;
+        this.headerMapper = headerMapper;
+        this.keyExtractor = keyExtractor;
+        this.messageRouter = messageRouter;
+        this.payloadLogger = payloadLogger;
+        this.consumerMetrics = consumerMetrics;
+        this.stageTimers = stageTimers;
+        this.putLatencyMetrics = putLatencyMetrics;
+        this.binaryPassthrough = payloadProperties.getMode() == PayloadProperties.Mode.BINARY;
+    }
+
+    /**
+     * Forwards a message received by the listener container of a queue binding.
+     */
+    public void receiveMessage(Message jmsMessage, String queueName) throws JMSException {
+        stageTimers.recordNanos(StageTimers.Stage.RECEIVE, consumerMetrics.messageStarted(queueName));
+        try {
+            forward(jmsMessage, queueName);
+        } finally {
+            consumerMetrics.messageCompleted(queueName);
+        }
     }
 
-    @JmsListener(destination = "${ibm.mq.queue-name}")
-    @Counted(value = "mq.messages.received", description = "Total number of messages received from MQ")
-    @Timed(value = "message.processing.time",
-            description = "Time taken to process and forward message from MQ to Kafka")
-    public void receiveMessage(Message jmsMessage) throws JMSException {
+    /**
+     * Extracts, routes, converts and hands a single JMS message to Kafka, timing each stage and the latency
+     * since the message was put to MQ.
+     * Shared by the per-message listener and the transacted batch consumer.
+     *
+     * @param queueName queue the message was received from
+     * @return future completed once Kafka has acknowledged the record, or already completed with {@code null}
+     *         if the route dropped the message or the record was spilled; spilled records are left out of the
+     *         acknowledgement timers, as Kafka has not acknowledged them yet
+     */
+    public CompletableFuture<? extends SendResult<?, ?>> forward(Message jmsMessage, String queueName)
+            throws JMSException {
+        long startNanos = System.nanoTime();
+        long putMillis = jmsMessage.getJMSTimestamp();
+        putLatencyMetrics.received(queueName, putMillis);
+        if (binaryPassthrough) {
+            return forwardBytes(jmsMessage, queueName, putMillis, startNanos);
+        }
+
         // Extract message body
         String messageBody = extractMessageBody(jmsMessage);
-        log.info("Received message from MQ: {}", messageBody);
+        stageTimers.record(StageTimers.Stage.EXTRACT, startNanos);
+        byte[] bodyBytes = keyExtractor.needsBody() || messageRouter.needsBody()
+                ? messageBody.getBytes(StandardCharsets.UTF_8)
+                : null;
+
+        // Pick the topic, or drop low-value traffic before any further work
+        MessageRouter.Route route = messageRouter.route(jmsMessage, queueName, bodyBytes);
+        if (!route.accept()) {
+            log.debug("Message dropped by route {}", route.name());
+            return DROPPED;
+        }
+
+        // Map allowed JMS properties (performance test correlation) to Kafka headers
+        Headers headers = headerMapper.toKafkaHeaders(jmsMessage);
 
-        // Extract JMS properties for performance test correlation
-        Map<String, String> headers = extractHeaders(jmsMessage);
+        // Key the record so messages of the same entity stay on one partition, in order
+        String key = keyExtractor.extractKey(jmsMessage, bodyBytes);
 
         // Convert message
+        long convertNanos = System.nanoTime();
         String kafkaMessage = messageConverter.convert(messageBody);
+        long sendNanos = stageTimers.record(StageTimers.Stage.CONVERT, convertNanos);
 
         // Send to Kafka with headers
-        kafkaMessageService.sendMessage(kafkaMessage, headers);
+        CompletableFuture<SendResult<String, String>> sendResult =
+                kafkaMessageService.sendMessage(route.topic(), key, kafkaMessage, headers);
+        stageTimers.record(StageTimers.Stage.ENQUEUE, sendNanos);
+        payloadLogger.forwarded(jmsMessage, route.topic(), kafkaMessage);
+        if (KafkaMessageService.isSpilled(sendResult)) {
+            return sendResult;
+        }
+        stageTimers.acknowledged(sendResult, sendNanos);
+        putLatencyMetrics.acknowledged(sendResult, queueName, route.topic(), putMillis);
+        return route.timed(sendResult, startNanos);
+    }
 
-        log.info("Forwarded message to Kafka: {}", kafkaMessage);
+    /**
+     * Binary passthrough: the body goes to Kafka exactly as read from MQ, skipping the converter.
+     */
+    private CompletableFuture<? extends SendResult<?, ?>> forwardBytes(Message jmsMessage, String queueName,
+                                                                       long putMillis, long startNanos)
+            throws JMSException {
+        byte[] messageBody = extractMessageBytes(jmsMessage);
+        stageTimers.record(StageTimers.Stage.EXTRACT, startNanos);
+
+        MessageRouter.Route route = messageRouter.route(jmsMessage, queueName, messageBody);
+        if (!route.accept()) {
+            log.debug("Message dropped by route {}", route.name());
+            return DROPPED;
+        }
+
+        Headers headers = headerMapper.toKafkaHeaders(jmsMessage);
+        String key = keyExtractor.extractKey(jmsMessage, messageBody);
+        byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : null;
+        long sendNanos = System.nanoTime();
+        CompletableFuture<SendResult<byte[], byte[]>> sendResult =
+                kafkaMessageService.sendBytes(route.topic(), keyBytes, messageBody, headers);
+        stageTimers.record(StageTimers.Stage.ENQUEUE, sendNanos);
+        payloadLogger.forwarded(jmsMessage, route.topic(), messageBody);
+        if (KafkaMessageService.isSpilled(sendResult)) {
+            return sendResult;
+        }
+        stageTimers.acknowledged(sendResult, sendNanos);
+        putLatencyMetrics.acknowledged(sendResult, queueName, route.topic(), putMillis);
+        return route.timed(sendResult, startNanos);
     }
 
     /**
      * Extracts the message body from JMS message.
+     * Bytes messages are expected to carry UTF-8 text.
      */
     private String extractMessageBody(Message jmsMessage) throws JMSException {
         if (jmsMessage instanceof TextMessage textMessage) {
             return textMessage.getText();
         }
+        if (jmsMessage instanceof BytesMessage bytesMessage) {
+            return new String(readBytes(bytesMessage), StandardCharsets.UTF_8);
+        }
         throw new IllegalArgumentException("Unsupported message type: " + jmsMessage.getClass());
     }
 
     /**
-     * Extracts JMS properties as headers for Kafka.
-     * Preserves performance test correlation data.
+     * Extracts the raw message body from JMS message.
+     * Text messages have already been decoded by the MQ client, so they are re-encoded as UTF-8.
      */
-    private Map<String, String> extractHeaders(Message jmsMessage) {
-        Map<String, String> headers = new HashMap<>();
-
-        try {
-            // Extract performance test headers if present
-            if (jmsMessage.propertyExists("correlationId")) {
-                headers.put("correlationId", jmsMessage.getStringProperty("correlationId"));
-            }
-            if (jmsMessage.propertyExists("sendTimestamp")) {
-                headers.put("sendTimestamp", String.valueOf(jmsMessage.getLongProperty("sendTimestamp")));
-            }
-            if (jmsMessage.propertyExists("testRunId")) {
-                headers.put("testRunId", jmsMessage.getStringProperty("testRunId"));
-            }
-
-            log.debug("Extracted {} headers from JMS message", headers.size());
-        } catch (JMSException e) {
-            log.warn("Error extracting JMS properties", e);
+    private byte[] extractMessageBytes(Message jmsMessage) throws JMSException {
+        if (jmsMessage instanceof BytesMessage bytesMessage) {
+            return readBytes(bytesMessage);
+        }
+        if (jmsMessage instanceof TextMessage textMessage) {
+            String text = textMessage.getText();
+            return text != null ? text.getBytes(StandardCharsets.UTF_8) : new byte[0];
         }
+        throw new IllegalArgumentException("Unsupported message type: " + jmsMessage.getClass());
+    }
 
-        return headers;
+    /**
+     * Reads the whole body into an array sized from the body length, without intermediate buffers.
+     */
+    private static byte[] readBytes(BytesMessage bytesMessage) throws JMSException {
+        byte[] body = new byte[Math.toIntExact(bytesMessage.getBodyLength())];
+        bytesMessage.readBytes(body);
+        return body;
     }
 }
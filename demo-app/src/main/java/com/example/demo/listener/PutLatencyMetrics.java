@@ -0,0 +1,100 @@
+package com.example.demo.listener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of forwarded messages measured from their MQ put time ({@code JMSTimestamp}, taken from the MQMD
+ * {@code PutDate}/{@code PutTime}), so production traffic yields end-to-end numbers without a synthetic load job.
+ * {@code mq.message.residence.time} is the time a message waited on its queue until the bridge received it, and
+ * {@code bridge.put.to.ack.time} the time until Kafka acknowledged it, tagged by queue and topic.
+ * MQ put times have a resolution of 10 ms and come from the queue manager's clock, so the values are only as accurate
+ * as the clocks are in sync; negative differences are recorded as zero. Messages without a put time are skipped.
+ */
+@Component
+public class PutLatencyMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, QueueTimers> queues = new ConcurrentHashMap<>();
+
+    public PutLatencyMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records how long a message received from {@code queue} was waiting there.
+     *
+     * @param putMillis the message's {@code JMSTimestamp}, 0 if the producer disabled it
+     */
+    public void received(String queue, long putMillis) {
+        if (putMillis > 0) {
+            record(timers(queue).residence, putMillis);
+        }
+    }
+
+    /**
+     * Records the put-to-ack latency once the send is acknowledged; failed sends are not recorded.
+     *
+     * @return the given future
+     */
+    public <T> CompletableFuture<T> acknowledged(CompletableFuture<T> send, String queue, String topic,
+                                                 long putMillis) {
+        if (putMillis > 0) {
+            Timer putToAck = timers(queue).putToAck(topic);
+            send.whenComplete((result, error) -> {
+                if (error == null) {
+                    record(putToAck, putMillis);
+                }
+            });
+        }
+        return send;
+    }
+
+    private static void record(Timer timer, long putMillis) {
+        timer.record(Math.max(0, System.currentTimeMillis() - putMillis), TimeUnit.MILLISECONDS);
+    }
+
+    private QueueTimers timers(String queue) {
+        QueueTimers timers = queues.get(queue);
+        return timers != null ? timers : queues.computeIfAbsent(queue, QueueTimers::new);
+    }
+
+    /**
+     * Timers of one queue; the put-to-ack timer of each topic its messages are routed to is registered on first use.
+     */
+    private final class QueueTimers {
+
+        private final String queue;
+        private final Timer residence;
+        private final Map<String, Timer> putToAck = new ConcurrentHashMap<>();
+
+        QueueTimers(String queue) {
+            this.queue = queue;
+            this.residence = Timer.builder("mq.message.residence.time")
+                    .description("Time from the MQ put of a message until the bridge received it")
+                    .tag("queue", queue)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        Timer putToAck(String topic) {
+            Timer timer = putToAck.get(topic);
+            return timer != null ? timer : putToAck.computeIfAbsent(topic, this::registerPutToAck);
+        }
+
+        private Timer registerPutToAck(String topic) {
+            return Timer.builder("bridge.put.to.ack.time")
+                    .description("Time from the MQ put of a message until Kafka acknowledged it")
+                    .tag("queue", queue)
+                    .tag("topic", topic)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.springframework.jms.support.JmsUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener of one queue binding's container: counts and times the queue's messages under a {@code queue} tag
+ * and hands them to the shared {@link MessageListener}. JMS failures are rethrown as Spring's unchecked
+ * {@code JmsException}, so the container handles them like failures of an annotated listener.
+ */
+public class QueueListener implements jakarta.jms.MessageListener {
+
+    private final MessageListener messageListener;
+    private final String queueName;
+    private final Counter receivedCounter;
+    private final Timer processingTimer;
+
+    public QueueListener(MessageListener messageListener, String queueName, MeterRegistry meterRegistry) {
+        this.messageListener = messageListener;
+        this.queueName = queueName;
+        this.receivedCounter = Counter.builder("mq.messages.received")
+                .description("Total number of messages received from MQ")
+                .tag("queue", queueName)
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("message.processing.time")
+                .description("Time taken to process and forward message from MQ to Kafka")
+                .tag("queue", queueName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        receivedCounter.increment();
+        long startNanos = System.nanoTime();
+        try {
+            messageListener.receiveMessage(message, queueName);
+        } catch (JMSException e) {
+            throw JmsUtils.convertJmsAccessException(e);
+        } finally {
+            processingTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
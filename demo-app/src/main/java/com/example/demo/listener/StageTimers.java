@@ -0,0 +1,86 @@
+package com.example.demo.listener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the stages a forwarded message passes through, registered once as {@code bridge.stage.time} with a
+ * {@code stage} tag and recorded inline by the listeners. Nothing relies on {@code @Timed} or another AOP proxy,
+ * so every stage is recorded however the calling code is wired, including self-invocations and plain objects.
+ */
+@Component
+public class StageTimers {
+
+    public enum Stage {
+        /**
+         * Time a consumer waited in the JMS receive before getting the message.
+         */
+        RECEIVE,
+        /**
+         * Reading the body out of the JMS message.
+         */
+        EXTRACT,
+        /**
+         * Converting the body into the Kafka payload (text mode only).
+         */
+        CONVERT,
+        /**
+         * Handing the record to the producer, including any wait for buffer space or metadata.
+         */
+        ENQUEUE,
+        /**
+         * From handing the record to the producer until the broker acknowledged it.
+         */
+        ACK
+    }
+
+    private final Timer[] timers = new Timer[Stage.values().length];
+
+    public StageTimers(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            timers[stage.ordinal()] = Timer.builder("bridge.stage.time")
+                    .description("Time a forwarded message spent in each stage of the bridge")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Records the time since {@code startNanos} for a stage.
+     *
+     * @return the current {@link System#nanoTime()}, for the start of the next stage
+     */
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        timers[stage.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Records an already measured duration for a stage.
+     */
+    public void recordNanos(Stage stage, long nanos) {
+        timers[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the {@link Stage#ACK} stage once the send is acknowledged; failed sends are not recorded.
+     *
+     * @param startNanos when the record was handed to the producer
+     * @return the given future
+     */
+    public <T> CompletableFuture<T> acknowledged(CompletableFuture<T> send, long startNanos) {
+        send.whenComplete((result, error) -> {
+            if (error == null) {
+                record(Stage.ACK, startNanos);
+            }
+        });
+        return send;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded window of Kafka sends that have not been acknowledged yet.
+ * A permit is taken before each send and handed back when the broker acknowledges (or rejects) it,
+ * so the caller blocks instead of piling up unbounded work when Kafka slows down.
+ * {@link #awaitConfirmed(Duration)} is the checkpoint before committing the MQ session.
+ * Sends belong to the batch that was current when they were tracked. {@link #abandon()} starts a new batch after a
+ * rollback: sends of the abandoned batch give back their slots at once, and their late results, failures included,
+ * no longer reach the batches that follow.
+ */
+public class InFlightWindow {
+
+    private final int capacity;
+    private final Semaphore permits;
+
+    private volatile Batch batch = new Batch();
+
+    public InFlightWindow(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("In-flight window capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * Reserves a slot for the next send, blocking while the window is full.
+     */
+    public void acquire(Duration timeout) throws InterruptedException, TimeoutException {
+        if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No Kafka acknowledgement within " + timeout
+                    + " while " + capacity + " sends were in flight");
+        }
+    }
+
+    /**
+     * Gives back a slot reserved by {@link #acquire(Duration)} when the send was never issued.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Releases the slot once the send completes and remembers the first failure of the current batch.
+     */
+    public void track(CompletableFuture<?> send) {
+        Batch owner = batch;
+        synchronized (this) {
+            owner.outstanding++;
+        }
+        send.whenComplete((result, error) -> completed(owner, error));
+    }
+
+    private synchronized void completed(Batch owner, Throwable error) {
+        if (owner.abandoned) {
+            return;
+        }
+        if (error != null) {
+            owner.failure.compareAndSet(null, error);
+        }
+        owner.outstanding--;
+        permits.release();
+        notifyAll();
+    }
+
+    /**
+     * Waits until every send of the current batch has completed.
+     *
+     * @throws ExecutionException wrapping the first send failure since the previous checkpoint
+     * @throws TimeoutException   if sends are still outstanding after {@code timeout}
+     */
+    public void awaitConfirmed(Duration timeout)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Batch current = batch;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (this) {
+            while (current.outstanding > 0) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException(current.outstanding + " Kafka sends still unacknowledged after "
+                            + timeout);
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            }
+        }
+
+        Throwable failure = current.failure.getAndSet(null);
+        if (failure != null) {
+            throw new ExecutionException("Kafka send failed", failure);
+        }
+    }
+
+    /**
+     * Starts a new batch after the caller has rolled back: the failure and the slots of the current batch's
+     * sends are dropped, including those of sends that are still outstanding and complete later.
+     */
+    public synchronized void abandon() {
+        Batch abandoned = batch;
+        abandoned.abandoned = true;
+        permits.release(abandoned.outstanding);
+        batch = new Batch();
+        notifyAll();
+    }
+
+    public boolean hasFailed() {
+        return batch.failure.get() != null;
+    }
+
+    public int inFlight() {
+        return capacity - permits.availablePermits();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Sends tracked between two rollbacks; counters are guarded by the window's monitor.
+     */
+    private static final class Batch {
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private int outstanding;
+        private boolean abandoned;
+    }
+}
@@ -1,43 +1,93 @@
 package com.example.demo.service;
 
-import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 
 @Slf4j
-public class KafkaMessageService {
+public class KafkaMessageService implements DisposableBean {
+
+    /**
+     * Outcome of a record appended to the spill log: complete, but not acknowledged by Kafka yet.
+     */
+    private static final CompletableFuture<SendResult<?, ?>> SPILLED = CompletableFuture.completedFuture(null);
 
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<byte[], byte[]> binaryKafkaTemplate;
     private final String kafkaTopic;
+    private final Counter sentCounter;
+    private final SpillLog spillLog;
+
+    private final LongAdder inFlight = new LongAdder();
+    private final BiConsumer<Object, Throwable> sendCompleted = (result, error) -> inFlight.decrement();
+
+    public KafkaMessageService(KafkaTemplate<String, String> kafkaTemplate,
+                               String kafkaTopic,
+                               MeterRegistry meterRegistry) {
+        this(kafkaTemplate, null, kafkaTopic, meterRegistry);
+    }
+
+    /**
+     * @param binaryKafkaTemplate template for binary passthrough, or {@code null} in text mode;
+     *                            it is owned by this service and closed with it
+     */
+    public KafkaMessageService(KafkaTemplate<String, String> kafkaTemplate,
+                               KafkaTemplate<byte[], byte[]> binaryKafkaTemplate,
+                               String kafkaTopic,
+                               MeterRegistry meterRegistry) {
+        this(kafkaTemplate, binaryKafkaTemplate, kafkaTopic, meterRegistry, null);
+    }
 
+    /**
+     * @param spillLog log record-based sends are appended to while it diverts them, or {@code null} if spilling
+     *                 is disabled
+     */
     public KafkaMessageService(KafkaTemplate<String, String> kafkaTemplate,
-                               String kafkaTopic) {
+                               KafkaTemplate<byte[], byte[]> binaryKafkaTemplate,
+                               String kafkaTopic,
+                               MeterRegistry meterRegistry,
+                               SpillLog spillLog) {
         this.kafkaTemplate = kafkaTemplate;
+        this.binaryKafkaTemplate = binaryKafkaTemplate;
         this.kafkaTopic = kafkaTopic;
+        this.sentCounter = Counter.builder("kafka.messages.sent")
+                .description("Total number of messages sent to Kafka")
+                .register(meterRegistry);
+        this.spillLog = spillLog;
     }
 
     /**
      * Sends a message to Kafka without headers (backward compatibility).
      */
-    @Counted(value = "kafka.messages.sent", description = "Total number of messages sent to Kafka")
     public void sendMessage(String message) {
-        log.info("Sending message to Kafka topic '{}': {}", kafkaTopic, message);
+        log.debug("Sending message to Kafka topic '{}'", kafkaTopic);
         kafkaTemplate.send(kafkaTopic, message);
+        sentCounter.increment();
     }
 
     /**
      * Sends a message to Kafka with custom headers.
      * Headers are preserved from JMS for performance test correlation.
+     *
+     * @return future completed once Kafka has acknowledged the record
      */
-    @Counted(value = "kafka.messages.sent", description = "Total number of messages sent to Kafka")
-    public void sendMessage(String messagePayload, Map<String, String> headers) {
-        log.info("Sending message to Kafka topic '{}' with {} headers: {}",
-                kafkaTopic, headers.size(), messagePayload);
+    public CompletableFuture<SendResult<String, String>> sendMessage(String messagePayload,
+                                                                     Map<String, String> headers) {
+        log.debug("Sending message to Kafka topic '{}' with {} headers", kafkaTopic, headers.size());
 
         // Build Spring messaging Message with headers
         MessageBuilder<String> messageBuilder = MessageBuilder
@@ -53,6 +103,173 @@ public class KafkaMessageService {
         Message<String> message = messageBuilder.build();
 
         // Send to Kafka
-        kafkaTemplate.send(message);
+        inFlight.increment();
+        try {
+            return tracked(kafkaTemplate.send(message));
+        } catch (RuntimeException e) {
+            inFlight.decrement();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a message to Kafka with headers already in Kafka form.
+     * The record is built directly, avoiding the Spring message and header mapping round trip.
+     *
+     * @param key record key choosing the partition, or {@code null} to let the producer spread records
+     * @return future completed once Kafka has acknowledged the record
+     */
+    public CompletableFuture<SendResult<String, String>> sendMessage(String key, String messagePayload,
+                                                                     Headers headers) {
+        return sendMessage(kafkaTopic, key, messagePayload, headers);
+    }
+
+    /**
+     * Sends a message to the given Kafka topic with headers already in Kafka form.
+     * While the spill log diverts records, the record is appended to it instead.
+     *
+     * @param topic target topic, as chosen by the {@link MessageRouter}
+     * @param key   record key choosing the partition, or {@code null} to let the producer spread records
+     * @return future completed once Kafka has acknowledged the record, or a future for which
+     *         {@link #isSpilled} holds if the record was spilled
+     */
+    public CompletableFuture<SendResult<String, String>> sendMessage(String topic, String key,
+                                                                     String messagePayload, Headers headers) {
+        if (diverting() && spillLog.offer(false, topic, utf8(key), utf8(messagePayload), headers)) {
+            return spilled();
+        }
+        return send(kafkaTemplate, new ProducerRecord<>(topic, null, key, messagePayload, headers));
+    }
+
+    /**
+     * Sends a message body to Kafka unchanged, as produced on MQ.
+     * The record is built directly, so no Spring message or header conversion sits between
+     * the JMS body and the {@code ByteArraySerializer}.
+     *
+     * @param key record key choosing the partition, or {@code null} to let the producer spread records
+     * @return future completed once Kafka has acknowledged the record
+     */
+    public CompletableFuture<SendResult<byte[], byte[]>> sendBytes(byte[] key, byte[] messagePayload,
+                                                                   Headers headers) {
+        return sendBytes(kafkaTopic, key, messagePayload, headers);
+    }
+
+    /**
+     * Sends a message body unchanged to the given Kafka topic.
+     *
+     * While the spill log diverts records, the record is appended to it instead.
+     *
+     * @param topic target topic, as chosen by the {@link MessageRouter}
+     * @param key   record key choosing the partition, or {@code null} to let the producer spread records
+     * @return future completed once Kafka has acknowledged the record, or a future for which
+     *         {@link #isSpilled} holds if the record was spilled
+     */
+    public CompletableFuture<SendResult<byte[], byte[]>> sendBytes(String topic, byte[] key, byte[] messagePayload,
+                                                                   Headers headers) {
+        KafkaTemplate<byte[], byte[]> template = binaryTemplate();
+        if (diverting() && spillLog.offer(true, topic, key, messagePayload, headers)) {
+            return spilled();
+        }
+        return send(template, new ProducerRecord<>(topic, null, key, messagePayload, headers));
+    }
+
+    /**
+     * Sends a record replayed from the spill log straight to the producer, with the template it was spilled from.
+     *
+     * @return future completed once Kafka has acknowledged the record
+     */
+    CompletableFuture<? extends SendResult<?, ?>> replay(SpillLog.Entry entry) {
+        if (entry.binary()) {
+            return send(binaryTemplate(), new ProducerRecord<>(entry.topic(), null, entry.key(), entry.value(),
+                    entry.headers()));
+        }
+        return send(kafkaTemplate, new ProducerRecord<>(entry.topic(), null, string(entry.key()),
+                string(entry.value()), entry.headers()));
+    }
+
+    /**
+     * Whether a send returned by this service went to the spill log instead of Kafka. Its future is already
+     * complete, but Kafka only acknowledges the record once the drainer replays it, so it must not be counted
+     * as acknowledged.
+     */
+    public static boolean isSpilled(CompletableFuture<?> send) {
+        return send == SPILLED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> CompletableFuture<SendResult<K, V>> spilled() {
+        return (CompletableFuture<SendResult<K, V>>) (CompletableFuture<?>) SPILLED;
+    }
+
+    /**
+     * Checked before serializing a record for the spill log, so direct sends never pay for it.
+     */
+    private boolean diverting() {
+        return spillLog != null && spillLog.isDiverting();
+    }
+
+    private <K, V> CompletableFuture<SendResult<K, V>> send(KafkaTemplate<K, V> template,
+                                                            ProducerRecord<K, V> messageRecord) {
+        inFlight.increment();
+        try {
+            return tracked(template.send(messageRecord));
+        } catch (RuntimeException e) {
+            inFlight.decrement();
+            throw e;
+        }
+    }
+
+    private KafkaTemplate<byte[], byte[]> binaryTemplate() {
+        if (binaryKafkaTemplate == null) {
+            throw new IllegalStateException("Binary passthrough is not enabled (bridge.payload.mode=binary)");
+        }
+        return binaryKafkaTemplate;
+    }
+
+    /**
+     * Strings are spilled as UTF-8, the encoding of Kafka's {@code StringSerializer}.
+     */
+    private static byte[] utf8(String text) {
+        return text != null ? text.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String string(byte[] bytes) {
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Number of sends handed to the producer whose acknowledgement is still outstanding.
+     * A send that blocks in the producer, e.g. on a full buffer, counts as in flight while it blocks.
+     */
+    public long inFlight() {
+        return inFlight.sum();
+    }
+
+    private <T> CompletableFuture<T> tracked(CompletableFuture<T> send) {
+        sentCounter.increment();
+        send.whenComplete(sendCompleted);
+        return send;
+    }
+
+    /**
+     * Template records are currently sent through, so producer metrics are read from the active producer.
+     */
+    public KafkaTemplate<?, ?> producerTemplate() {
+        return binaryKafkaTemplate != null ? binaryKafkaTemplate : kafkaTemplate;
+    }
+
+    /**
+     * Pushes all buffered records to the brokers without waiting for {@code linger.ms}.
+     * Used by the batch consumer once a whole batch has been handed to the producer.
+     */
+    public void flush() {
+        producerTemplate().flush();
+    }
+
+    @Override
+    public void destroy() {
+        if (binaryKafkaTemplate != null) {
+            binaryKafkaTemplate.destroy();
+        }
     }
 }
@@ -0,0 +1,334 @@
+package com.example.demo.service;
+
+import com.example.demo.config.RoutingProperties;
+import com.example.demo.converter.Iso8583Parser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides the Kafka topic of each MQ message from its ISO 8583 MTI, a JMS property or its source queue.
+ * Queue bindings with a topic add a rule per queue after the configured rules, so content rules take precedence
+ * over the queue's topic. Rules are compiled into one hash table per distinct selector (MTI, each JMS property,
+ * queue), mapping a value to the highest-priority rule for it, so a message costs one lookup per selector however
+ * many rules there are.
+ * The compiled table is swapped atomically on reload: listeners keep running, and every message is routed by
+ * either the old or the new rules. With {@code bridge.routing.rules-file} the file is checked every
+ * {@code bridge.routing.reload-interval} and recompiled when it changed; a file that fails to load or validate is
+ * logged and the current rules stay in place.
+ */
+@Slf4j
+public class MessageRouter {
+
+    static final String DEFAULT_ROUTE = "default";
+    static final String QUEUE_ROUTE_PREFIX = "queue-";
+    private static final String RULES_PROPERTY = "bridge.routing.rules";
+
+    private final Iso8583Parser parser;
+    private final MeterRegistry meterRegistry;
+    private final String defaultTopic;
+    private final Map<String, String> queueTopics;
+    private final Path rulesFile;
+
+    private volatile RoutingTable table;
+    private long rulesFileModified;
+
+    public MessageRouter(RoutingProperties properties, Iso8583Parser parser, MeterRegistry meterRegistry,
+                         String defaultTopic) {
+        this(properties, Map.of(), parser, meterRegistry, defaultTopic);
+    }
+
+    /**
+     * @param queueTopics topics of the queue bindings that set one, by queue name
+     */
+    public MessageRouter(RoutingProperties properties, Map<String, String> queueTopics, Iso8583Parser parser,
+                         MeterRegistry meterRegistry, String defaultTopic) {
+        this.parser = parser;
+        this.meterRegistry = meterRegistry;
+        this.defaultTopic = defaultTopic;
+        this.queueTopics = Map.copyOf(queueTopics);
+        this.rulesFile = properties.getRulesFile() == null || properties.getRulesFile().isBlank()
+                ? null
+                : Path.of(properties.getRulesFile());
+        if (rulesFile == null) {
+            reload(properties.getRules());
+        } else {
+            try {
+                rulesFileModified = Files.getLastModifiedTime(rulesFile).toMillis();
+                reload(readRules(rulesFile));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read routing rules from " + rulesFile, e);
+            }
+        }
+    }
+
+    /**
+     * Route of a message.
+     *
+     * @param queueName queue the message was consumed from, matched by queue rules and queue bindings; the JMS
+     *                  destination is not used, as it is missing for non-JMS producers and names the target of
+     *                  an alias queue rather than the queue that was consumed
+     * @param body      message body, required only if {@link #needsBody()}; without it MTI rules do not match
+     */
+    public Route route(Message message, String queueName, byte[] body) throws JMSException {
+        return table.route(message, queueName, body);
+    }
+
+    /**
+     * Whether the current rules match on the MTI, so {@link #route} needs the message body.
+     */
+    public boolean needsBody() {
+        return table.needsBody;
+    }
+
+    /**
+     * Compiles the rules and swaps them in for all subsequent messages.
+     *
+     * @throws IllegalArgumentException if a rule is invalid; the current rules then stay in place
+     */
+    public void reload(List<RoutingProperties.Rule> rules) {
+        table = compile(rules);
+        log.info("Routing {} rules, unmatched messages go to topic '{}'", rules.size(), defaultTopic);
+    }
+
+    /**
+     * Reloads the rules file if it was modified since it was last read.
+     */
+    @Scheduled(fixedDelayString = "${bridge.routing.reload-interval:10s}")
+    public void reloadIfChanged() {
+        if (rulesFile == null) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(rulesFile).toMillis();
+            if (modified == rulesFileModified) {
+                return;
+            }
+            rulesFileModified = modified;
+            reload(readRules(rulesFile));
+        } catch (IOException | RuntimeException e) {
+            log.error("Cannot reload routing rules from {}, keeping the current rules", rulesFile, e);
+        }
+    }
+
+    /**
+     * Reads {@code bridge.routing.rules} from a YAML file, bound exactly like {@code application.yaml}.
+     */
+    static List<RoutingProperties.Rule> readRules(Path file) throws IOException {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load(file.toString(), new FileSystemResource(file));
+        return new Binder(ConfigurationPropertySources.from(sources))
+                .bind(RULES_PROPERTY, Bindable.listOf(RoutingProperties.Rule.class))
+                .orElse(List.of());
+    }
+
+    private RoutingTable compile(List<RoutingProperties.Rule> rules) {
+        Map<SelectorKey, Map<String, Route>> selectors = new LinkedHashMap<>();
+        Set<String> names = new HashSet<>();
+        names.add(DEFAULT_ROUTE);
+        for (int priority = 0; priority < rules.size(); priority++) {
+            RoutingProperties.Rule rule = rules.get(priority);
+            String name = rule.getName() != null ? rule.getName() : "rule-" + priority;
+            validate(rule, name);
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Duplicate routing rule name: " + name);
+            }
+            String topic = rule.getTopic() != null ? rule.getTopic() : defaultTopic;
+            Route route = new Route(name, rule.getAction(), topic, rule.getSampleRate(), priority, meterRegistry);
+
+            SelectorKey key = new SelectorKey(rule.getMatch(),
+                    rule.getMatch() == RoutingProperties.Match.JMS_PROPERTY ? rule.getProperty() : null);
+            Map<String, Route> routes = selectors.computeIfAbsent(key, ignored -> new HashMap<>());
+            rule.getValues().forEach(value -> routes.putIfAbsent(value, route));
+        }
+
+        Map<String, Route> queueRoutes = selectors.computeIfAbsent(
+                new SelectorKey(RoutingProperties.Match.QUEUE, null), ignored -> new HashMap<>());
+        int priority = rules.size();
+        for (Map.Entry<String, String> queueTopic : queueTopics.entrySet()) {
+            queueRoutes.putIfAbsent(queueTopic.getKey(), new Route(QUEUE_ROUTE_PREFIX + queueTopic.getKey(),
+                    RoutingProperties.Action.ROUTE, queueTopic.getValue(), 1.0, priority++, meterRegistry));
+        }
+        selectors.values().removeIf(Map::isEmpty);
+
+        Route defaultRoute = new Route(DEFAULT_ROUTE, RoutingProperties.Action.ROUTE, defaultTopic, 1.0,
+                Integer.MAX_VALUE, meterRegistry);
+        Selector[] compiled = selectors.entrySet().stream()
+                .map(entry -> new Selector(entry.getKey().match(), entry.getKey().property(),
+                        Map.copyOf(entry.getValue())))
+                .toArray(Selector[]::new);
+        return new RoutingTable(compiled, defaultRoute, parser);
+    }
+
+    private static void validate(RoutingProperties.Rule rule, String name) {
+        if (rule.getMatch() == null || rule.getAction() == null || rule.getValues().isEmpty()) {
+            throw new IllegalArgumentException("Routing rule " + name + " needs a match, an action and values");
+        }
+        if (rule.getMatch() == RoutingProperties.Match.JMS_PROPERTY
+                && (rule.getProperty() == null || rule.getProperty().isBlank())) {
+            throw new IllegalArgumentException("Routing rule " + name + " matches a JMS property but names none");
+        }
+        if (rule.getAction() == RoutingProperties.Action.ROUTE && rule.getTopic() == null) {
+            throw new IllegalArgumentException("Routing rule " + name + " routes to no topic");
+        }
+        if (rule.getSampleRate() < 0 || rule.getSampleRate() > 1) {
+            throw new IllegalArgumentException("Routing rule " + name + " needs a sample rate between 0 and 1");
+        }
+    }
+
+    private record SelectorKey(RoutingProperties.Match match, String property) {
+    }
+
+    /**
+     * Lookup table of one part of the message: its values mapped to the highest-priority route.
+     */
+    private record Selector(RoutingProperties.Match match, String property, Map<String, Route> routes) {
+    }
+
+    private static final class RoutingTable {
+
+        private final Selector[] selectors;
+        private final Route defaultRoute;
+        private final Iso8583Parser parser;
+        private final boolean needsBody;
+
+        RoutingTable(Selector[] selectors, Route defaultRoute, Iso8583Parser parser) {
+            this.selectors = selectors;
+            this.defaultRoute = defaultRoute;
+            this.parser = parser;
+            this.needsBody = Arrays.stream(selectors)
+                    .anyMatch(selector -> selector.match() == RoutingProperties.Match.MTI);
+        }
+
+        Route route(Message message, String queueName, byte[] body) throws JMSException {
+            Route match = null;
+            for (Selector selector : selectors) {
+                String value = read(selector, message, queueName, body);
+                Route route = value != null ? selector.routes().get(value) : null;
+                if (route != null && (match == null || route.priority < match.priority)) {
+                    match = route;
+                }
+            }
+            return match != null ? match : defaultRoute;
+        }
+
+        private String read(Selector selector, Message message, String queueName, byte[] body)
+                throws JMSException {
+            return switch (selector.match()) {
+                case MTI -> mti(body);
+                case JMS_PROPERTY -> Objects.toString(message.getObjectProperty(selector.property()), null);
+                case QUEUE -> queueName;
+            };
+        }
+
+        private String mti(byte[] body) {
+            if (body == null) {
+                return null;
+            }
+            try {
+                return parser.mti(body);
+            } catch (IllegalArgumentException e) {
+                log.debug("Body does not start with an ISO 8583 MTI, MTI rules do not apply: {}", e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Where matching messages go, with the route's counters and send timer.
+     */
+    public static final class Route {
+
+        private final String name;
+        private final RoutingProperties.Action action;
+        private final String topic;
+        private final double sampleRate;
+        private final int priority;
+        private final Counter forwardedCounter;
+        private final Counter droppedCounter;
+        private final Timer sendTimer;
+
+        Route(String name, RoutingProperties.Action action, String topic, double sampleRate, int priority,
+              MeterRegistry meterRegistry) {
+            this.name = name;
+            this.action = action;
+            this.topic = topic;
+            this.sampleRate = sampleRate;
+            this.priority = priority;
+            this.forwardedCounter = Counter.builder("bridge.route.messages")
+                    .description("Messages matched by a route, by whether they were forwarded or dropped")
+                    .tag("route", name)
+                    .tag("outcome", "forwarded")
+                    .register(meterRegistry);
+            this.droppedCounter = Counter.builder("bridge.route.messages")
+                    .description("Messages matched by a route, by whether they were forwarded or dropped")
+                    .tag("route", name)
+                    .tag("outcome", "dropped")
+                    .register(meterRegistry);
+            this.sendTimer = Timer.builder("bridge.route.send.time")
+                    .description("Time from routing a message until Kafka acknowledged it")
+                    .tag("route", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String topic() {
+            return topic;
+        }
+
+        /**
+         * Decides whether this message is forwarded, which for sampling routes is a random draw, and counts it.
+         */
+        public boolean accept() {
+            boolean accepted = switch (action) {
+                case ROUTE -> true;
+                case DROP -> false;
+                case SAMPLE -> ThreadLocalRandom.current().nextDouble() < sampleRate;
+            };
+            (accepted ? forwardedCounter : droppedCounter).increment();
+            return accepted;
+        }
+
+        /**
+         * Records the time from {@code startNanos} until Kafka acknowledged the send in the route's timer;
+         * failed sends are not recorded.
+         */
+        public <T> CompletableFuture<T> timed(CompletableFuture<T> send, long startNanos) {
+            send.whenComplete((result, error) -> {
+                if (error == null) {
+                    sendTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                }
+            });
+            return send;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import org.springframework.jms.connection.CachingConnectionFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caching MQ connection factory that reports how its connection and session cache is used.
+ * One physical connection is shared by all callers and sessions are cached with their producers and consumers,
+ * as the MQ starter's default {@link CachingConnectionFactory} does, so the meters show what the cache saves and
+ * how it should be sized:
+ * <ul>
+ *   <li>{@code jms.pool.connection.create.time} / {@code jms.pool.session.create.time}: physical connections and
+ *       sessions opened, including the MQ handshake; their counts are the creation rate</li>
+ *   <li>{@code jms.pool.session.acquire.time}: time callers waited for a session, cached or newly opened</li>
+ *   <li>{@code jms.pool.sessions.active} / {@code jms.pool.sessions.idle}: sessions in use and cached</li>
+ *   <li>{@code jms.pool.sessions.utilization}: sessions in use relative to the session cache size; above 1,
+ *       released sessions are closed and reopened instead of reused</li>
+ * </ul>
+ */
+public class MeteredConnectionFactory extends CachingConnectionFactory {
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Timer connectionCreateTimer;
+    private final Timer sessionCreateTimer;
+    private final Timer sessionAcquireTimer;
+
+    public MeteredConnectionFactory(ConnectionFactory targetConnectionFactory, MeterRegistry meterRegistry) {
+        super(targetConnectionFactory);
+        this.connectionCreateTimer = Timer.builder("jms.pool.connection.create.time")
+                .description("Time taken to open a physical MQ connection")
+                .register(meterRegistry);
+        this.sessionCreateTimer = Timer.builder("jms.pool.session.create.time")
+                .description("Time taken to open a physical MQ session because none was cached")
+                .register(meterRegistry);
+        this.sessionAcquireTimer = Timer.builder("jms.pool.session.acquire.time")
+                .description("Time taken to get a session from the cache or open a new one")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("jms.pool.sessions.active", activeSessions, AtomicInteger::get)
+                .description("MQ sessions currently in use")
+                .register(meterRegistry);
+        Gauge.builder("jms.pool.sessions.idle", this, CachingConnectionFactory::getCachedSessionCount)
+                .description("MQ sessions cached for reuse")
+                .register(meterRegistry);
+        Gauge.builder("jms.pool.sessions.utilization", this, MeteredConnectionFactory::utilization)
+                .description("MQ sessions in use relative to the session cache size")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sessions in use relative to the session cache size.
+     */
+    public double utilization() {
+        return (double) activeSessions.get() / getSessionCacheSize();
+    }
+
+    @Override
+    protected Connection doCreateConnection() throws JMSException {
+        long startNanos = System.nanoTime();
+        Connection connection = super.doCreateConnection();
+        connectionCreateTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return connection;
+    }
+
+    @Override
+    protected Session createSession(Connection con, Integer mode) throws JMSException {
+        long startNanos = System.nanoTime();
+        Session session = super.createSession(con, mode);
+        sessionCreateTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return session;
+    }
+
+    /**
+     * Hands out cached sessions wrapped so that closing them, which returns them to the cache, is counted.
+     * Returns {@code null} without counting once the cache has been reset, leaving session creation to the
+     * shared connection.
+     */
+    @Override
+    protected Session getSession(Connection con, Integer mode) throws JMSException {
+        long startNanos = System.nanoTime();
+        Session session = super.getSession(con, mode);
+        sessionAcquireTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (session == null) {
+            return null;
+        }
+        activeSessions.incrementAndGet();
+        return releaseTracking(session);
+    }
+
+    private Session releaseTracking(Session session) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Session) Proxy.newProxyInstance(session.getClass().getClassLoader(),
+                session.getClass().getInterfaces(), (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            activeSessions.decrementAndGet();
+                        }
+                        try {
+                            yield method.invoke(session, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.core.KafkaAdminOperations;
+import org.springframework.kafka.support.LoggingProducerListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts acknowledged records per partition and publishes {@code kafka.producer.partition.skew} per topic:
+ * the busiest partition's share of records relative to an even spread over the last sample interval.
+ * 1.0 means records are spread evenly; a value equal to the partition count means one partition got all of them,
+ * so keys are too coarse or too few to let consumers scale across partitions.
+ * Installed as the templates' producer listener, so send errors are still logged as before.
+ * Partition counts are looked up from the cluster by a scheduled refresh, so the gauge never waits on the admin
+ * client; until the first lookup succeeds, only the partitions that received records are counted.
+ */
+@Slf4j
+public class PartitionSkewMonitor extends LoggingProducerListener<Object, Object> {
+
+    private static final long SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+    private final KafkaAdminOperations kafkaAdmin;
+    private final ConcurrentHashMap<String, TopicStats> topics = new ConcurrentHashMap<>();
+
+    public PartitionSkewMonitor(MeterRegistry meterRegistry, KafkaAdminOperations kafkaAdmin) {
+        this.meterRegistry = meterRegistry;
+        this.kafkaAdmin = kafkaAdmin;
+    }
+
+    /**
+     * Runs on the producer I/O thread for every acknowledged record, so it only increments a counter under a
+     * lock that the gauge holds just long enough to copy the counts.
+     */
+    @Override
+    public void onSuccess(ProducerRecord<Object, Object> producerRecord, RecordMetadata recordMetadata) {
+        recordSent(recordMetadata.topic(), recordMetadata.partition());
+    }
+
+    void recordSent(String topic, int partition) {
+        if (partition < 0) {
+            return;
+        }
+        topics.computeIfAbsent(topic, this::register).increment(partition);
+    }
+
+    /**
+     * Current skew of a topic, or NaN if no records were acknowledged in the last interval.
+     */
+    public double skew(String topic) {
+        TopicStats stats = topics.get(topic);
+        return stats != null ? stats.skew() : Double.NaN;
+    }
+
+    /**
+     * Looks up the partition count of every topic seen so far; a topic that cannot be described keeps its last
+     * known count.
+     */
+    @Scheduled(initialDelay = 1_000, fixedDelay = 60_000)
+    public void refreshPartitionCounts() {
+        topics.forEach((topic, stats) -> {
+            int partitions = partitionCount(topic);
+            if (partitions > 0) {
+                stats.partitionCount = partitions;
+            }
+        });
+    }
+
+    private TopicStats register(String topic) {
+        TopicStats stats = new TopicStats();
+        Gauge.builder("kafka.producer.partition.skew", stats, TopicStats::skew)
+                .description("Records on the busiest partition relative to an even spread over all partitions")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        return stats;
+    }
+
+    /**
+     * Number of partitions of the topic according to the cluster, or 0 if it cannot be looked up.
+     * Called from the scheduled refresh, never from the producer thread or the metrics scrape.
+     */
+    private int partitionCount(String topic) {
+        try {
+            TopicDescription description = kafkaAdmin.describeTopics(topic).get(topic);
+            return description != null ? description.partitions().size() : 0;
+        } catch (RuntimeException e) {
+            log.debug("Cannot look up partitions of topic {}: {}", topic, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Per-partition record counts of one topic; partitions are counted up to a capacity that grows when
+     * a higher partition number is seen. Counts are only touched under the monitor, so a record counted while
+     * the array grows is not lost.
+     */
+    static final class TopicStats {
+
+        private long[] counts = new long[16];
+        private volatile int partitionCount;
+
+        private long[] lastCounts = new long[0];
+        private long sampleNanos = System.nanoTime();
+        private double skew = Double.NaN;
+
+        synchronized void increment(int partition) {
+            if (partition >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(partition + 1, counts.length * 2));
+            }
+            counts[partition]++;
+        }
+
+        synchronized double skew() {
+            long now = System.nanoTime();
+            if (now - sampleNanos < SAMPLE_NANOS) {
+                return skew;
+            }
+            long[] snapshot = counts.clone();
+            int highestSeen = -1;
+            long total = 0;
+            long busiest = 0;
+            for (int partition = 0; partition < snapshot.length; partition++) {
+                long delta = snapshot[partition] - (partition < lastCounts.length ? lastCounts[partition] : 0);
+                if (snapshot[partition] > 0) {
+                    highestSeen = partition;
+                }
+                total += delta;
+                busiest = Math.max(busiest, delta);
+            }
+            lastCounts = snapshot;
+            sampleNanos = now;
+
+            int partitions = Math.max(partitionCount, highestSeen + 1);
+            skew = total == 0 ? Double.NaN : busiest * (double) partitions / total;
+            return skew;
+        }
+    }
+}
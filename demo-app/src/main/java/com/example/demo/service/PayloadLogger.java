@@ -0,0 +1,214 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PayloadLogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hot-path logging of forwarded payloads.
+ * Every {@code bridge.payload-log.sample-every}th message is queued with its correlation ID, and a background
+ * writer logs it as a SHA-256 digest or a short preview under the {@value #LOGGER_NAME} logger. Consumers only
+ * count and, for sampled messages, offer a reference to the payload to a bounded queue: digesting, formatting
+ * and appender I/O happen on the writer, and entries arriving while the queue is full are dropped and counted
+ * as {@code bridge.payload.log.dropped} rather than waited for.
+ */
+@Slf4j
+@Component
+public class PayloadLogger implements SmartLifecycle {
+
+    public static final String LOGGER_NAME = "com.example.demo.payload";
+
+    private static final String CORRELATION_ID_PROPERTY = "correlationId";
+    private static final Logger PAYLOAD_LOG = LoggerFactory.getLogger(LOGGER_NAME);
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int DIGEST_PREFIX_BYTES = 8;
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(1);
+
+    private final PayloadLogProperties properties;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong messages = new AtomicLong();
+    private final Counter sampledCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public PayloadLogger(PayloadLogProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getSampleEvery() < 0) {
+            throw new IllegalArgumentException("bridge.payload-log.sample-every must not be negative");
+        }
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        this.sampledCounter = Counter.builder("bridge.payload.log.sampled")
+                .description("Sampled payloads queued for logging")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("bridge.payload.log.dropped")
+                .description("Sampled payloads not logged because the log queue was full")
+                .register(meterRegistry);
+        Gauge.builder("bridge.payload.log.queue.size", queue, BlockingQueue::size)
+                .description("Sampled payloads waiting for the log writer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Logs a text payload forwarded to {@code topic} if the message is sampled.
+     */
+    public void forwarded(Message jmsMessage, String topic, String payload) {
+        if (sampled()) {
+            enqueue(new Entry(correlationId(jmsMessage), topic, payload, null));
+        }
+    }
+
+    /**
+     * Logs a binary payload forwarded to {@code topic} if the message is sampled.
+     * The array is logged after this call returns, so it must not be modified once handed to the producer.
+     */
+    public void forwarded(Message jmsMessage, String topic, byte[] payload) {
+        if (sampled()) {
+            enqueue(new Entry(correlationId(jmsMessage), topic, null, payload));
+        }
+    }
+
+    private boolean sampled() {
+        int sampleEvery = properties.getSampleEvery();
+        return sampleEvery > 0 && messages.getAndIncrement() % sampleEvery == 0;
+    }
+
+    private void enqueue(Entry entry) {
+        if (queue.offer(entry)) {
+            sampledCounter.increment();
+        } else {
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * The {@code correlationId} property set by the producer, which is also the default record key, then the
+     * JMS correlation ID, then the message ID assigned by MQ.
+     */
+    static String correlationId(Message jmsMessage) {
+        try {
+            Object property = jmsMessage.getObjectProperty(CORRELATION_ID_PROPERTY);
+            if (property != null) {
+                return property.toString();
+            }
+            String correlationId = jmsMessage.getJMSCorrelationID();
+            return correlationId != null ? correlationId : jmsMessage.getJMSMessageID();
+        } catch (JMSException e) {
+            log.debug("Cannot read correlation ID of sampled message", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = Thread.ofPlatform()
+                .name("payload-log-writer")
+                .daemon()
+                .start(this::writeLoop);
+    }
+
+    /**
+     * Stops after the listener containers, so payloads they queued while shutting down are still written.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(DRAIN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1;
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Entry entry = queue.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    write(entry);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void write(Entry entry) {
+        if (!PAYLOAD_LOG.isInfoEnabled()) {
+            return;
+        }
+        byte[] bytes = entry.bytes() != null ? entry.bytes() : entry.text().getBytes(StandardCharsets.UTF_8);
+        String digest = HEX.formatHex(sha256(bytes), 0, DIGEST_PREFIX_BYTES);
+        if (properties.getContent() == PayloadLogProperties.Content.DIGEST) {
+            PAYLOAD_LOG.info("Forwarded message {} to topic '{}': {} bytes, sha256 {}",
+                    entry.correlationId(), entry.topic(), bytes.length, digest);
+        } else {
+            PAYLOAD_LOG.info("Forwarded message {} to topic '{}': {} bytes, sha256 {}, preview [{}]",
+                    entry.correlationId(), entry.topic(), bytes.length, digest, preview(entry));
+        }
+    }
+
+    /**
+     * The beginning of the payload: text with control characters replaced, binary as hex.
+     */
+    String preview(Entry entry) {
+        int length = properties.getPreviewLength();
+        if (entry.bytes() != null) {
+            byte[] bytes = entry.bytes();
+            String hex = HEX.formatHex(Arrays.copyOf(bytes, Math.min(length, bytes.length)));
+            return bytes.length > length ? hex + "..." : hex;
+        }
+        String text = entry.text();
+        String preview = text.substring(0, Math.min(length, text.length())).replaceAll("\\p{Cntrl}", " ");
+        return text.length() > length ? preview + "..." : preview;
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A sampled payload; exactly one of {@code text} and {@code bytes} is set.
+     */
+    record Entry(String correlationId, String topic, String text, byte[] bytes) {
+    }
+}
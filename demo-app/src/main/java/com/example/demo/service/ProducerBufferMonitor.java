@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the Kafka producer's own record-buffer and batching metrics.
+ * A filling buffer means the brokers are not keeping up and further sends will block on
+ * {@code max.block.ms}, so this is the earliest signal of Kafka back-pressure.
+ * Batch size, compression rate and the time records wait in the accumulator show how well
+ * {@code linger.ms} and {@code batch.size} turn single sends into large requests.
+ */
+public class ProducerBufferMonitor implements MeterBinder {
+
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+
+    private final KafkaTemplate<?, ?> kafkaTemplate;
+
+    public ProducerBufferMonitor(KafkaTemplate<?, ?> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    /**
+     * Fraction (0..1) of the producer's {@code buffer.memory} currently holding unsent records.
+     */
+    public double bufferUtilization() {
+        Map<MetricName, ? extends Metric> metrics = kafkaTemplate.metrics();
+        double total = metricValue(metrics, "buffer-total-bytes");
+        if (total <= 0) {
+            return 0.0;
+        }
+        double available = metricValue(metrics, "buffer-available-bytes");
+        return Math.clamp(1.0 - available / total, 0.0, 1.0);
+    }
+
+    /**
+     * Publishes the producer's batching efficiency next to {@code kafka.messages.sent}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("kafka.producer.batch.record.queue.time", this,
+                        TimeUnit.MILLISECONDS, monitor -> monitor.producerMetric("record-queue-time-avg"))
+                .description("Average time records waited in the producer accumulator before being sent")
+                .register(registry);
+        Gauge.builder("kafka.producer.batch.size", this, monitor -> monitor.producerMetric("batch-size-avg"))
+                .description("Average size of the batches sent per partition")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("kafka.producer.batch.compression.rate", this,
+                        monitor -> monitor.producerMetric("compression-rate-avg"))
+                .description("Average compressed to uncompressed size ratio of sent batches")
+                .register(registry);
+    }
+
+    private double producerMetric(String name) {
+        return metricValue(kafkaTemplate.metrics(), name);
+    }
+
+    private static double metricValue(Map<MetricName, ? extends Metric> metrics, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (name.equals(metricName.name()) && PRODUCER_METRICS_GROUP.equals(metricName.group())
+                    && entry.getValue().metricValue() instanceof Number value) {
+                return value.doubleValue();
+            }
+        }
+        return 0.0;
+    }
+}
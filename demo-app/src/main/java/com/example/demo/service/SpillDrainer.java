@@ -0,0 +1,113 @@
+package com.example.demo.service;
+
+import com.example.demo.config.SpillProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Background replay of the {@link SpillLog}.
+ * Takes the oldest spilled records in batches, sends them through {@link KafkaMessageService} in log order and
+ * removes them from the log only once Kafka has acknowledged the whole batch. A batch that fails is retried after
+ * {@code bridge.spill.retry-backoff}, which also paces the probing while Kafka is still down. Once the log is
+ * empty, the drainer lets records go to Kafka directly again.
+ */
+@Slf4j
+public class SpillDrainer implements SmartLifecycle {
+
+    private final SpillLog spillLog;
+    private final KafkaMessageService kafkaMessageService;
+    private final SpillProperties properties;
+
+    private volatile boolean running;
+    private Thread drainerThread;
+
+    public SpillDrainer(SpillLog spillLog, KafkaMessageService kafkaMessageService, SpillProperties properties) {
+        if (properties.getReplayBatchSize() < 1) {
+            throw new IllegalArgumentException("bridge.spill.replay-batch-size must be positive");
+        }
+        this.spillLog = spillLog;
+        this.kafkaMessageService = kafkaMessageService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        drainerThread = Thread.ofPlatform()
+                .name("spill-drainer")
+                .daemon()
+                .start(this::drainLoop);
+    }
+
+    /**
+     * Stops after the listener containers, so records they spilled while shutting down are still replayed if
+     * Kafka is up. A batch interrupted before it was acknowledged stays in the log and is replayed on restart.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (drainerThread != null) {
+            drainerThread.interrupt();
+            try {
+                drainerThread.join(properties.getRetryBackoff());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1;
+    }
+
+    private void drainLoop() {
+        try {
+            while (running) {
+                if (!drainBatch()) {
+                    Thread.sleep(properties.getPollInterval());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Replays the next batch of spilled records and waits until Kafka has acknowledged all of them.
+     * Stops sending at the first send the producer rejects, so a batch does not wait for {@code max.block.ms}
+     * once per record while Kafka is down.
+     *
+     * @return whether there was a batch to replay; {@code false} once the log is empty
+     */
+    boolean drainBatch() throws InterruptedException {
+        List<SpillLog.Entry> batch = spillLog.peek(properties.getReplayBatchSize());
+        if (batch.isEmpty()) {
+            spillLog.finishIfDrained();
+            return false;
+        }
+        try {
+            CompletableFuture<?>[] sends = new CompletableFuture<?>[batch.size()];
+            for (int i = 0; i < sends.length; i++) {
+                sends[i] = kafkaMessageService.replay(batch.get(i));
+            }
+            kafkaMessageService.flush();
+            CompletableFuture.allOf(sends).get();
+            spillLog.commit(batch);
+        } catch (ExecutionException | RuntimeException e) {
+            log.warn("Kafka did not acknowledge {} replayed records, retrying in {}: {}", batch.size(),
+                    properties.getRetryBackoff(), e.getMessage());
+            Thread.sleep(properties.getRetryBackoff());
+        }
+        return true;
+    }
+}
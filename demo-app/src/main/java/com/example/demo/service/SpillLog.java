@@ -0,0 +1,397 @@
+package com.example.demo.service;
+
+import com.example.demo.config.SpillProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of records that Kafka could not take, kept in memory-mapped segment files.
+ * While {@link #isDiverting() diverting}, {@link KafkaMessageService} appends records here instead of handing
+ * them to the producer, and the {@link SpillDrainer} replays them in append order. Records go to the producer
+ * directly again only once the log is empty, so replayed and live records are never reordered.
+ * <p>
+ * Each segment starts with a magic number and the position up to which it has been replayed, followed by records
+ * of a length, a CRC32 and the serialized record. Appends only write to the mapped pages, which the kernel keeps
+ * when the bridge crashes; {@code bridge.spill.sync} also forces them to disk. On startup the segments are scanned
+ * up to the first torn record and their unreplayed records are drained before anything is sent directly.
+ * Replay is at least once: a batch Kafka failed to acknowledge is replayed again as a whole.
+ */
+@Slf4j
+public class SpillLog {
+
+    private static final int MAGIC = 0x53504c31;
+    private static final int READ_POSITION_OFFSET = 4;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".spill";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean sync;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final Counter appendedCounter;
+    private final Counter replayedCounter;
+
+    private long nextSequence;
+    private volatile int segmentCount;
+    private volatile boolean diverting;
+    private volatile boolean full;
+
+    public SpillLog(SpillProperties properties, MeterRegistry meterRegistry) {
+        long configuredSegmentSize = properties.getSegmentSize().toBytes();
+        if (configuredSegmentSize < 1024 || configuredSegmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bridge.spill.segment-size must be between 1KB and 2GB");
+        }
+        if (properties.getMaxSegments() < 1) {
+            throw new IllegalArgumentException("bridge.spill.max-segments must be positive");
+        }
+        this.directory = Path.of(properties.getDirectory());
+        this.segmentSize = (int) configuredSegmentSize;
+        this.maxSegments = properties.getMaxSegments();
+        this.sync = properties.isSync();
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open spill log in " + directory.toAbsolutePath(), e);
+        }
+        this.diverting = pendingRecords.get() > 0;
+        if (diverting) {
+            log.info("Spill log holds {} records from a previous run, replaying them before sending directly",
+                    pendingRecords.get());
+        }
+
+        Gauge.builder("bridge.spill.size", pendingBytes, AtomicLong::get)
+                .description("Bytes of spilled records not yet replayed to Kafka")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("bridge.spill.messages", pendingRecords, AtomicLong::get)
+                .description("Spilled records not yet replayed to Kafka")
+                .register(meterRegistry);
+        Gauge.builder("bridge.spill.segments", this, spill -> spill.segmentCount)
+                .description("Segment files of the spill log")
+                .register(meterRegistry);
+        Gauge.builder("bridge.spill.diverting", this, spill -> spill.isDiverting() ? 1 : 0)
+                .description("Whether records are spilled to disk instead of sent to Kafka (1) or not (0)")
+                .register(meterRegistry);
+        this.appendedCounter = Counter.builder("bridge.spill.appended")
+                .description("Records appended to the spill log")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("bridge.spill.replayed")
+                .description("Spilled records replayed to Kafka and acknowledged")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A spilled record, copied out of the log.
+     *
+     * @param binary whether it was sent with the binary template rather than as strings
+     * @param size   bytes the record takes in the log
+     */
+    public record Entry(boolean binary, String topic, byte[] key, byte[] value, Headers headers, int size) {
+    }
+
+    /**
+     * Starts diverting records to the log, until the drainer has replayed all of them.
+     */
+    public void divert() {
+        diverting = true;
+    }
+
+    public boolean isDiverting() {
+        return diverting;
+    }
+
+    /**
+     * Whether a record could not be appended for lack of space since the drainer last freed a segment.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Appends a record if records are being diverted.
+     *
+     * @param key   serialized record key, or {@code null}
+     * @param value serialized record value, or {@code null}
+     * @return whether the record was spilled; if not, it has to be sent to Kafka directly
+     * @throws IllegalStateException if the record is larger than a segment or all segments are full
+     */
+    public synchronized boolean offer(boolean binary, String topic, byte[] key, byte[] value, Headers headers) {
+        if (!diverting) {
+            return false;
+        }
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        int bodySize = 1 + fieldSize(topicBytes) + fieldSize(key) + fieldSize(value) + Integer.BYTES;
+        for (Header header : headers) {
+            bodySize += fieldSize(header.key().getBytes(StandardCharsets.UTF_8)) + fieldSize(header.value());
+        }
+        Segment segment = writableSegment(RECORD_HEADER_BYTES + bodySize);
+        int position = segment.writePosition;
+
+        ByteBuffer body = segment.buffer.slice(position + RECORD_HEADER_BYTES, bodySize);
+        body.put((byte) (binary ? 1 : 0));
+        putField(body, topicBytes);
+        putField(body, key);
+        putField(body, value);
+        body.putInt(headers.toArray().length);
+        for (Header header : headers) {
+            putField(body, header.key().getBytes(StandardCharsets.UTF_8));
+            putField(body, header.value());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body.flip());
+        segment.buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        segment.buffer.putInt(position, bodySize);
+        if (sync) {
+            segment.buffer.force(position, RECORD_HEADER_BYTES + bodySize);
+        }
+
+        segment.writePosition = position + RECORD_HEADER_BYTES + bodySize;
+        pendingRecords.incrementAndGet();
+        pendingBytes.addAndGet(RECORD_HEADER_BYTES + bodySize);
+        appendedCounter.increment();
+        return true;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} of the oldest unreplayed records without removing them.
+     * A batch never spans segments, so it may hold fewer records even if more are pending.
+     */
+    public synchronized List<Entry> peek(int maxRecords) {
+        releaseReplayedSegments();
+        List<Entry> entries = new ArrayList<>();
+        Segment head = segments.peekFirst();
+        if (head == null) {
+            return entries;
+        }
+        int position = head.readPosition;
+        while (entries.size() < maxRecords && position < head.writePosition) {
+            Entry entry = read(head.buffer, position);
+            entries.add(entry);
+            position += entry.size();
+        }
+        return entries;
+    }
+
+    /**
+     * Marks the entries last returned by {@link #peek} as replayed, and deletes segments replayed completely.
+     */
+    public synchronized void commit(List<Entry> entries) {
+        Segment head = segments.peekFirst();
+        if (head == null || entries.isEmpty()) {
+            return;
+        }
+        int bytes = entries.stream().mapToInt(Entry::size).sum();
+        head.readPosition += bytes;
+        head.buffer.putInt(READ_POSITION_OFFSET, head.readPosition);
+        pendingRecords.addAndGet(-entries.size());
+        pendingBytes.addAndGet(-bytes);
+        replayedCounter.increment(entries.size());
+        releaseReplayedSegments();
+    }
+
+    /**
+     * Stops diverting once every spilled record has been replayed, so records go to Kafka directly again.
+     * Runs under the same lock as {@link #offer}, so no record can be appended after the last one was replayed.
+     *
+     * @return whether records are sent directly
+     */
+    public synchronized boolean finishIfDrained() {
+        if (diverting && pendingRecords.get() == 0) {
+            diverting = false;
+            log.info("Spill log drained, sending records to Kafka directly again");
+        }
+        return !diverting;
+    }
+
+    public long pendingRecords() {
+        return pendingRecords.get();
+    }
+
+    private Segment writableSegment(int recordSize) {
+        if (recordSize > segmentSize - SEGMENT_HEADER_BYTES) {
+            throw new IllegalStateException("Record of " + recordSize + " bytes does not fit a spill segment of "
+                    + segmentSize + " bytes");
+        }
+        Segment tail = segments.peekLast();
+        if (tail != null && !tail.sealed && tail.writePosition + recordSize <= tail.buffer.capacity()) {
+            return tail;
+        }
+        releaseReplayedSegments();
+        if (segments.size() >= maxSegments) {
+            full = true;
+            throw new IllegalStateException("Spill log is full (" + maxSegments + " segments of " + segmentSize
+                    + " bytes)");
+        }
+        try {
+            Path file = directory.resolve(String.format("%020d%s", nextSequence++, SEGMENT_SUFFIX));
+            Segment segment = new Segment(file, map(file, segmentSize));
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(READ_POSITION_OFFSET, SEGMENT_HEADER_BYTES);
+            segments.addLast(segment);
+            segmentCount = segments.size();
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill segment in " + directory.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Deletes replayed segments that are no longer written to, and clears {@link #isFull()} if that made room.
+     */
+    private void releaseReplayedSegments() {
+        while (!segments.isEmpty()) {
+            Segment head = segments.peekFirst();
+            boolean writable = head == segments.peekLast() && !head.sealed;
+            if (writable || head.readPosition < head.writePosition) {
+                break;
+            }
+            segments.removeFirst();
+            try {
+                Files.deleteIfExists(head.file);
+            } catch (IOException e) {
+                log.warn("Cannot delete replayed spill segment {}", head.file, e);
+            }
+        }
+        segmentCount = segments.size();
+        if (segments.size() < maxSegments) {
+            full = false;
+        }
+    }
+
+    /**
+     * Maps the segments left by a previous run. They are sealed, so new records always go to a new segment and
+     * never overwrite what follows a torn record.
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            nextSequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())) + 1;
+            long fileSize = Files.size(file);
+            if (fileSize < SEGMENT_HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                log.warn("Ignoring spill segment {} of unexpected size {}", file, fileSize);
+                continue;
+            }
+            Segment segment = new Segment(file, map(file, fileSize));
+            segment.sealed = true;
+            if (segment.buffer.getInt(0) != MAGIC) {
+                Files.delete(file);
+                continue;
+            }
+            int position = SEGMENT_HEADER_BYTES;
+            while (position + RECORD_HEADER_BYTES <= segment.buffer.capacity()) {
+                int bodySize = segment.buffer.getInt(position);
+                if (bodySize <= 0 || bodySize > segment.buffer.capacity() - position - RECORD_HEADER_BYTES) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(segment.buffer.slice(position + RECORD_HEADER_BYTES, bodySize));
+                if ((int) crc.getValue() != segment.buffer.getInt(position + Integer.BYTES)) {
+                    log.warn("Spill segment {} has a torn record at position {}, ignoring the rest", file, position);
+                    break;
+                }
+                position += RECORD_HEADER_BYTES + bodySize;
+            }
+            segment.writePosition = position;
+            segment.readPosition = Math.clamp(segment.buffer.getInt(READ_POSITION_OFFSET), SEGMENT_HEADER_BYTES,
+                    position);
+            int offset = segment.readPosition;
+            while (offset < position) {
+                offset += RECORD_HEADER_BYTES + segment.buffer.getInt(offset);
+                pendingRecords.incrementAndGet();
+            }
+            pendingBytes.addAndGet(position - segment.readPosition);
+            segments.addLast(segment);
+        }
+        releaseReplayedSegments();
+    }
+
+    private static Entry read(MappedByteBuffer buffer, int position) {
+        int bodySize = buffer.getInt(position);
+        ByteBuffer body = buffer.slice(position + RECORD_HEADER_BYTES, bodySize);
+        boolean binary = body.get() == 1;
+        String topic = new String(getField(body), StandardCharsets.UTF_8);
+        byte[] key = getField(body);
+        byte[] value = getField(body);
+        int headerCount = body.getInt();
+        RecordHeaders headers = new RecordHeaders();
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(new String(getField(body), StandardCharsets.UTF_8), getField(body));
+        }
+        return new Entry(binary, topic, key, value, headers, RECORD_HEADER_BYTES + bodySize);
+    }
+
+    private static int fieldSize(byte[] field) {
+        return Integer.BYTES + (field != null ? field.length : 0);
+    }
+
+    private static void putField(ByteBuffer buffer, byte[] field) {
+        if (field == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(field.length).put(field);
+        }
+    }
+
+    private static byte[] getField(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] field = new byte[length];
+        buffer.get(field);
+        return field;
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int readPosition = SEGMENT_HEADER_BYTES;
+        private int writePosition = SEGMENT_HEADER_BYTES;
+        private boolean sealed;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+}
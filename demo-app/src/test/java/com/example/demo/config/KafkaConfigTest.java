@@ -1,13 +1,28 @@
 package com.example.demo.config;
 
 import com.example.demo.service.KafkaMessageService;
+import com.example.demo.service.SpillLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.record.CompressionType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.LoggingProducerListener;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class KafkaConfigTest {
@@ -15,13 +30,82 @@ class KafkaConfigTest {
     @Mock
     private KafkaTemplate<String, String> kafkaTemplate;
 
+    @Mock
+    private ProducerFactory<byte[], byte[]> producerFactory;
+
+    @Mock
+    private ProducerFactory<byte[], byte[]> binaryProducerFactory;
+
+    @Mock
+    private ObjectProvider<SpillLog> spillLog;
+
+    private final ProducerListener<Object, Object> producerListener = new LoggingProducerListener<>();
+
     @Test
     void shouldCreateKafkaMessageService() {
         KafkaConfig kafkaConfig = new KafkaConfig();
         String kafkaTopic = "test-topic";
 
-        KafkaMessageService service = kafkaConfig.kafkaMessageService(kafkaTemplate, kafkaTopic);
+        KafkaMessageService service = kafkaConfig.kafkaMessageService(kafkaTemplate, producerFactory,
+                producerListener, new PayloadProperties(), new SimpleMeterRegistry(), spillLog, kafkaTopic);
 
         assertThat(service).isNotNull();
+        assertThat(service.producerTemplate()).isSameAs(kafkaTemplate);
+    }
+
+    @Test
+    void shouldCreateByteArrayTemplateInBinaryMode() {
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        PayloadProperties payloadProperties = new PayloadProperties();
+        payloadProperties.setMode(PayloadProperties.Mode.BINARY);
+        when(producerFactory.copyWithConfigurationOverride(anyMap())).thenReturn(binaryProducerFactory);
+
+        KafkaMessageService service = kafkaConfig.kafkaMessageService(kafkaTemplate, producerFactory,
+                producerListener, payloadProperties, new SimpleMeterRegistry(), spillLog, "test-topic");
+
+        assertThat(service.producerTemplate()).isNotSameAs(kafkaTemplate);
+        assertThat(((KafkaTemplate<?, ?>) service.producerTemplate()).getProducerFactory())
+                .isSameAs(binaryProducerFactory);
+    }
+
+    @Test
+    void shouldBuildThroughputProducerConfigs() {
+        ProducerProfileProperties.Throughput throughput = new ProducerProfileProperties.Throughput();
+        throughput.setLinger(Duration.ofMillis(20));
+        throughput.setBatchSize(DataSize.ofKilobytes(128));
+        throughput.setCompression(CompressionType.ZSTD);
+        throughput.setBufferMemory(DataSize.ofMegabytes(32));
+
+        Map<String, Object> configs = KafkaConfig.throughputConfigs(throughput);
+
+        assertThat(configs)
+                .containsEntry(ProducerConfig.LINGER_MS_CONFIG, 20)
+                .containsEntry(ProducerConfig.BATCH_SIZE_CONFIG, 131072)
+                .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd")
+                .containsEntry(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432L)
+                .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true)
+                .containsEntry(ProducerConfig.ACKS_CONFIG, "all");
+    }
+
+    @Test
+    void shouldLeaveAcksAloneWithoutIdempotence() {
+        ProducerProfileProperties.Throughput throughput = new ProducerProfileProperties.Throughput();
+        throughput.setIdempotence(false);
+
+        Map<String, Object> configs = KafkaConfig.throughputConfigs(throughput);
+
+        assertThat(configs)
+                .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false)
+                .doesNotContainKey(ProducerConfig.ACKS_CONFIG);
+    }
+
+    @Test
+    void shouldRequireBackPressureForSpilling() {
+        BackPressureProperties backPressureProperties = new BackPressureProperties();
+        backPressureProperties.setEnabled(false);
+
+        assertThatThrownBy(() -> new KafkaConfig().spillLog(new SpillProperties(), backPressureProperties,
+                new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 }
@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueueBindingsTest {
+
+    private ConsumerPoolProperties poolProperties;
+    private QueueBindingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        poolProperties = new ConsumerPoolProperties();
+        poolProperties.setMinConcurrency(2);
+        poolProperties.setMaxConcurrency(8);
+        properties = new QueueBindingProperties();
+    }
+
+    @Test
+    void shouldBindDefaultQueueWithoutBindings() {
+        QueueBindings bindings = new QueueBindings(properties, poolProperties, "DEV.QUEUE.1");
+
+        assertThat(bindings.bindings()).containsExactly(new QueueBindings.Binding("DEV.QUEUE.1", null, 2, 8));
+        assertThat(bindings.bindings().getFirst().containerId()).isEqualTo("mq-DEV.QUEUE.1");
+        assertThat(bindings.bindings().getFirst().concurrency()).isEqualTo("2-8");
+        assertThat(bindings.topicsByQueue()).isEmpty();
+    }
+
+    @Test
+    void shouldApplyConsumerPoolDefaultsToBindings() {
+        properties.setQueues(List.of(binding("CARDS.IN", "cards", null, 16), binding("ADMIN.IN", null, 1, 1)));
+
+        QueueBindings bindings = new QueueBindings(properties, poolProperties, "DEV.QUEUE.1");
+
+        assertThat(bindings.bindings()).containsExactly(
+                new QueueBindings.Binding("CARDS.IN", "cards", 2, 16),
+                new QueueBindings.Binding("ADMIN.IN", null, 1, 1));
+        assertThat(bindings.topicsByQueue()).isEqualTo(Map.of("CARDS.IN", "cards"));
+    }
+
+    @Test
+    void shouldRejectDuplicateQueues() {
+        properties.setQueues(List.of(binding("CARDS.IN", null, null, null), binding("CARDS.IN", null, null, null)));
+
+        assertThatThrownBy(() -> new QueueBindings(properties, poolProperties, "DEV.QUEUE.1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectMinConcurrencyAboveMax() {
+        properties.setQueues(List.of(binding("CARDS.IN", null, 4, 2)));
+
+        assertThatThrownBy(() -> new QueueBindings(properties, poolProperties, "DEV.QUEUE.1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static QueueBindingProperties.Binding binding(String queue, String topic, Integer minConcurrency,
+                                                          Integer maxConcurrency) {
+        QueueBindingProperties.Binding binding = new QueueBindingProperties.Binding();
+        binding.setQueue(queue);
+        binding.setTopic(topic);
+        binding.setMinConcurrency(minConcurrency);
+        binding.setMaxConcurrency(maxConcurrency);
+        return binding;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.converter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Iso8583EncoderTest {
+
+    private Iso8583Encoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new Iso8583Encoder();
+    }
+
+    @Test
+    void shouldEncodeMtiBitmapAndFields() {
+        byte[] payload = encoder.message("0200")
+                .set(2, "4111111111111111")
+                .set(3, "000000")
+                .set(4, 10_000L)
+                .set(11, 123456)
+                .set(41, "TERM0001")
+                .encode();
+
+        assertThat(new String(payload, StandardCharsets.US_ASCII)).isEqualTo(
+                "0200" + "7020000000800000" + "164111111111111111" + "000000" + "000000010000" + "123456"
+                        + "TERM0001");
+    }
+
+    @Test
+    void shouldPadFixedLengthFields() {
+        byte[] payload = encoder.message("0210")
+                .set(4, 5L)
+                .set(42, "SHOP1")
+                .encode();
+
+        Iso8583Message message = new Iso8583Parser().parse(payload);
+
+        assertThat(message.getString(4)).isEqualTo("000000000005");
+        assertThat(message.getString(42)).isEqualTo("SHOP1          ");
+    }
+
+    @Test
+    void shouldRoundTripThroughParser() {
+        byte[] additionalData = "x".repeat(300).getBytes(StandardCharsets.US_ASCII);
+        byte[] payload = encoder.message("0200")
+                .set(2, "5500000000000004")
+                .set(37, "123456789012")
+                .set(48, additionalData)
+                .set(102, "ACCOUNT1")
+                .set(128, "0123456789ABCDEF")
+                .encode();
+
+        Iso8583Message message = new Iso8583Parser().parse(payload);
+
+        assertThat(message.fieldNumbers()).containsExactly(2, 37, 48, 102, 128);
+        assertThat(message.getBytes(48)).isEqualTo(additionalData);
+        assertThat(message.getString(102)).isEqualTo("ACCOUNT1");
+        assertThat(message.getString(128)).isEqualTo("0123456789ABCDEF");
+    }
+
+    @Test
+    void shouldRejectInvalidMti() {
+        assertThatThrownBy(() -> encoder.message("02A0"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid ISO 8583 MTI");
+    }
+
+    @Test
+    void shouldRejectValueLongerThanField() {
+        Iso8583Encoder.Builder builder = encoder.message("0200");
+
+        assertThatThrownBy(() -> builder.set(41, "TERMINAL1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("field 41 length 9 exceeds maximum 8");
+    }
+
+    @Test
+    void shouldRejectNonNumericValueForNumericField() {
+        Iso8583Encoder.Builder builder = encoder.message("0200");
+
+        assertThatThrownBy(() -> builder.set(4, "12.50"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("field 4 is not numeric");
+    }
+
+    @Test
+    void shouldRejectUndefinedField() {
+        Iso8583Encoder.Builder builder = encoder.message("0200");
+
+        assertThatThrownBy(() -> builder.set(1, "x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.converter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Iso8583MessageTest {
+
+    private Iso8583Message message;
+
+    @BeforeEach
+    void setUp() {
+        Iso8583Dictionary dictionary = new Iso8583Dictionary(List.of(
+                Iso8583FieldSpec.llvar(2, 19, true),
+                Iso8583FieldSpec.fixedNumeric(4, 12),
+                Iso8583FieldSpec.fixed(41, 8),
+                Iso8583FieldSpec.fixed(65, 1),
+                Iso8583FieldSpec.fixedNumeric(70, 3)), Iso8583Dictionary.BitmapEncoding.HEX);
+        byte[] payload = new Iso8583Encoder(dictionary).message("0200")
+                .set(2, "4111111111111111")
+                .set(4, 2_500L)
+                .set(41, "TERM0001")
+                .set(65, "1")
+                .set(70, "301")
+                .encode();
+        message = new Iso8583Parser(dictionary).parse(payload);
+    }
+
+    @Test
+    void shouldReportPresentFields() {
+        assertThat(message.hasField(2)).isTrue();
+        assertThat(message.hasField(3)).isFalse();
+        assertThat(message.hasField(65)).isTrue();
+        assertThat(message.hasField(1)).isFalse();
+        assertThat(message.hasField(129)).isFalse();
+    }
+
+    @Test
+    void shouldLocateFieldsAcrossBothBitmaps() {
+        assertThat(message.getString(41)).isEqualTo("TERM0001");
+        assertThat(message.getString(65)).isEqualTo("1");
+        assertThat(message.getString(70)).isEqualTo("301");
+    }
+
+    @Test
+    void shouldReturnValueLengthWithoutPrefix() {
+        assertThat(message.fieldLength(2)).isEqualTo(16);
+        assertThat(message.fieldLength(41)).isEqualTo(8);
+        assertThat(message.fieldLength(3)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldReturnNullForAbsentFields() {
+        assertThat(message.getString(3)).isNull();
+        assertThat(message.getBytes(3)).isNull();
+    }
+
+    @Test
+    void shouldCompareWithoutDecoding() {
+        assertThat(message.mtiEquals("0200")).isTrue();
+        assertThat(message.mtiEquals("0210")).isFalse();
+        assertThat(message.fieldEquals(41, "TERM0001")).isTrue();
+        assertThat(message.fieldEquals(41, "TERM0002")).isFalse();
+        assertThat(message.fieldEquals(3, "000000")).isFalse();
+    }
+
+    @Test
+    void shouldCopyFieldIntoTarget() {
+        byte[] target = new byte[20];
+
+        int copied = message.copyField(2, target, 2);
+
+        assertThat(copied).isEqualTo(16);
+        assertThat(new String(target, 2, copied, StandardCharsets.US_ASCII))
+                .isEqualTo("4111111111111111");
+    }
+
+    @Test
+    void shouldParseNumericFieldAsLong() {
+        assertThat(message.getLong(4)).isEqualTo(2_500L);
+    }
+
+    @Test
+    void shouldRejectLongOfAbsentOrNonNumericField() {
+        assertThatThrownBy(() -> message.getLong(3))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not present");
+        assertThatThrownBy(() -> message.getLong(41))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not numeric");
+    }
+}
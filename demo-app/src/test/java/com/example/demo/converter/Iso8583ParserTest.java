@@ -0,0 +1,144 @@
+package com.example.demo.converter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Iso8583ParserTest {
+
+    /**
+     * 0200 with fields 2, 3, 4, 11 and 41: bitmap 7020 0000 0080 0000.
+     */
+    private static final String AUTHORIZATION_REQUEST =
+            "0200"
+            + "7020000000800000"
+            + "164111111111111111"
+            + "000000"
+            + "000000010000"
+            + "123456"
+            + "TERM0001";
+
+    private Iso8583Parser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new Iso8583Parser();
+    }
+
+    @Test
+    void shouldParseFixedAndVariableFields() {
+        Iso8583Message message = parser.parse(bytes(AUTHORIZATION_REQUEST));
+
+        assertThat(message.mti()).isEqualTo("0200");
+        assertThat(message.fieldNumbers()).containsExactly(2, 3, 4, 11, 41);
+        assertThat(message.getString(2)).isEqualTo("4111111111111111");
+        assertThat(message.getString(3)).isEqualTo("000000");
+        assertThat(message.getLong(4)).isEqualTo(10_000L);
+        assertThat(message.getString(11)).isEqualTo("123456");
+        assertThat(message.getString(41)).isEqualTo("TERM0001");
+    }
+
+    @Test
+    void shouldParseMessageInsideLargerBuffer() {
+        byte[] buffer = bytes("xx" + AUTHORIZATION_REQUEST + "yy");
+
+        Iso8583Message message = parser.parse(buffer, 2, AUTHORIZATION_REQUEST.length());
+
+        assertThat(message.mti()).isEqualTo("0200");
+        assertThat(message.getString(41)).isEqualTo("TERM0001");
+    }
+
+    @Test
+    void shouldParseSecondaryBitmap() {
+        byte[] payload = new Iso8583Encoder()
+                .message("0800")
+                .set(7, "1016120000")
+                .set(11, 1)
+                .set(70, "301")
+                .encode();
+
+        Iso8583Message message = parser.parse(payload);
+
+        assertThat(message.fieldNumbers()).containsExactly(7, 11, 70);
+        assertThat(message.getString(70)).isEqualTo("301");
+        assertThat(message.getString(11)).isEqualTo("000001");
+    }
+
+    @Test
+    void shouldParseBinaryBitmap() {
+        Iso8583Dictionary dictionary = Iso8583Dictionary.standard(Iso8583Dictionary.BitmapEncoding.BINARY);
+        byte[] payload = new Iso8583Encoder(dictionary)
+                .message("0200")
+                .set(2, "4111111111111111")
+                .set(41, "TERM0001")
+                .encode();
+
+        Iso8583Message message = new Iso8583Parser(dictionary).parse(payload);
+
+        assertThat(payload).hasSize(4 + 8 + 2 + 16 + 8);
+        assertThat(message.fieldNumbers()).containsExactly(2, 41);
+        assertThat(message.getString(2)).isEqualTo("4111111111111111");
+    }
+
+    @Test
+    void shouldReadOnlyMti() {
+        assertThat(parser.mti(bytes("0400 not a complete message"))).isEqualTo("0400");
+        assertThatThrownBy(() -> parser.mti(bytes("04")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("truncated in MTI");
+        assertThatThrownBy(() -> parser.mti(bytes("04X0")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid ISO 8583 MTI");
+    }
+
+    @Test
+    void shouldRejectTruncatedMessage() {
+        byte[] payload = bytes(AUTHORIZATION_REQUEST.substring(0, AUTHORIZATION_REQUEST.length() - 3));
+
+        assertThatThrownBy(() -> parser.parse(payload))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("truncated in field 41");
+    }
+
+    @Test
+    void shouldRejectTrailingBytes() {
+        assertThatThrownBy(() -> parser.parse(bytes(AUTHORIZATION_REQUEST + "X")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("1 trailing bytes");
+    }
+
+    @Test
+    void shouldRejectVariableLengthAboveMaximum() {
+        String message = "0200" + "4000000000000000" + "20" + "41111111111111111111";
+
+        assertThatThrownBy(() -> parser.parse(bytes(message)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("field 2 length 20 exceeds maximum 19");
+    }
+
+    @Test
+    void shouldRejectInvalidBitmap() {
+        assertThatThrownBy(() -> parser.parse(bytes("0200" + "70200000008000ZZ")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid ISO 8583 bitmap");
+    }
+
+    @Test
+    void shouldRejectFieldsMissingFromDictionary() {
+        Iso8583Dictionary dictionary = new Iso8583Dictionary(
+                List.of(Iso8583FieldSpec.fixedNumeric(3, 6)), Iso8583Dictionary.BitmapEncoding.HEX);
+
+        assertThatThrownBy(() -> new Iso8583Parser(dictionary).parse(bytes(AUTHORIZATION_REQUEST)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("field 2");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
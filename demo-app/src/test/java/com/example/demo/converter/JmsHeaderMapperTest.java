@@ -0,0 +1,103 @@
+package com.example.demo.converter;
+
+import com.example.demo.config.HeaderMappingProperties;
+import jakarta.jms.JMSException;
+import jakarta.jms.TextMessage;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JmsHeaderMapperTest {
+
+    @Mock
+    private TextMessage jmsMessage;
+
+    private JmsHeaderMapper headerMapper;
+
+    @BeforeEach
+    void setUp() {
+        headerMapper = new JmsHeaderMapper(new HeaderMappingProperties());
+    }
+
+    @Test
+    void shouldEncodeLongPropertyAsEightBytes() throws JMSException {
+        long sendTimestamp = 1_767_225_600_123L;
+        stubProperties(Map.of("sendTimestamp", sendTimestamp));
+
+        Headers headers = headerMapper.toKafkaHeaders(jmsMessage);
+
+        byte[] value = headers.lastHeader("sendTimestamp").value();
+        assertThat(value).hasSize(Long.BYTES);
+        assertThat(ByteBuffer.wrap(value).getLong()).isEqualTo(sendTimestamp);
+    }
+
+    @Test
+    void shouldEncodeStringPropertyAsUtf8() throws JMSException {
+        stubProperties(Map.of("testRunId", "run-ü"));
+
+        Headers headers = headerMapper.toKafkaHeaders(jmsMessage);
+
+        assertThat(headers.lastHeader("testRunId").value()).isEqualTo("run-ü".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldSkipAbsentProperties() {
+        Headers headers = headerMapper.toKafkaHeaders(jmsMessage);
+
+        assertThat(headers.toArray()).isEmpty();
+    }
+
+    @Test
+    void shouldOnlyReadAllowListedProperties() throws JMSException {
+        HeaderMappingProperties properties = new HeaderMappingProperties();
+        properties.setAllowList(List.of("correlationId"));
+        when(jmsMessage.getObjectProperty("correlationId")).thenReturn("run-1-0000000001");
+
+        Headers headers = new JmsHeaderMapper(properties).toKafkaHeaders(jmsMessage);
+
+        assertThat(headers.toArray()).hasSize(1);
+        verify(jmsMessage, never()).getObjectProperty("sendTimestamp");
+    }
+
+    @Test
+    void shouldContinueWhenPropertyCannotBeRead() throws JMSException {
+        when(jmsMessage.getObjectProperty(anyString())).thenAnswer(invocation -> {
+            if ("correlationId".equals(invocation.getArgument(0))) {
+                throw new JMSException("broken property");
+            }
+            return "run-1";
+        });
+
+        Headers headers = headerMapper.toKafkaHeaders(jmsMessage);
+
+        assertThat(headers.lastHeader("correlationId")).isNull();
+        assertThat(headers.lastHeader("testRunId")).isNotNull();
+    }
+
+    @Test
+    void shouldEncodeIntAndBooleanProperties() {
+        assertThat(ByteBuffer.wrap(JmsHeaderMapper.encode(42)).getInt()).isEqualTo(42);
+        assertThat(JmsHeaderMapper.encode(true)).containsExactly(1);
+        assertThat(ByteBuffer.wrap(JmsHeaderMapper.encode(2.5d)).getDouble()).isEqualTo(2.5d);
+    }
+
+    private void stubProperties(Map<String, Object> properties) throws JMSException {
+        when(jmsMessage.getObjectProperty(anyString()))
+                .thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.converter;
+
+import com.example.demo.config.RecordKeyProperties;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecordKeyExtractorsTest {
+
+    @Mock
+    private Message message;
+
+    @Test
+    void shouldSendWithoutKeyByDefault() {
+        RecordKeyExtractor extractor = RecordKeyExtractors.fromProperties(new RecordKeyProperties(),
+                new Iso8583Parser());
+
+        assertThat(extractor.extractKey(message, null)).isNull();
+        assertThat(extractor.needsBody()).isFalse();
+    }
+
+    @Test
+    void shouldReadKeyFromJmsProperty() throws JMSException {
+        RecordKeyProperties properties = new RecordKeyProperties();
+        properties.setSource(RecordKeyProperties.Source.JMS_PROPERTY);
+        properties.setPropertyName("accountId");
+        when(message.getObjectProperty("accountId")).thenReturn(1234L);
+
+        RecordKeyExtractor extractor = RecordKeyExtractors.fromProperties(properties, new Iso8583Parser());
+
+        assertThat(extractor.extractKey(message, null)).isEqualTo("1234");
+    }
+
+    @Test
+    void shouldReturnNullKeyWhenPropertyCannotBeRead() throws JMSException {
+        when(message.getObjectProperty("accountId")).thenThrow(new JMSException("closed"));
+
+        assertThat(RecordKeyExtractors.jmsProperty("accountId").extractKey(message, null)).isNull();
+    }
+
+    @Test
+    void shouldRejectBlankPropertyName() {
+        assertThatThrownBy(() -> RecordKeyExtractors.jmsProperty(" "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldReadKeyFromCorrelationId() throws JMSException {
+        when(message.getJMSCorrelationID()).thenReturn("ID:414d51");
+
+        assertThat(RecordKeyExtractors.correlationId().extractKey(message, null)).isEqualTo("ID:414d51");
+    }
+
+    @Test
+    void shouldReadKeyFromIsoField() {
+        RecordKeyProperties properties = new RecordKeyProperties();
+        properties.setSource(RecordKeyProperties.Source.ISO8583_FIELD);
+        byte[] body = new Iso8583Encoder().message("0200")
+                .set(2, "4111111111111111")
+                .set(41, "TERM0001")
+                .encode();
+
+        RecordKeyExtractor extractor = RecordKeyExtractors.fromProperties(properties, new Iso8583Parser());
+
+        assertThat(extractor.needsBody()).isTrue();
+        assertThat(extractor.extractKey(message, body)).isEqualTo("4111111111111111");
+    }
+
+    @Test
+    void shouldReturnNullKeyForMalformedIsoPayload() {
+        RecordKeyExtractor extractor = RecordKeyExtractors.iso8583Field(new Iso8583Parser(), 41);
+
+        assertThat(extractor.extractKey(message, "not iso".getBytes(StandardCharsets.US_ASCII))).isNull();
+    }
+
+    @Test
+    void shouldRejectInvalidIsoField() {
+        assertThatThrownBy(() -> RecordKeyExtractors.iso8583Field(new Iso8583Parser(), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
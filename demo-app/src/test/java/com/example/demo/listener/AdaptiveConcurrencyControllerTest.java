@@ -0,0 +1,158 @@
+package com.example.demo.listener;
+
+import com.example.demo.config.ConsumerPoolProperties;
+import com.example.demo.config.QueueBindingProperties;
+import com.example.demo.config.QueueBindings;
+import com.example.demo.service.ProducerBufferMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptiveConcurrencyControllerTest {
+
+    private static final String QUEUE_NAME = "DEV.QUEUE.1";
+
+    @Mock
+    private JmsListenerEndpointRegistry endpointRegistry;
+
+    @Mock
+    private ConsumerThreadMetrics consumerMetrics;
+
+    @Mock
+    private ProducerBufferMonitor producerBufferMonitor;
+
+    @Mock
+    private DefaultMessageListenerContainer container;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyController controller;
+
+    @BeforeEach
+    void setUp() {
+        ConsumerPoolProperties properties = new ConsumerPoolProperties();
+        properties.setMinConcurrency(1);
+        properties.setMaxConcurrency(3);
+        properties.getAdaptive().setScaleUpReceiveWait(Duration.ofMillis(5));
+        properties.getAdaptive().setScaleDownReceiveWait(Duration.ofMillis(500));
+
+        QueueBindings queueBindings = new QueueBindings(new QueueBindingProperties(), properties, QUEUE_NAME);
+        lenient().when(endpointRegistry.getListenerContainer("mq-" + QUEUE_NAME)).thenReturn(container);
+        meterRegistry = new SimpleMeterRegistry();
+        controller = new AdaptiveConcurrencyController(endpointRegistry, queueBindings, consumerMetrics,
+                producerBufferMonitor, properties, meterRegistry);
+    }
+
+    @Test
+    void shouldStartAtConfiguredMaximum() {
+        assertThat(controller.getTargetConcurrency(QUEUE_NAME)).isEqualTo(3);
+        assertThat(meterRegistry.get("mq.consumer.concurrency.target").tag("queue", QUEUE_NAME).gauge().value())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldAddConsumerWhenMessagesAreWaiting() {
+        when(consumerMetrics.totalMessages(QUEUE_NAME)).thenReturn(0L, 1000L);
+        when(consumerMetrics.totalReceiveWaitNanos(QUEUE_NAME)).thenReturn(0L, Duration.ofMillis(100).toNanos());
+
+        controller.adjust();
+        assertThat(controller.getTargetConcurrency(QUEUE_NAME)).isEqualTo(2);
+        controller.adjust();
+
+        assertThat(controller.getTargetConcurrency(QUEUE_NAME)).isEqualTo(3);
+        verify(container).setMaxConcurrentConsumers(2);
+        verify(container).setMaxConcurrentConsumers(3);
+        assertThat(meterRegistry.get("mq.consumer.concurrency.target").tag("queue", QUEUE_NAME).gauge().value())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldNotExceedMaxConcurrency() {
+        when(consumerMetrics.totalMessages(QUEUE_NAME)).thenReturn(1000L, 2000L, 3000L);
+        when(consumerMetrics.totalReceiveWaitNanos(QUEUE_NAME)).thenReturn(0L);
+
+        controller.adjust();
+        controller.adjust();
+        controller.adjust();
+
+        assertThat(controller.getTargetConcurrency(QUEUE_NAME)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRemoveConsumerWhenProducerBufferIsFilling() {
+        when(consumerMetrics.totalMessages(QUEUE_NAME)).thenReturn(1000L, 2000L);
+        when(consumerMetrics.totalReceiveWaitNanos(QUEUE_NAME)).thenReturn(0L);
+        when(producerBufferMonitor.bufferUtilization()).thenReturn(0.0, 0.95);
+
+        controller.adjust();
+        controller.adjust();
+
+        assertThat(controller.getTargetConcurrency(QUEUE_NAME)).isEqualTo(2);
+        verify(container).setMaxConcurrentConsumers(3);
+        verify(container).setMaxConcurrentConsumers(2);
+    }
+
+    @Test
+    void shouldStayAtMinimumWhenQueueIsIdle() {
+        when(consumerMetrics.totalMessages(QUEUE_NAME)).thenReturn(0L);
+
+        controller.adjust();
+        controller.adjust();
+        controller.adjust();
+
+        assertThat(controller.getTargetConcurrency(QUEUE_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSizeEachBindingWithinItsOwnBounds() {
+        ConsumerPoolProperties properties = new ConsumerPoolProperties();
+        properties.setMinConcurrency(1);
+        properties.setMaxConcurrency(3);
+        QueueBindingProperties bindingProperties = new QueueBindingProperties();
+        bindingProperties.setQueues(List.of(binding("FAST.QUEUE", 1, 4), binding("SLOW.QUEUE", 2, 3)));
+        DefaultMessageListenerContainer slowContainer = mock(DefaultMessageListenerContainer.class);
+        when(endpointRegistry.getListenerContainer("mq-FAST.QUEUE")).thenReturn(container);
+        when(endpointRegistry.getListenerContainer("mq-SLOW.QUEUE")).thenReturn(slowContainer);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyController boundedController = new AdaptiveConcurrencyController(endpointRegistry,
+                new QueueBindings(bindingProperties, properties, QUEUE_NAME), consumerMetrics,
+                producerBufferMonitor, properties, registry);
+        when(consumerMetrics.totalMessages("FAST.QUEUE")).thenReturn(1000L, 2000L, 3000L);
+        when(consumerMetrics.totalReceiveWaitNanos("FAST.QUEUE")).thenReturn(0L);
+        when(consumerMetrics.totalMessages("SLOW.QUEUE")).thenReturn(0L);
+
+        boundedController.adjust();
+        boundedController.adjust();
+        boundedController.adjust();
+
+        assertThat(boundedController.getTargetConcurrency("FAST.QUEUE")).isEqualTo(4);
+        assertThat(boundedController.getTargetConcurrency("SLOW.QUEUE")).isEqualTo(2);
+        verify(container, times(3)).setMaxConcurrentConsumers(4);
+        verify(slowContainer, times(3)).setMaxConcurrentConsumers(2);
+        assertThat(registry.get("mq.consumer.concurrency.target").tag("queue", "SLOW.QUEUE").gauge().value())
+                .isEqualTo(2.0);
+    }
+
+    private static QueueBindingProperties.Binding binding(String queue, int minConcurrency, int maxConcurrency) {
+        QueueBindingProperties.Binding binding = new QueueBindingProperties.Binding();
+        binding.setQueue(queue);
+        binding.setMinConcurrency(minConcurrency);
+        binding.setMaxConcurrency(maxConcurrency);
+        return binding;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demo.listener;
+
+import com.example.demo.config.BackPressureProperties;
+import com.example.demo.service.KafkaMessageService;
+import com.example.demo.service.ProducerBufferMonitor;
+import com.example.demo.service.SpillLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BackPressureControllerTest {
+
+    @Mock
+    private JmsListenerEndpointRegistry endpointRegistry;
+
+    @Mock
+    private ProducerBufferMonitor producerBufferMonitor;
+
+    @Mock
+    private KafkaMessageService kafkaMessageService;
+
+    @Mock
+    private DefaultMessageListenerContainer container;
+
+    @Mock
+    private SpillLog spillLog;
+
+    @Mock
+    private BatchMessageListener batchMessageListener;
+
+    private BackPressureProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private BackPressureController controller;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BackPressureProperties();
+        properties.setBufferHighWatermark(0.8);
+        properties.setBufferLowWatermark(0.5);
+        properties.setInFlightHighWatermark(1000);
+        properties.setInFlightLowWatermark(100);
+
+        meterRegistry = new SimpleMeterRegistry();
+        controller = new BackPressureController(endpointRegistry, producerBufferMonitor, kafkaMessageService,
+                List.of(batchMessageListener), properties, null, meterRegistry);
+    }
+
+    @Test
+    void shouldPauseRunningContainersWhenBufferReachesHighWatermark() {
+        when(producerBufferMonitor.bufferUtilization()).thenReturn(0.85);
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+
+        controller.evaluate();
+
+        assertThat(controller.isPaused()).isTrue();
+        verify(container).stop();
+        verify(batchMessageListener).pause();
+        assertThat(meterRegistry.get("mq.consumer.paused").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("mq.consumer.pauses").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldPauseWhenTooManySendsAreInFlight() {
+        when(producerBufferMonitor.bufferUtilization()).thenReturn(0.1);
+        when(kafkaMessageService.inFlight()).thenReturn(1000L);
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        controller.evaluate();
+
+        assertThat(controller.isPaused()).isTrue();
+    }
+
+    @Test
+    void shouldStayPausedBetweenWatermarks() {
+        when(producerBufferMonitor.bufferUtilization()).thenReturn(0.9, 0.6);
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+
+        controller.evaluate();
+        controller.evaluate();
+
+        assertThat(controller.isPaused()).isTrue();
+        verify(container, never()).start();
+    }
+
+    @Test
+    void shouldResumeOnlyPausedContainersBelowLowWatermarks() {
+        DefaultMessageListenerContainer stoppedContainer = org.mockito.Mockito.mock(
+                DefaultMessageListenerContainer.class);
+        when(producerBufferMonitor.bufferUtilization()).thenReturn(0.9, 0.4);
+        when(kafkaMessageService.inFlight()).thenReturn(50L);
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container, stoppedContainer));
+        when(container.isRunning()).thenReturn(true);
+
+        controller.evaluate();
+        controller.evaluate();
+
+        assertThat(controller.isPaused()).isFalse();
+        verify(container).start();
+        verify(stoppedContainer, never()).start();
+        verify(batchMessageListener).resume();
+        assertThat(meterRegistry.get("mq.consumer.paused").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldKeepConsumingBelowHighWatermarks() {
+        when(producerBufferMonitor.bufferUtilization()).thenReturn(0.7);
+        when(kafkaMessageService.inFlight()).thenReturn(999L);
+
+        controller.evaluate();
+
+        assertThat(controller.isPaused()).isFalse();
+        verify(container, never()).stop();
+    }
+
+    @Test
+    void shouldSpillInsteadOfPausingAtHighWatermark() {
+        BackPressureController spillingController = new BackPressureController(endpointRegistry,
+                producerBufferMonitor, kafkaMessageService, List.of(batchMessageListener), properties, spillLog,
+                meterRegistry);
+        when(producerBufferMonitor.bufferUtilization()).thenReturn(0.85);
+
+        spillingController.evaluate();
+
+        assertThat(spillingController.isPaused()).isFalse();
+        verify(spillLog).divert();
+        verify(container, never()).stop();
+        verify(batchMessageListener, never()).pause();
+    }
+
+    @Test
+    void shouldPauseWhenSpillLogIsFullAndResumeOnceItHasRoom() {
+        BackPressureController spillingController = new BackPressureController(endpointRegistry,
+                producerBufferMonitor, kafkaMessageService, List.of(batchMessageListener), properties, spillLog,
+                meterRegistry);
+        when(producerBufferMonitor.bufferUtilization()).thenReturn(0.1);
+        when(spillLog.isFull()).thenReturn(true, true, false);
+        when(endpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+
+        spillingController.evaluate();
+        assertThat(spillingController.isPaused()).isTrue();
+        spillingController.evaluate();
+        assertThat(spillingController.isPaused()).isTrue();
+        spillingController.evaluate();
+
+        assertThat(spillingController.isPaused()).isFalse();
+        verify(container).start();
+    }
+
+    @Test
+    void shouldRejectLowWatermarkAboveHighWatermark() {
+        properties.setInFlightLowWatermark(2000);
+
+        assertThatThrownBy(() -> new BackPressureController(endpointRegistry, producerBufferMonitor,
+                kafkaMessageService, List.of(), properties, null, new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
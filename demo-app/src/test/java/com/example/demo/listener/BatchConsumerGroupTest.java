@@ -0,0 +1,44 @@
+package com.example.demo.listener;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchConsumerGroupTest {
+
+    @Mock
+    private BatchMessageListener cardsConsumer;
+
+    @Mock
+    private BatchMessageListener settlementsConsumer;
+
+    @Test
+    void shouldStartAndStopEveryConsumer() {
+        BatchConsumerGroup group = new BatchConsumerGroup(List.of(cardsConsumer, settlementsConsumer));
+
+        group.start();
+        group.stop();
+
+        verify(cardsConsumer).start();
+        verify(settlementsConsumer).start();
+        verify(cardsConsumer).stop();
+        verify(settlementsConsumer).stop();
+    }
+
+    @Test
+    void shouldBeRunningWhileAnyConsumerRuns() {
+        when(cardsConsumer.isRunning()).thenReturn(false);
+        when(settlementsConsumer.isRunning()).thenReturn(true);
+
+        assertThat(new BatchConsumerGroup(List.of(cardsConsumer, settlementsConsumer)).isRunning()).isTrue();
+        assertThat(new BatchConsumerGroup(List.of()).isRunning()).isFalse();
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.demo.listener;
+
+import com.example.demo.config.BatchConsumerProperties;
+import com.example.demo.service.KafkaMessageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchMessageListenerTest {
+
+    private static final String QUEUE_NAME = "DEV.QUEUE.1";
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private MessageListener messageListener;
+
+    @Mock
+    private KafkaMessageService kafkaMessageService;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private MessageConsumer consumer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BatchMessageListener batchListener;
+
+    @BeforeEach
+    void setUp() {
+        BatchConsumerProperties properties = new BatchConsumerProperties();
+        properties.setMaxMessages(2);
+        properties.setMaxWait(Duration.ofSeconds(1));
+        properties.setSendTimeout(Duration.ofSeconds(1));
+        properties.setReconnectDelay(Duration.ofMillis(10));
+
+        meterRegistry = new SimpleMeterRegistry();
+        batchListener = new BatchMessageListener(connectionFactory, messageListener, kafkaMessageService,
+                properties, new StageTimers(meterRegistry), meterRegistry, QUEUE_NAME);
+    }
+
+    @Test
+    void shouldCommitBatchOnceAllSendsAreAcknowledged() throws JMSException {
+        TextMessage message1 = mock(TextMessage.class);
+        TextMessage message2 = mock(TextMessage.class);
+        when(consumer.receive(anyLong())).thenReturn(message1, message2);
+        when(messageListener.forward(message1, QUEUE_NAME)).thenReturn(CompletableFuture.completedFuture(null));
+        when(messageListener.forward(message2, QUEUE_NAME)).thenReturn(CompletableFuture.completedFuture(null));
+
+        int processed = batchListener.processBatch(session, consumer);
+
+        assertThat(processed).isEqualTo(2);
+        verify(kafkaMessageService).flush();
+        verify(session).commit();
+        verify(session, never()).rollback();
+        assertThat(meterRegistry.get("mq.batch.size").summary().totalAmount()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("mq.batch.processing.time").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCloseBatchWhenNoFurtherMessageArrives() throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+        when(consumer.receive(anyLong())).thenReturn(message, (TextMessage) null);
+        when(messageListener.forward(message, QUEUE_NAME)).thenReturn(CompletableFuture.completedFuture(null));
+
+        int processed = batchListener.processBatch(session, consumer);
+
+        assertThat(processed).isEqualTo(1);
+        verify(session).commit();
+    }
+
+    @Test
+    void shouldRollBackWhenKafkaSendFails() throws JMSException {
+        TextMessage message1 = mock(TextMessage.class);
+        TextMessage message2 = mock(TextMessage.class);
+        when(consumer.receive(anyLong())).thenReturn(message1, message2);
+        when(messageListener.forward(message1, QUEUE_NAME)).thenReturn(CompletableFuture.completedFuture(null));
+        when(messageListener.forward(message2, QUEUE_NAME))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        batchListener.processBatch(session, consumer);
+
+        verify(session).rollback();
+        verify(session, never()).commit();
+    }
+
+    @Test
+    void shouldStopReceivingOnceASendHasFailed() throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+        when(consumer.receive(anyLong())).thenReturn(message);
+        when(messageListener.forward(message, QUEUE_NAME))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        int processed = batchListener.processBatch(session, consumer);
+
+        assertThat(processed).isEqualTo(1);
+        verify(consumer, times(1)).receive(anyLong());
+        verify(session).rollback();
+    }
+
+    @Test
+    void shouldCommitNextBatchWhenSendOfTimedOutBatchFailsLate() throws JMSException {
+        TextMessage late = mock(TextMessage.class);
+        TextMessage next = mock(TextMessage.class);
+        CompletableFuture<SendResult<String, String>> lateSend = new CompletableFuture<>();
+        when(consumer.receive(anyLong())).thenReturn(late, null, next, null);
+        doReturn(lateSend).when(messageListener).forward(late, QUEUE_NAME);
+        when(messageListener.forward(next, QUEUE_NAME)).thenReturn(CompletableFuture.completedFuture(null));
+
+        batchListener.processBatch(session, consumer);
+        verify(session).rollback();
+        lateSend.completeExceptionally(new IllegalStateException("delivery timeout"));
+        batchListener.processBatch(session, consumer);
+
+        verify(session).commit();
+        verify(session, times(1)).rollback();
+        assertThat(meterRegistry.get("kafka.messages.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldAbandonSendsOfBatchWhenRollbackFails() throws JMSException {
+        TextMessage failed = mock(TextMessage.class);
+        TextMessage next = mock(TextMessage.class);
+        CompletableFuture<SendResult<String, String>> pendingSend = new CompletableFuture<>();
+        when(consumer.receive(anyLong())).thenReturn(failed, next, null);
+        doReturn(pendingSend).when(messageListener).forward(failed, QUEUE_NAME);
+        when(messageListener.forward(next, QUEUE_NAME))
+                .thenThrow(new IllegalArgumentException("Unsupported message type"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        doThrow(new JMSException("connection broken")).when(session).rollback();
+
+        assertThatThrownBy(() -> batchListener.processBatch(session, consumer)).isInstanceOf(JMSException.class);
+        assertThat(meterRegistry.get("kafka.messages.in.flight").gauge().value()).isZero();
+
+        pendingSend.completeExceptionally(new IllegalStateException("delivery timeout"));
+        when(consumer.receive(anyLong())).thenReturn(next, null);
+        batchListener.processBatch(session, consumer);
+
+        verify(session).commit();
+    }
+
+    @Test
+    void shouldRollBackWhenMessageCannotBeRead() throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+        when(consumer.receive(anyLong())).thenReturn(message);
+        when(messageListener.forward(message, QUEUE_NAME)).thenThrow(new JMSException("cannot read body"));
+
+        batchListener.processBatch(session, consumer);
+
+        verify(session).rollback();
+        verify(session, never()).commit();
+        assertThat(meterRegistry.get("kafka.messages.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldPublishInFlightGauge() {
+        assertThat(meterRegistry.get("kafka.messages.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldRollBackWhenMessageCannotBeForwarded() throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+        when(consumer.receive(anyLong())).thenReturn(message, (TextMessage) null);
+        when(messageListener.forward(message, QUEUE_NAME))
+                .thenThrow(new IllegalArgumentException("Unsupported message type"));
+
+        batchListener.processBatch(session, consumer);
+
+        verify(session).rollback();
+        verify(session, never()).commit();
+    }
+
+    @Test
+    void shouldDoNothingWhenQueueIsEmpty() throws JMSException {
+        when(consumer.receive(anyLong())).thenReturn(null);
+
+        int processed = batchListener.processBatch(session, consumer);
+
+        assertThat(processed).isZero();
+        verify(session, never()).commit();
+        verify(session, never()).rollback();
+    }
+
+    @Test
+    void shouldRollBackAndCloseSessionAndConsumerWhenReconnecting() throws JMSException {
+        Connection connection = mock(Connection.class);
+        Queue queue = mock(Queue.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(true, Session.SESSION_TRANSACTED)).thenReturn(session);
+        when(session.createQueue(QUEUE_NAME)).thenReturn(queue);
+        when(session.createConsumer(queue)).thenReturn(consumer);
+        when(consumer.receive(anyLong())).thenThrow(new JMSException("connection broken"));
+
+        batchListener.start();
+        try {
+            verify(consumer, timeout(1000).atLeastOnce()).close();
+            verify(session, timeout(1000).atLeastOnce()).rollback();
+            verify(session, timeout(1000).atLeastOnce()).close();
+            verify(connection, timeout(1000).atLeastOnce()).close();
+        } finally {
+            batchListener.stop();
+        }
+    }
+
+    @Test
+    void shouldTrackPausedState() {
+        batchListener.pause();
+        assertThat(batchListener.isPaused()).isTrue();
+
+        batchListener.resume();
+        assertThat(batchListener.isPaused()).isFalse();
+    }
+}
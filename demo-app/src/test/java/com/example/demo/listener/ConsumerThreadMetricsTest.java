@@ -0,0 +1,80 @@
+package com.example.demo.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsumerThreadMetricsTest {
+
+    private static final String QUEUE_NAME = "DEV.QUEUE.1";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsumerThreadMetrics consumerMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumerMetrics = new ConsumerThreadMetrics(meterRegistry);
+    }
+
+    @Test
+    void shouldCountMessagesPerConsumerThread() throws InterruptedException {
+        Thread consumer = Thread.ofVirtual().name("mq-consumer-1").start(() -> {
+            consumerMetrics.messageStarted(QUEUE_NAME);
+            consumerMetrics.messageCompleted(QUEUE_NAME);
+            consumerMetrics.messageStarted(QUEUE_NAME);
+            consumerMetrics.messageCompleted(QUEUE_NAME);
+        });
+        consumer.join();
+
+        assertThat(consumerMetrics.totalMessages(QUEUE_NAME)).isEqualTo(2);
+        assertThat(meterRegistry.get("mq.consumer.messages").tag("consumer", "mq-consumer-1")
+                .functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("mq.consumer.receive.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepTotalsPerQueue() throws InterruptedException {
+        Thread consumer = Thread.ofVirtual().name("mq-consumer-3").start(() -> {
+            consumerMetrics.messageStarted(QUEUE_NAME);
+            consumerMetrics.messageCompleted(QUEUE_NAME);
+            consumerMetrics.messageStarted("DEV.QUEUE.2");
+            consumerMetrics.messageCompleted("DEV.QUEUE.2");
+            consumerMetrics.messageStarted("DEV.QUEUE.2");
+            consumerMetrics.messageCompleted("DEV.QUEUE.2");
+        });
+        consumer.join();
+
+        assertThat(consumerMetrics.totalMessages(QUEUE_NAME)).isEqualTo(1);
+        assertThat(consumerMetrics.totalMessages("DEV.QUEUE.2")).isEqualTo(2);
+        assertThat(consumerMetrics.totalMessages("UNKNOWN.QUEUE")).isZero();
+        assertThat(consumerMetrics.totalReceiveWaitNanos("UNKNOWN.QUEUE")).isZero();
+    }
+
+    @Test
+    void shouldReportZeroIdleTimeWhileBusy() {
+        consumerMetrics.messageStarted(QUEUE_NAME);
+
+        double idle = meterRegistry.get("mq.consumer.idle.time")
+                .tag("consumer", Thread.currentThread().getName()).gauge().value();
+
+        assertThat(idle).isZero();
+    }
+
+    @Test
+    void shouldRemoveMetersOfTerminatedConsumers() throws InterruptedException {
+        Thread consumer = Thread.ofVirtual().name("mq-consumer-2").start(() -> {
+            consumerMetrics.messageStarted(QUEUE_NAME);
+            consumerMetrics.messageCompleted(QUEUE_NAME);
+        });
+        consumer.join();
+
+        consumerMetrics.removeTerminatedConsumers();
+
+        assertThat(consumerMetrics.consumerCount()).isZero();
+        assertThat(meterRegistry.find("mq.consumer.messages").tag("consumer", "mq-consumer-2").meter()).isNull();
+        assertThat(consumerMetrics.totalMessages(QUEUE_NAME)).isEqualTo(1);
+    }
+}
@@ -1,35 +1,89 @@
 package com.example.demo.listener;
 
+import com.example.demo.config.PayloadLogProperties;
+import com.example.demo.config.PayloadProperties;
+import com.example.demo.config.HeaderMappingProperties;
+import com.example.demo.config.RoutingProperties;
+import com.example.demo.config.SpillProperties;
+import com.example.demo.converter.JmsHeaderMapper;
+import com.example.demo.converter.Iso8583Encoder;
+import com.example.demo.converter.Iso8583Parser;
 import com.example.demo.converter.MqToKafkaMessageConverter;
+import com.example.demo.converter.RecordKeyExtractors;
 import com.example.demo.service.KafkaMessageService;
+import com.example.demo.service.MessageRouter;
+import com.example.demo.service.PayloadLogger;
+import com.example.demo.service.SpillLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.BytesMessage;
 import jakarta.jms.JMSException;
 import jakarta.jms.TextMessage;
+import org.apache.kafka.common.header.Headers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class MessageListenerTest {
 
+    private static final String TOPIC = "mq-messages";
+    private static final String QUEUE = "DEV.QUEUE.1";
+
     @Mock
     private KafkaMessageService kafkaMessageService;
 
     @Mock
     private MqToKafkaMessageConverter messageConverter;
 
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final JmsHeaderMapper headerMapper = new JmsHeaderMapper(new HeaderMappingProperties());
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessageRouter messageRouter;
+    private PayloadLogger payloadLogger;
+    private StageTimers stageTimers;
+    private PutLatencyMetrics putLatencyMetrics;
     private MessageListener messageListener;
 
     @BeforeEach
     void setUp() {
-        messageListener = new MessageListener(kafkaMessageService, messageConverter);
+        meterRegistry = new SimpleMeterRegistry();
+        messageRouter = new MessageRouter(new RoutingProperties(), new Iso8583Parser(), meterRegistry, TOPIC);
+        payloadLogger = new PayloadLogger(new PayloadLogProperties(), meterRegistry);
+        stageTimers = new StageTimers(meterRegistry);
+        putLatencyMetrics = new PutLatencyMetrics(meterRegistry);
+        lenient().when(kafkaMessageService.sendMessage(any(), any(), any(), any()))
+                .thenReturn(new CompletableFuture<>());
+        lenient().when(kafkaMessageService.sendBytes(any(), any(), any(), any()))
+                .thenReturn(new CompletableFuture<>());
+        messageListener = new MessageListener(kafkaMessageService, messageConverter,
+                headerMapper, RecordKeyExtractors.none(), messageRouter, payloadLogger,
+                new ConsumerThreadMetrics(meterRegistry), stageTimers, putLatencyMetrics,
+                new PayloadProperties());
     }
 
     @Test
@@ -42,10 +96,10 @@ class MessageListenerTest {
 
         when(messageConverter.convert(mqMessage)).thenReturn(kafkaMessage);
 
-        messageListener.receiveMessage(textMessage);
+        messageListener.receiveMessage(textMessage, QUEUE);
 
         verify(messageConverter).convert(mqMessage);
-        verify(kafkaMessageService).sendMessage(eq(kafkaMessage), anyMap());
+        verify(kafkaMessageService).sendMessage(eq(TOPIC), isNull(), eq(kafkaMessage), any(Headers.class));
     }
 
     @Test
@@ -63,12 +117,270 @@ class MessageListenerTest {
         when(messageConverter.convert(mqMessage1)).thenReturn(kafkaMessage1);
         when(messageConverter.convert(mqMessage2)).thenReturn(kafkaMessage2);
 
-        messageListener.receiveMessage(textMessage1);
-        messageListener.receiveMessage(textMessage2);
+        messageListener.receiveMessage(textMessage1, QUEUE);
+        messageListener.receiveMessage(textMessage2, QUEUE);
 
         verify(messageConverter).convert(mqMessage1);
         verify(messageConverter).convert(mqMessage2);
-        verify(kafkaMessageService).sendMessage(eq(kafkaMessage1), anyMap());
-        verify(kafkaMessageService).sendMessage(eq(kafkaMessage2), anyMap());
+        verify(kafkaMessageService).sendMessage(eq(TOPIC), isNull(), eq(kafkaMessage1), any(Headers.class));
+        verify(kafkaMessageService).sendMessage(eq(TOPIC), isNull(), eq(kafkaMessage2), any(Headers.class));
+    }
+
+    @Test
+    void shouldRecordConsumerMetricsPerMessage() throws JMSException {
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(messageConverter.convert("message")).thenReturn("message");
+
+        messageListener.receiveMessage(textMessage, QUEUE);
+
+        assertThat(meterRegistry.get("mq.consumer.receive.wait").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("mq.consumer.messages")
+                .tag("consumer", Thread.currentThread().getName())
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldTimeEveryStageOfAForwardedMessage() throws JMSException {
+        CompletableFuture<SendResult<String, String>> sendFuture = new CompletableFuture<>();
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(messageConverter.convert("message")).thenReturn("message");
+        when(kafkaMessageService.sendMessage(eq(TOPIC), isNull(), eq("message"), any(Headers.class)))
+                .thenReturn(sendFuture);
+
+        messageListener.receiveMessage(textMessage, QUEUE);
+        assertThat(stageCount("ack")).isZero();
+        sendFuture.complete(null);
+
+        for (String stage : List.of("receive", "extract", "convert", "enqueue", "ack")) {
+            assertThat(stageCount(stage)).as(stage).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldReturnKafkaSendFutureWhenForwarding() throws JMSException {
+        CompletableFuture<SendResult<String, String>> sendFuture = new CompletableFuture<>();
+
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(messageConverter.convert("message")).thenReturn("kafka message");
+        when(kafkaMessageService.sendMessage(eq(TOPIC), isNull(), eq("kafka message"), any(Headers.class)))
+                .thenReturn(sendFuture);
+
+        CompletableFuture<? extends SendResult<?, ?>> result = messageListener.forward(textMessage, QUEUE);
+
+        assertThat(result).isSameAs(sendFuture);
+    }
+
+    @Test
+    void shouldRejectUnsupportedMessageType() {
+        jakarta.jms.Message objectMessage = org.mockito.Mockito.mock(jakarta.jms.ObjectMessage.class);
+
+        assertThatThrownBy(() -> messageListener.forward(objectMessage, QUEUE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldDecodeBytesMessageInTextMode() throws JMSException {
+        BytesMessage bytesMessage = org.mockito.Mockito.mock(BytesMessage.class);
+        byte[] body = "bytes payload".getBytes(StandardCharsets.UTF_8);
+        when(bytesMessage.getBodyLength()).thenReturn((long) body.length);
+        when(bytesMessage.readBytes(any(byte[].class))).thenAnswer(invocation -> {
+            byte[] target = invocation.getArgument(0);
+            System.arraycopy(body, 0, target, 0, body.length);
+            return body.length;
+        });
+        when(messageConverter.convert("bytes payload")).thenReturn("bytes payload");
+
+        messageListener.forward(bytesMessage, QUEUE);
+
+        verify(kafkaMessageService).sendMessage(eq(TOPIC), isNull(), eq("bytes payload"), any(Headers.class));
+    }
+
+    @Test
+    void shouldPassBytesThroughUnchangedInBinaryMode() throws JMSException {
+        PayloadProperties payloadProperties = new PayloadProperties();
+        payloadProperties.setMode(PayloadProperties.Mode.BINARY);
+        MessageListener binaryListener = new MessageListener(kafkaMessageService, messageConverter,
+                headerMapper, RecordKeyExtractors.none(), messageRouter, payloadLogger,
+                new ConsumerThreadMetrics(meterRegistry), stageTimers, putLatencyMetrics,
+                payloadProperties);
+
+        BytesMessage bytesMessage = org.mockito.Mockito.mock(BytesMessage.class);
+        byte[] body = {0x01, 0x02, (byte) 0xFF};
+        when(bytesMessage.getBodyLength()).thenReturn((long) body.length);
+        when(bytesMessage.readBytes(any(byte[].class))).thenAnswer(invocation -> {
+            byte[] target = invocation.getArgument(0);
+            System.arraycopy(body, 0, target, 0, body.length);
+            return body.length;
+        });
+
+        binaryListener.forward(bytesMessage, QUEUE);
+
+        verify(kafkaMessageService).sendBytes(eq(TOPIC), isNull(), eq(body), any(Headers.class));
+        verifyNoInteractions(messageConverter);
+    }
+
+    @Test
+    void shouldEncodeTextMessageAsUtf8InBinaryMode() throws JMSException {
+        PayloadProperties payloadProperties = new PayloadProperties();
+        payloadProperties.setMode(PayloadProperties.Mode.BINARY);
+        MessageListener binaryListener = new MessageListener(kafkaMessageService, messageConverter,
+                headerMapper, RecordKeyExtractors.none(), messageRouter, payloadLogger,
+                new ConsumerThreadMetrics(meterRegistry), stageTimers, putLatencyMetrics,
+                payloadProperties);
+
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("zürich");
+
+        binaryListener.forward(textMessage, QUEUE);
+
+        verify(kafkaMessageService).sendBytes(eq(TOPIC), isNull(), eq("zürich".getBytes(StandardCharsets.UTF_8)),
+                any(Headers.class));
+    }
+
+    @Test
+    void shouldPropagateAllowedPropertiesAsKafkaHeaders() throws JMSException {
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(textMessage.getObjectProperty("correlationId")).thenReturn("run-1-0000000001");
+        when(messageConverter.convert("message")).thenReturn("message");
+
+        messageListener.forward(textMessage, QUEUE);
+
+        verify(kafkaMessageService).sendMessage(eq(TOPIC), isNull(), eq("message"), argThat((Headers headers) ->
+                headers.lastHeader("correlationId") != null && headers.lastHeader("sendTimestamp") == null));
+    }
+
+    @Test
+    void shouldKeyRecordWithCorrelationId() throws JMSException {
+        MessageListener keyedListener = new MessageListener(kafkaMessageService, messageConverter,
+                headerMapper, RecordKeyExtractors.correlationId(), messageRouter, payloadLogger,
+                new ConsumerThreadMetrics(meterRegistry), stageTimers, putLatencyMetrics,
+                new PayloadProperties());
+
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(textMessage.getJMSCorrelationID()).thenReturn("ID:42");
+        when(messageConverter.convert("message")).thenReturn("message");
+
+        keyedListener.forward(textMessage, QUEUE);
+
+        verify(kafkaMessageService).sendMessage(eq(TOPIC), eq("ID:42"), eq("message"), any(Headers.class));
+    }
+
+    @Test
+    void shouldKeyBinaryRecordWithIsoField() throws JMSException {
+        PayloadProperties payloadProperties = new PayloadProperties();
+        payloadProperties.setMode(PayloadProperties.Mode.BINARY);
+        MessageListener keyedListener = new MessageListener(kafkaMessageService, messageConverter,
+                headerMapper, RecordKeyExtractors.iso8583Field(new Iso8583Parser(), 41), messageRouter, payloadLogger,
+                new ConsumerThreadMetrics(meterRegistry), stageTimers, putLatencyMetrics,
+                payloadProperties);
+
+        BytesMessage bytesMessage = org.mockito.Mockito.mock(BytesMessage.class);
+        byte[] body = new Iso8583Encoder().message("0200").set(41, "TERM0001").encode();
+        when(bytesMessage.getBodyLength()).thenReturn((long) body.length);
+        when(bytesMessage.readBytes(any(byte[].class))).thenAnswer(invocation -> {
+            byte[] target = invocation.getArgument(0);
+            System.arraycopy(body, 0, target, 0, body.length);
+            return body.length;
+        });
+
+        keyedListener.forward(bytesMessage, QUEUE);
+
+        verify(kafkaMessageService).sendBytes(eq(TOPIC), eq("TERM0001".getBytes(StandardCharsets.UTF_8)), eq(body),
+                any(Headers.class));
+    }
+
+    @Test
+    void shouldSendToRoutedTopic() throws JMSException {
+        messageRouter.reload(List.of(rule("settlement", "0500", RoutingProperties.Action.ROUTE, "settlements")));
+
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(textMessage.getObjectProperty("mti")).thenReturn("0500");
+        when(messageConverter.convert("message")).thenReturn("message");
+
+        messageListener.forward(textMessage, QUEUE);
+
+        verify(kafkaMessageService).sendMessage(eq("settlements"), isNull(), eq("message"), any(Headers.class));
+    }
+
+    @Test
+    void shouldNotForwardDroppedMessage() throws JMSException {
+        messageRouter.reload(List.of(rule("echo", "0800", RoutingProperties.Action.DROP, null)));
+
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(textMessage.getObjectProperty("mti")).thenReturn("0800");
+
+        CompletableFuture<? extends SendResult<?, ?>> result = messageListener.forward(textMessage, QUEUE);
+
+        assertThat(result).isCompletedWithValue(null);
+        verifyNoInteractions(kafkaMessageService, messageConverter);
+    }
+
+    @Test
+    void shouldRecordLatencySinceMqPutPerQueueAndTopic() throws JMSException {
+        CompletableFuture<SendResult<String, String>> sendFuture = new CompletableFuture<>();
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(textMessage.getJMSTimestamp()).thenReturn(System.currentTimeMillis() - 250);
+        when(messageConverter.convert("message")).thenReturn("message");
+        when(kafkaMessageService.sendMessage(eq(TOPIC), isNull(), eq("message"), any(Headers.class)))
+                .thenReturn(sendFuture);
+
+        messageListener.forward(textMessage, QUEUE);
+        sendFuture.complete(null);
+
+        assertThat(meterRegistry.get("mq.message.residence.time").tag("queue", QUEUE).timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(250.0);
+        assertThat(meterRegistry.get("bridge.put.to.ack.time").tag("queue", QUEUE).tag("topic", TOPIC).timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCountSpilledRecordAsAcknowledged(@TempDir Path directory) throws JMSException {
+        SpillProperties spillProperties = new SpillProperties();
+        spillProperties.setDirectory(directory.toString());
+        SpillLog spillLog = new SpillLog(spillProperties, meterRegistry);
+        spillLog.divert();
+        KafkaMessageService spillingService = new KafkaMessageService(kafkaTemplate, null, TOPIC, meterRegistry,
+                spillLog);
+        MessageListener spillingListener = new MessageListener(spillingService, messageConverter,
+                headerMapper, RecordKeyExtractors.none(), messageRouter, payloadLogger,
+                new ConsumerThreadMetrics(meterRegistry), stageTimers, putLatencyMetrics,
+                new PayloadProperties());
+        TextMessage textMessage = org.mockito.Mockito.mock(TextMessage.class);
+        when(textMessage.getText()).thenReturn("message");
+        when(textMessage.getJMSTimestamp()).thenReturn(System.currentTimeMillis());
+        when(messageConverter.convert("message")).thenReturn("message");
+
+        CompletableFuture<? extends SendResult<?, ?>> result = spillingListener.forward(textMessage, QUEUE);
+
+        assertThat(KafkaMessageService.isSpilled(result)).isTrue();
+        assertThat(spillLog.pendingRecords()).isEqualTo(1);
+        verifyNoInteractions(kafkaTemplate);
+        assertThat(stageCount("enqueue")).isEqualTo(1);
+        assertThat(stageCount("ack")).isZero();
+        assertThat(meterRegistry.find("bridge.put.to.ack.time").timer()).isNull();
+        assertThat(meterRegistry.get("bridge.route.send.time").timer().count()).isZero();
+    }
+
+    private long stageCount(String stage) {
+        return meterRegistry.get("bridge.stage.time").tag("stage", stage).timer().count();
+    }
+
+    private static RoutingProperties.Rule rule(String name, String mti, RoutingProperties.Action action,
+                                               String topic) {
+        RoutingProperties.Rule rule = new RoutingProperties.Rule();
+        rule.setName(name);
+        rule.setProperty("mti");
+        rule.setValues(List.of(mti));
+        rule.setAction(action);
+        rule.setTopic(topic);
+        return rule;
     }
 }
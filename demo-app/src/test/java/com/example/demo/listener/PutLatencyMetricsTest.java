@@ -0,0 +1,72 @@
+package com.example.demo.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PutLatencyMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PutLatencyMetrics putLatencyMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        putLatencyMetrics = new PutLatencyMetrics(meterRegistry);
+    }
+
+    @Test
+    void shouldRecordQueueResidencePerQueue() {
+        putLatencyMetrics.received("CARDS.IN", System.currentTimeMillis() - 100);
+        putLatencyMetrics.received("PAYMENTS.IN", System.currentTimeMillis() - 100);
+
+        assertThat(meterRegistry.get("mq.message.residence.time").tag("queue", "CARDS.IN").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(100.0);
+        assertThat(meterRegistry.get("mq.message.residence.time").timers()).hasSize(2);
+    }
+
+    @Test
+    void shouldRecordPutToAckPerQueueAndTopicOnceAcknowledged() {
+        CompletableFuture<String> send = new CompletableFuture<>();
+
+        assertThat(putLatencyMetrics.acknowledged(send, "CARDS.IN", "cards", System.currentTimeMillis() - 100))
+                .isSameAs(send);
+        assertThat(meterRegistry.get("bridge.put.to.ack.time").timer().count()).isZero();
+        send.complete("acknowledged");
+
+        assertThat(meterRegistry.get("bridge.put.to.ack.time").tag("queue", "CARDS.IN").tag("topic", "cards")
+                .timer().totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(100.0);
+    }
+
+    @Test
+    void shouldNotRecordFailedSends() {
+        CompletableFuture<String> send = new CompletableFuture<>();
+
+        putLatencyMetrics.acknowledged(send, "CARDS.IN", "cards", System.currentTimeMillis());
+        send.completeExceptionally(new IllegalStateException("broker down"));
+
+        assertThat(meterRegistry.get("bridge.put.to.ack.time").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldSkipMessagesWithoutPutTime() {
+        putLatencyMetrics.received("CARDS.IN", 0);
+        putLatencyMetrics.acknowledged(CompletableFuture.completedFuture("acknowledged"), "CARDS.IN", "cards", 0);
+
+        assertThat(meterRegistry.find("mq.message.residence.time").timer()).isNull();
+        assertThat(meterRegistry.find("bridge.put.to.ack.time").timer()).isNull();
+    }
+
+    @Test
+    void shouldClampPutTimesAheadOfTheLocalClockToZero() {
+        putLatencyMetrics.received("CARDS.IN", System.currentTimeMillis() + 60_000);
+
+        assertThat(meterRegistry.get("mq.message.residence.time").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isZero();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.JMSException;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.JmsException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class QueueListenerTest {
+
+    @Mock
+    private MessageListener messageListener;
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueueListener queueListener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queueListener = new QueueListener(messageListener, "CARDS.IN", meterRegistry);
+    }
+
+    @Test
+    void shouldForwardAndMeasurePerQueue() throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+
+        queueListener.onMessage(message);
+
+        verify(messageListener).receiveMessage(message, "CARDS.IN");
+        assertThat(meterRegistry.get("mq.messages.received").tag("queue", "CARDS.IN").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("message.processing.time").tag("queue", "CARDS.IN").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldTimeFailedMessages() throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+        doThrow(new JMSException("MQ unavailable")).when(messageListener).receiveMessage(message, "CARDS.IN");
+
+        assertThatThrownBy(() -> queueListener.onMessage(message)).isInstanceOf(JmsException.class);
+        assertThat(meterRegistry.get("message.processing.time").tag("queue", "CARDS.IN").timer().count())
+                .isEqualTo(1);
+    }
+}
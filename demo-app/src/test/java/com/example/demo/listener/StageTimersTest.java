@@ -0,0 +1,55 @@
+package com.example.demo.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StageTimersTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StageTimers stageTimers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stageTimers = new StageTimers(meterRegistry);
+    }
+
+    @Test
+    void shouldRegisterEveryStageUpFront() {
+        assertThat(meterRegistry.get("bridge.stage.time").timers()).hasSize(StageTimers.Stage.values().length);
+        assertThat(meterRegistry.get("bridge.stage.time").tag("stage", "enqueue").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldRecordTimeSinceStartAndReturnNow() {
+        long startNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+
+        long now = stageTimers.record(StageTimers.Stage.EXTRACT, startNanos);
+
+        assertThat(now).isGreaterThan(startNanos);
+        assertThat(timerTotalMillis("extract")).isGreaterThanOrEqualTo(5.0);
+    }
+
+    @Test
+    void shouldRecordAckOnlyForAcknowledgedSends() {
+        CompletableFuture<String> acknowledged = new CompletableFuture<>();
+        CompletableFuture<String> failed = new CompletableFuture<>();
+
+        assertThat(stageTimers.acknowledged(acknowledged, System.nanoTime())).isSameAs(acknowledged);
+        stageTimers.acknowledged(failed, System.nanoTime());
+        acknowledged.complete("acknowledged");
+        failed.completeExceptionally(new IllegalStateException("broker down"));
+
+        assertThat(meterRegistry.get("bridge.stage.time").tag("stage", "ack").timer().count()).isEqualTo(1);
+    }
+
+    private double timerTotalMillis(String stage) {
+        return meterRegistry.get("bridge.stage.time").tag("stage", stage).timer().totalTime(TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightWindowTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+
+    @Test
+    void shouldTrackOutstandingSendsUntilAcknowledged() throws Exception {
+        InFlightWindow window = new InFlightWindow(2);
+        CompletableFuture<String> send = new CompletableFuture<>();
+
+        window.acquire(TIMEOUT);
+        window.track(send);
+
+        assertThat(window.inFlight()).isEqualTo(1);
+
+        send.complete("ack");
+
+        assertThat(window.inFlight()).isZero();
+        assertThatCode(() -> window.awaitConfirmed(TIMEOUT)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldTimeOutWhenWindowIsFull() throws Exception {
+        InFlightWindow window = new InFlightWindow(1);
+        window.acquire(TIMEOUT);
+        window.track(new CompletableFuture<>());
+
+        assertThatThrownBy(() -> window.acquire(TIMEOUT)).isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void shouldTimeOutWhenSendsAreNotConfirmed() throws Exception {
+        InFlightWindow window = new InFlightWindow(4);
+        window.acquire(TIMEOUT);
+        window.track(new CompletableFuture<>());
+
+        assertThatThrownBy(() -> window.awaitConfirmed(TIMEOUT)).isInstanceOf(TimeoutException.class);
+        assertThat(window.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReportFirstFailureAtCheckpointOnlyOnce() throws Exception {
+        InFlightWindow window = new InFlightWindow(2);
+        IllegalStateException failure = new IllegalStateException("broker unavailable");
+
+        window.acquire(TIMEOUT);
+        window.track(CompletableFuture.failedFuture(failure));
+
+        assertThat(window.hasFailed()).isTrue();
+        assertThatThrownBy(() -> window.awaitConfirmed(TIMEOUT))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+        assertThat(window.hasFailed()).isFalse();
+        assertThatCode(() -> window.awaitConfirmed(TIMEOUT)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldIgnoreLateFailureOfSendAbandonedAfterTimeout() throws Exception {
+        InFlightWindow window = new InFlightWindow(1);
+        CompletableFuture<String> lateSend = new CompletableFuture<>();
+        window.acquire(TIMEOUT);
+        window.track(lateSend);
+        assertThatThrownBy(() -> window.awaitConfirmed(TIMEOUT)).isInstanceOf(TimeoutException.class);
+
+        window.abandon();
+        assertThat(window.inFlight()).isZero();
+        window.acquire(TIMEOUT);
+        CompletableFuture<String> nextSend = new CompletableFuture<>();
+        window.track(nextSend);
+        lateSend.completeExceptionally(new IllegalStateException("delivery timeout"));
+        nextSend.complete("ack");
+
+        assertThat(window.hasFailed()).isFalse();
+        assertThat(window.inFlight()).isZero();
+        assertThatCode(() -> window.awaitConfirmed(TIMEOUT)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldNotWaitForSendsOfAbandonedBatch() throws Exception {
+        InFlightWindow window = new InFlightWindow(2);
+        window.acquire(TIMEOUT);
+        window.track(new CompletableFuture<>());
+
+        window.abandon();
+
+        assertThatCode(() -> window.awaitConfirmed(TIMEOUT)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldReleaseSlotOfSendThatWasNeverIssued() throws Exception {
+        InFlightWindow window = new InFlightWindow(1);
+
+        window.acquire(TIMEOUT);
+        window.release();
+
+        assertThat(window.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThatThrownBy(() -> new InFlightWindow(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
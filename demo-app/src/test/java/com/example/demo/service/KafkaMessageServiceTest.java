@@ -1,15 +1,32 @@
 package com.example.demo.service;
 
+import com.example.demo.config.SpillProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.messaging.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class KafkaMessageServiceTest {
@@ -17,13 +34,18 @@ class KafkaMessageServiceTest {
     @Mock
     private KafkaTemplate<String, String> kafkaTemplate;
 
+    @Mock
+    private KafkaTemplate<byte[], byte[]> binaryKafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
     private KafkaMessageService kafkaMessageService;
 
     private static final String KAFKA_TOPIC = "test-topic";
 
     @BeforeEach
     void setUp() {
-        kafkaMessageService = new KafkaMessageService(kafkaTemplate, KAFKA_TOPIC);
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaMessageService = new KafkaMessageService(kafkaTemplate, KAFKA_TOPIC, meterRegistry);
     }
 
     @Test
@@ -53,5 +75,163 @@ class KafkaMessageServiceTest {
 
         verify(kafkaTemplate).send(KAFKA_TOPIC, message1);
         verify(kafkaTemplate).send(KAFKA_TOPIC, message2);
+        assertThat(meterRegistry.get("kafka.messages.sent").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldReturnKafkaSendFutureForMessageWithHeaders() {
+        CompletableFuture<SendResult<String, String>> sendFuture = new CompletableFuture<>();
+        when(kafkaTemplate.send(any(Message.class))).thenReturn(sendFuture);
+
+        CompletableFuture<SendResult<String, String>> result =
+                kafkaMessageService.sendMessage("test message", Map.of("correlationId", "run-1"));
+
+        assertThat(result).isSameAs(sendFuture);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendRecordWithKafkaHeadersDirectly() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("correlationId", "run-1".getBytes(StandardCharsets.UTF_8));
+
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+
+        kafkaMessageService.sendMessage(null, "test message", headers);
+
+        ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        ProducerRecord<String, String> sent = recordCaptor.getValue();
+        assertThat(sent.topic()).isEqualTo(KAFKA_TOPIC);
+        assertThat(sent.key()).isNull();
+        assertThat(sent.value()).isEqualTo("test message");
+        assertThat(sent.headers().lastHeader("correlationId").value())
+                .isEqualTo("run-1".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendRecordWithKey() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+
+        kafkaMessageService.sendMessage("TERM0001", "test message", new RecordHeaders());
+
+        ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        assertThat(recordCaptor.getValue().key()).isEqualTo("TERM0001");
+        assertThat(recordCaptor.getValue().partition()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCountSendsUntilAcknowledged() {
+        CompletableFuture<SendResult<String, String>> first = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, String>> second = new CompletableFuture<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(first, second);
+
+        kafkaMessageService.sendMessage(null, "message 1", new RecordHeaders());
+        kafkaMessageService.sendMessage(null, "message 2", new RecordHeaders());
+        assertThat(kafkaMessageService.inFlight()).isEqualTo(2);
+
+        first.complete(null);
+        second.completeExceptionally(new IllegalStateException("broker unavailable"));
+        assertThat(kafkaMessageService.inFlight()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldNotCountSendRejectedByProducer() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenThrow(new IllegalStateException("max.block.ms"));
+
+        assertThatThrownBy(() -> kafkaMessageService.sendMessage(null, "message", new RecordHeaders()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(kafkaMessageService.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldFlushProducer() {
+        kafkaMessageService.flush();
+
+        verify(kafkaTemplate).flush();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendBytesUnchangedWithHeaders() {
+        KafkaMessageService binaryService = new KafkaMessageService(kafkaTemplate, binaryKafkaTemplate, KAFKA_TOPIC,
+                meterRegistry);
+        byte[] payload = {0x00, 0x7F, (byte) 0x80};
+
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("correlationId", "run-1".getBytes(StandardCharsets.UTF_8));
+
+        byte[] key = "TERM0001".getBytes(StandardCharsets.UTF_8);
+
+        when(binaryKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+
+        binaryService.sendBytes(key, payload, headers);
+
+        ArgumentCaptor<ProducerRecord<byte[], byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(binaryKafkaTemplate).send(recordCaptor.capture());
+        ProducerRecord<byte[], byte[]> sent = recordCaptor.getValue();
+        assertThat(sent.topic()).isEqualTo(KAFKA_TOPIC);
+        assertThat(sent.key()).isSameAs(key);
+        assertThat(sent.value()).isSameAs(payload);
+        assertThat(sent.headers().lastHeader("correlationId").value())
+                .isEqualTo("run-1".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldRejectBytesWhenBinaryModeIsDisabled() {
+        assertThatThrownBy(() -> kafkaMessageService.sendBytes(null, new byte[0], new RecordHeaders()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldFlushAndCloseBinaryProducerInBinaryMode() {
+        KafkaMessageService binaryService = new KafkaMessageService(kafkaTemplate, binaryKafkaTemplate, KAFKA_TOPIC,
+                meterRegistry);
+
+        binaryService.flush();
+        binaryService.destroy();
+
+        verify(binaryKafkaTemplate).flush();
+        verify(binaryKafkaTemplate).destroy();
+        assertThat(binaryService.producerTemplate()).isSameAs(binaryKafkaTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSpillWhileDivertingAndReplayTheSameRecord(@TempDir Path directory) {
+        SpillProperties spillProperties = new SpillProperties();
+        spillProperties.setDirectory(directory.toString());
+        SpillLog spillLog = new SpillLog(spillProperties, meterRegistry);
+        KafkaMessageService spillingService = new KafkaMessageService(kafkaTemplate, null, KAFKA_TOPIC,
+                meterRegistry, spillLog);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("correlationId", "run-1".getBytes(StandardCharsets.UTF_8));
+        spillLog.divert();
+
+        CompletableFuture<SendResult<String, String>> spilled =
+                spillingService.sendMessage("settlements", "TERM0001", "payload", headers);
+
+        assertThat(spilled).isCompletedWithValue(null);
+        assertThat(KafkaMessageService.isSpilled(spilled)).isTrue();
+        assertThat(KafkaMessageService.isSpilled(CompletableFuture.completedFuture(null))).isFalse();
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        assertThat(spillingService.inFlight()).isZero();
+
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+        List<SpillLog.Entry> entries = spillLog.peek(10);
+        spillingService.replay(entries.getFirst());
+
+        ArgumentCaptor<ProducerRecord<String, String>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        ProducerRecord<String, String> sent = recordCaptor.getValue();
+        assertThat(sent.topic()).isEqualTo("settlements");
+        assertThat(sent.key()).isEqualTo("TERM0001");
+        assertThat(sent.value()).isEqualTo("payload");
+        assertThat(sent.headers().lastHeader("correlationId").value())
+                .isEqualTo("run-1".getBytes(StandardCharsets.UTF_8));
     }
 }
@@ -0,0 +1,263 @@
+package com.example.demo.service;
+
+import com.example.demo.config.RoutingProperties;
+import com.example.demo.converter.Iso8583Encoder;
+import com.example.demo.converter.Iso8583Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Queue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageRouterTest {
+
+    private static final String DEFAULT_TOPIC = "mq-messages";
+    private static final String QUEUE = "DEV.QUEUE.1";
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoutingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RoutingProperties();
+    }
+
+    @Test
+    void shouldRouteUnmatchedMessagesToDefaultTopic() throws JMSException {
+        properties.setRules(List.of(rule("settlement", RoutingProperties.Match.JMS_PROPERTY, "0500",
+                RoutingProperties.Action.ROUTE, "settlements")));
+        MessageRouter router = router();
+
+        MessageRouter.Route route = router.route(message("0100"), QUEUE, null);
+
+        assertThat(route.name()).isEqualTo(MessageRouter.DEFAULT_ROUTE);
+        assertThat(route.topic()).isEqualTo(DEFAULT_TOPIC);
+        assertThat(route.accept()).isTrue();
+    }
+
+    @Test
+    void shouldRouteByJmsProperty() throws JMSException {
+        properties.setRules(List.of(rule("settlement", RoutingProperties.Match.JMS_PROPERTY, "0500",
+                RoutingProperties.Action.ROUTE, "settlements")));
+
+        MessageRouter.Route route = router().route(message("0500"), QUEUE, null);
+
+        assertThat(route.name()).isEqualTo("settlement");
+        assertThat(route.topic()).isEqualTo("settlements");
+    }
+
+    @Test
+    void shouldRouteByIsoMti() throws JMSException {
+        properties.setRules(List.of(rule("reversal", RoutingProperties.Match.MTI, "0400",
+                RoutingProperties.Action.ROUTE, "reversals")));
+        MessageRouter router = router();
+        byte[] body = new Iso8583Encoder().message("0400").set(41, "TERM0001").encode();
+
+        assertThat(router.needsBody()).isTrue();
+        assertThat(router.route(message(null), QUEUE, body).topic()).isEqualTo("reversals");
+        assertThat(router.route(message(null), QUEUE, "not ISO 8583".getBytes()).topic()).isEqualTo(DEFAULT_TOPIC);
+        assertThat(router.route(message(null), QUEUE, "04".getBytes()).topic()).isEqualTo(DEFAULT_TOPIC);
+    }
+
+    @Test
+    void shouldRouteBySourceQueue() throws JMSException {
+        properties.setRules(List.of(rule("cards", RoutingProperties.Match.QUEUE, "CARDS.IN",
+                RoutingProperties.Action.ROUTE, "cards")));
+        MessageRouter router = router();
+
+        assertThat(router.route(message(null), "CARDS.IN", null).topic()).isEqualTo("cards");
+        assertThat(router.route(message(null), QUEUE, null).topic()).isEqualTo(DEFAULT_TOPIC);
+    }
+
+    @Test
+    void shouldRouteByConsumedQueueRatherThanJmsDestination() throws JMSException {
+        properties.setRules(List.of(rule("cards", RoutingProperties.Match.QUEUE, "CARDS.ALIAS",
+                RoutingProperties.Action.ROUTE, "cards")));
+        Queue target = mock(Queue.class);
+        Message message = message(null);
+        when(message.getJMSDestination()).thenReturn(target);
+        when(target.getQueueName()).thenReturn("CARDS.TARGET");
+
+        assertThat(router().route(message, "CARDS.ALIAS", null).topic()).isEqualTo("cards");
+        assertThat(router().route(message(null), "CARDS.ALIAS", null).topic()).isEqualTo("cards");
+    }
+
+    @Test
+    void shouldRouteQueueBindingsToTheirTopicAfterRules() throws JMSException {
+        properties.setRules(List.of(rule("settlement", RoutingProperties.Match.JMS_PROPERTY, "0500",
+                RoutingProperties.Action.ROUTE, "settlements")));
+        MessageRouter router = new MessageRouter(properties, Map.of("CARDS.IN", "cards"), new Iso8583Parser(),
+                meterRegistry, DEFAULT_TOPIC);
+        Message authorization = message("0100");
+        Message settlement = message("0500");
+
+        assertThat(router.route(authorization, "CARDS.IN", null).name()).isEqualTo("queue-CARDS.IN");
+        assertThat(router.route(authorization, "CARDS.IN", null).topic()).isEqualTo("cards");
+        assertThat(router.route(settlement, "CARDS.IN", null).topic()).isEqualTo("settlements");
+        assertThat(router.route(authorization, QUEUE, null).topic()).isEqualTo(DEFAULT_TOPIC);
+    }
+
+    @Test
+    void shouldPreferEarlierRuleWhenSeveralMatch() throws JMSException {
+        properties.setRules(List.of(
+                rule("echo", RoutingProperties.Match.JMS_PROPERTY, "0800", RoutingProperties.Action.DROP, null),
+                rule("cards", RoutingProperties.Match.QUEUE, "CARDS.IN", RoutingProperties.Action.ROUTE, "cards")));
+        assertThat(router().route(message("0800"), "CARDS.IN", null).name()).isEqualTo("echo");
+    }
+
+    @Test
+    void shouldDropAndSampleAndCountPerRoute() throws JMSException {
+        RoutingProperties.Rule sample = rule("network", RoutingProperties.Match.JMS_PROPERTY, "0810",
+                RoutingProperties.Action.SAMPLE, null);
+        sample.setSampleRate(0.0);
+        properties.setRules(List.of(
+                rule("echo", RoutingProperties.Match.JMS_PROPERTY, "0800", RoutingProperties.Action.DROP, null),
+                sample));
+        MessageRouter router = router();
+
+        assertThat(router.route(message("0800"), QUEUE, null).accept()).isFalse();
+        MessageRouter.Route sampled = router.route(message("0810"), QUEUE, null);
+        assertThat(sampled.accept()).isFalse();
+        assertThat(sampled.topic()).isEqualTo(DEFAULT_TOPIC);
+
+        assertThat(meterRegistry.get("bridge.route.messages").tag("route", "echo").tag("outcome", "dropped")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("bridge.route.messages").tag("route", "network").tag("outcome", "dropped")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldTimeSendsPerRoute() throws JMSException {
+        MessageRouter.Route route = router().route(message(null), QUEUE, null);
+        CompletableFuture<String> send = new CompletableFuture<>();
+
+        assertThat(route.timed(send, System.nanoTime())).isSameAs(send);
+        send.complete("acknowledged");
+
+        assertThat(meterRegistry.get("bridge.route.send.time").tag("route", MessageRouter.DEFAULT_ROUTE)
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotTimeFailedSends() throws JMSException {
+        MessageRouter.Route route = router().route(message(null), QUEUE, null);
+        CompletableFuture<String> send = new CompletableFuture<>();
+
+        route.timed(send, System.nanoTime());
+        send.completeExceptionally(new IllegalStateException("Kafka unavailable"));
+
+        assertThat(meterRegistry.get("bridge.route.send.time").tag("route", MessageRouter.DEFAULT_ROUTE)
+                .timer().count()).isZero();
+    }
+
+    @Test
+    void shouldSwapRulesOnReload() throws JMSException {
+        MessageRouter router = router();
+
+        router.reload(List.of(rule("settlement", RoutingProperties.Match.JMS_PROPERTY, "0500",
+                RoutingProperties.Action.ROUTE, "settlements")));
+
+        assertThat(router.route(message("0500"), QUEUE, null).topic()).isEqualTo("settlements");
+    }
+
+    @Test
+    void shouldKeepRulesWhenReloadIsInvalid() throws JMSException {
+        properties.setRules(List.of(rule("settlement", RoutingProperties.Match.JMS_PROPERTY, "0500",
+                RoutingProperties.Action.ROUTE, "settlements")));
+        MessageRouter router = router();
+
+        assertThatThrownBy(() -> router.reload(List.of(rule("broken", RoutingProperties.Match.JMS_PROPERTY, "0100",
+                RoutingProperties.Action.ROUTE, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(router.route(message("0500"), QUEUE, null).topic()).isEqualTo("settlements");
+    }
+
+    @Test
+    void shouldRejectDuplicateRuleNames() {
+        properties.setRules(List.of(
+                rule("same", RoutingProperties.Match.JMS_PROPERTY, "0100", RoutingProperties.Action.DROP, null),
+                rule("same", RoutingProperties.Match.JMS_PROPERTY, "0200", RoutingProperties.Action.DROP, null)));
+
+        assertThatThrownBy(this::router).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldReloadRulesFileWhenModified(@TempDir Path directory) throws IOException, JMSException {
+        Path rulesFile = directory.resolve("routing.yaml");
+        Files.writeString(rulesFile, rulesYaml("settlements"));
+        properties.setRulesFile(rulesFile.toString());
+        MessageRouter router = router();
+        assertThat(router.route(message("0500"), QUEUE, null).topic()).isEqualTo("settlements");
+
+        Files.writeString(rulesFile, rulesYaml("settlements-v2"));
+        Files.setLastModifiedTime(rulesFile, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+        router.reloadIfChanged();
+
+        assertThat(router.route(message("0500"), QUEUE, null).topic()).isEqualTo("settlements-v2");
+    }
+
+    @Test
+    void shouldKeepRulesWhenRulesFileIsInvalid(@TempDir Path directory) throws IOException, JMSException {
+        Path rulesFile = directory.resolve("routing.yaml");
+        Files.writeString(rulesFile, rulesYaml("settlements"));
+        properties.setRulesFile(rulesFile.toString());
+        MessageRouter router = router();
+
+        Files.writeString(rulesFile, rulesYaml("settlements").replace("jms-property", "no-such-match"));
+        Files.setLastModifiedTime(rulesFile, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+        router.reloadIfChanged();
+
+        assertThat(router.route(message("0500"), QUEUE, null).topic()).isEqualTo("settlements");
+    }
+
+    private MessageRouter router() {
+        return new MessageRouter(properties, new Iso8583Parser(), meterRegistry, DEFAULT_TOPIC);
+    }
+
+    private static Message message(String mti) throws JMSException {
+        Message message = mock(Message.class);
+        when(message.getObjectProperty("mti")).thenReturn(mti);
+        return message;
+    }
+
+    private static RoutingProperties.Rule rule(String name, RoutingProperties.Match match, String value,
+                                               RoutingProperties.Action action, String topic) {
+        RoutingProperties.Rule rule = new RoutingProperties.Rule();
+        rule.setName(name);
+        rule.setMatch(match);
+        rule.setProperty("mti");
+        rule.setValues(List.of(value));
+        rule.setAction(action);
+        rule.setTopic(topic);
+        return rule;
+    }
+
+    private static String rulesYaml(String topic) {
+        return """
+                bridge:
+                  routing:
+                    rules:
+                      - name: settlement
+                        match: jms-property
+                        property: mti
+                        values: ["0500"]
+                        topic: %s
+                """.formatted(topic);
+    }
+}
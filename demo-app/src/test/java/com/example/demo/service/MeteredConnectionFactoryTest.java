@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MeteredConnectionFactoryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionFactory targetConnectionFactory;
+    private Connection targetConnection;
+    private MeteredConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() throws JMSException {
+        meterRegistry = new SimpleMeterRegistry();
+        targetConnectionFactory = mock(ConnectionFactory.class);
+        targetConnection = mock(Connection.class);
+        when(targetConnectionFactory.createConnection()).thenReturn(targetConnection);
+        when(targetConnection.createSession(anyBoolean(), anyInt()))
+                .thenAnswer(invocation -> mock(Session.class));
+        connectionFactory = new MeteredConnectionFactory(targetConnectionFactory, meterRegistry);
+        connectionFactory.setSessionCacheSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void shouldShareOneConnectionAndCountItsCreation() throws JMSException {
+        connectionFactory.createConnection().close();
+        connectionFactory.createConnection().close();
+
+        verify(targetConnectionFactory, times(1)).createConnection();
+        assertThat(meterRegistry.get("jms.pool.connection.create.time").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReuseReleasedSessions() throws JMSException {
+        Connection connection = connectionFactory.createConnection();
+
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE).close();
+        connection.createSession(false, Session.AUTO_ACKNOWLEDGE).close();
+
+        verify(targetConnection, times(1)).createSession(false, Session.AUTO_ACKNOWLEDGE);
+        assertThat(meterRegistry.get("jms.pool.session.create.time").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jms.pool.session.acquire.time").timer().count()).isEqualTo(2);
+        assertThat(gauge("jms.pool.sessions.idle")).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldTrackSessionsInUse() throws JMSException {
+        Connection connection = connectionFactory.createConnection();
+
+        Session first = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        Session second = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        assertThat(gauge("jms.pool.sessions.active")).isEqualTo(2.0);
+        assertThat(gauge("jms.pool.sessions.utilization")).isEqualTo(1.0);
+
+        first.close();
+        first.close();
+        assertThat(gauge("jms.pool.sessions.active")).isEqualTo(1.0);
+        second.close();
+        assertThat(gauge("jms.pool.sessions.active")).isZero();
+    }
+
+    @Test
+    void shouldKeepCachedSessionsOpenOnLogicalClose() throws JMSException {
+        Session target = mock(Session.class);
+        when(targetConnection.createSession(false, Session.AUTO_ACKNOWLEDGE)).thenReturn(target);
+
+        connectionFactory.createConnection().createSession(false, Session.AUTO_ACKNOWLEDGE).close();
+
+        verify(target, never()).close();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaAdminOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionSkewMonitorTest {
+
+    private static final String TOPIC = "mq-messages";
+
+    @Mock
+    private KafkaAdminOperations kafkaAdmin;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PartitionSkewMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new PartitionSkewMonitor(meterRegistry, kafkaAdmin);
+    }
+
+    @Test
+    void shouldReportEvenSpreadAsOne() {
+        when(kafkaAdmin.describeTopics(TOPIC)).thenReturn(Map.of(TOPIC, topicWithPartitions(4)));
+        for (int partition = 0; partition < 4; partition++) {
+            acknowledge(partition, 25);
+        }
+        monitor.refreshPartitionCounts();
+
+        assertThat(awaitSkew()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldCountPartitionsThatReceivedNothing() {
+        when(kafkaAdmin.describeTopics(TOPIC)).thenReturn(Map.of(TOPIC, topicWithPartitions(6)));
+        acknowledge(0, 100);
+        monitor.refreshPartitionCounts();
+
+        assertThat(awaitSkew()).isEqualTo(6.0);
+    }
+
+    @Test
+    void shouldFallBackToSeenPartitionsWhenTopicCannotBeDescribed() {
+        when(kafkaAdmin.describeTopics(TOPIC)).thenThrow(new IllegalStateException("broker unavailable"));
+        acknowledge(0, 30);
+        acknowledge(1, 10);
+        monitor.refreshPartitionCounts();
+
+        assertThat(awaitSkew()).isEqualTo(1.5);
+    }
+
+    @Test
+    void shouldNotDescribeTopicFromGauge() {
+        acknowledge(0, 30);
+        acknowledge(1, 10);
+
+        assertThat(awaitSkew()).isEqualTo(1.5);
+        verifyNoInteractions(kafkaAdmin);
+    }
+
+    @Test
+    void shouldNotLoseCountsWhileGrowing() throws InterruptedException {
+        Thread[] senders = new Thread[4];
+        for (int i = 0; i < senders.length; i++) {
+            int firstPartition = i * 40;
+            senders[i] = Thread.ofPlatform().start(() -> {
+                for (int partition = firstPartition; partition < firstPartition + 40; partition++) {
+                    acknowledge(partition, 100);
+                }
+            });
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        assertThat(awaitSkew()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRegisterGaugePerTopic() {
+        acknowledge(0, 1);
+        monitor.onSuccess(null, new RecordMetadata(new TopicPartition("other-topic", 0), 0, 0, 0, 0, 0));
+
+        assertThat(meterRegistry.get("kafka.producer.partition.skew").gauges()).hasSize(2);
+        assertThat(meterRegistry.get("kafka.producer.partition.skew").tag("topic", TOPIC).gauge()).isNotNull();
+    }
+
+    @Test
+    void shouldReportNaNForUnknownTopic() {
+        assertThat(monitor.skew("unknown")).isNaN();
+    }
+
+    private void acknowledge(int partition, int records) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(TOPIC, partition), 0, 0, 0, 0, 0);
+        for (int i = 0; i < records; i++) {
+            monitor.onSuccess(null, metadata);
+        }
+    }
+
+    private double awaitSkew() {
+        await().until(() -> !Double.isNaN(monitor.skew(TOPIC)));
+        return monitor.skew(TOPIC);
+    }
+
+    private static TopicDescription topicWithPartitions(int partitions) {
+        Node leader = new Node(0, "localhost", 9092);
+        List<TopicPartitionInfo> partitionInfos = IntStream.range(0, partitions)
+                .mapToObj(partition -> new TopicPartitionInfo(partition, leader, List.of(leader), List.of(leader)))
+                .toList();
+        return new TopicDescription(TOPIC, false, partitionInfos);
+    }
+}
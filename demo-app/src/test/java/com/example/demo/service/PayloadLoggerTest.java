@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PayloadLogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PayloadLoggerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PayloadLogProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new PayloadLogProperties();
+    }
+
+    @Test
+    void shouldSampleEveryNthMessage() throws JMSException {
+        properties.setSampleEvery(3);
+        PayloadLogger payloadLogger = new PayloadLogger(properties, meterRegistry);
+
+        for (int i = 0; i < 7; i++) {
+            payloadLogger.forwarded(message("ID:" + i), "mq-messages", "payload");
+        }
+
+        assertThat(counter("bridge.payload.log.sampled")).isEqualTo(3.0);
+        assertThat(queueSize()).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldNotTouchMessagesWhenDisabled() throws JMSException {
+        properties.setSampleEvery(0);
+        PayloadLogger payloadLogger = new PayloadLogger(properties, meterRegistry);
+        Message message = message("ID:1");
+
+        payloadLogger.forwarded(message, "mq-messages", "payload");
+
+        verify(message, never()).getJMSCorrelationID();
+        assertThat(counter("bridge.payload.log.sampled")).isZero();
+    }
+
+    @Test
+    void shouldDropAndCountWhenQueueIsFull() throws JMSException {
+        properties.setSampleEvery(1);
+        properties.setQueueCapacity(2);
+        PayloadLogger payloadLogger = new PayloadLogger(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            payloadLogger.forwarded(message("ID:" + i), "mq-messages", new byte[]{1, 2, 3});
+        }
+
+        assertThat(counter("bridge.payload.log.sampled")).isEqualTo(2.0);
+        assertThat(counter("bridge.payload.log.dropped")).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldDrainQueueInBackground() throws JMSException {
+        properties.setSampleEvery(1);
+        PayloadLogger payloadLogger = new PayloadLogger(properties, meterRegistry);
+        payloadLogger.start();
+        try {
+            payloadLogger.forwarded(message("ID:1"), "mq-messages", "payload");
+
+            await().atMost(5, TimeUnit.SECONDS).until(() -> queueSize() == 0.0);
+        } finally {
+            payloadLogger.stop();
+        }
+        assertThat(payloadLogger.isRunning()).isFalse();
+    }
+
+    @Test
+    void shouldTruncateTextPreviewAndReplaceControlCharacters() {
+        properties.setPreviewLength(8);
+        PayloadLogger payloadLogger = new PayloadLogger(properties, meterRegistry);
+
+        assertThat(payloadLogger.preview(new PayloadLogger.Entry("ID:1", "t", "line1\nline2", null)))
+                .isEqualTo("line1 li...");
+        assertThat(payloadLogger.preview(new PayloadLogger.Entry("ID:1", "t", "short", null)))
+                .isEqualTo("short");
+    }
+
+    @Test
+    void shouldPreviewBinaryPayloadAsHex() {
+        properties.setPreviewLength(2);
+        PayloadLogger payloadLogger = new PayloadLogger(properties, meterRegistry);
+
+        assertThat(payloadLogger.preview(new PayloadLogger.Entry("ID:1", "t", null, new byte[]{0x01, (byte) 0xAB})))
+                .isEqualTo("01ab");
+        assertThat(payloadLogger.preview(new PayloadLogger.Entry("ID:1", "t", null, new byte[]{0x01, 0x02, 0x03})))
+                .isEqualTo("0102...");
+    }
+
+    @Test
+    void shouldFallBackToMessageIdAsCorrelationId() throws JMSException {
+        properties.setSampleEvery(1);
+        PayloadLogger payloadLogger = new PayloadLogger(properties, meterRegistry);
+        Message message = mock(Message.class);
+        when(message.getJMSMessageID()).thenReturn("ID:mq-assigned");
+
+        payloadLogger.forwarded(message, "mq-messages", "payload");
+
+        verify(message).getJMSMessageID();
+        assertThat(PayloadLogger.correlationId(message)).isEqualTo("ID:mq-assigned");
+    }
+
+    @Test
+    void shouldPreferCorrelationIdProperty() throws JMSException {
+        Message message = message("ID:jms-correlation");
+        when(message.getObjectProperty("correlationId")).thenReturn("run-1-42");
+
+        assertThat(PayloadLogger.correlationId(message)).isEqualTo("run-1-42");
+        verify(message, never()).getJMSCorrelationID();
+    }
+
+    @Test
+    void shouldFallBackToJmsCorrelationId() throws JMSException {
+        assertThat(PayloadLogger.correlationId(message("ID:jms-correlation"))).isEqualTo("ID:jms-correlation");
+    }
+
+    @Test
+    void shouldRejectNegativeSampleRate() {
+        properties.setSampleEvery(-1);
+
+        assertThatThrownBy(() -> new PayloadLogger(properties, meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private double queueSize() {
+        return meterRegistry.get("bridge.payload.log.queue.size").gauge().value();
+    }
+
+    private static Message message(String correlationId) throws JMSException {
+        Message message = mock(Message.class);
+        when(message.getJMSCorrelationID()).thenReturn(correlationId);
+        return message;
+    }
+}
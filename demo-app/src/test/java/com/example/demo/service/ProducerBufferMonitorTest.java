@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProducerBufferMonitorTest {
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Test
+    void shouldDeriveUtilizationFromBufferMetrics() {
+        Map<MetricName, Metric> metrics = new HashMap<>();
+        putMetric(metrics, "buffer-total-bytes", 1000.0);
+        putMetric(metrics, "buffer-available-bytes", 250.0);
+        doReturn(metrics).when(kafkaTemplate).metrics();
+
+        assertThat(new ProducerBufferMonitor(kafkaTemplate).bufferUtilization()).isEqualTo(0.75);
+    }
+
+    @Test
+    void shouldReportZeroWhenProducerHasNoMetricsYet() {
+        doReturn(Map.of()).when(kafkaTemplate).metrics();
+
+        assertThat(new ProducerBufferMonitor(kafkaTemplate).bufferUtilization()).isZero();
+    }
+
+    @Test
+    void shouldPublishBatchingMetrics() {
+        Map<MetricName, Metric> metrics = new HashMap<>();
+        putMetric(metrics, "record-queue-time-avg", 12.5);
+        putMetric(metrics, "batch-size-avg", 65536.0);
+        putMetric(metrics, "compression-rate-avg", 0.25);
+        doReturn(metrics).when(kafkaTemplate).metrics();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new ProducerBufferMonitor(kafkaTemplate).bindTo(meterRegistry);
+
+        assertThat(meterRegistry.get("kafka.producer.batch.record.queue.time").timeGauge()
+                .value(TimeUnit.MILLISECONDS)).isEqualTo(12.5);
+        assertThat(meterRegistry.get("kafka.producer.batch.size").gauge().value()).isEqualTo(65536.0);
+        assertThat(meterRegistry.get("kafka.producer.batch.compression.rate").gauge().value()).isEqualTo(0.25);
+    }
+
+    private static void putMetric(Map<MetricName, Metric> metrics, String name, double value) {
+        Metric metric = mock(Metric.class);
+        when(metric.metricValue()).thenReturn(value);
+        metrics.put(new MetricName(name, "producer-metrics", "", Map.of()), metric);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.example.demo.config.SpillProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SpillDrainerTest {
+
+    @Mock
+    private KafkaMessageService kafkaMessageService;
+
+    @TempDir
+    private Path directory;
+
+    private SpillProperties properties;
+    private SpillLog spillLog;
+    private SpillDrainer drainer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SpillProperties();
+        properties.setDirectory(directory.toString());
+        properties.setRetryBackoff(Duration.ZERO);
+        spillLog = new SpillLog(properties, new SimpleMeterRegistry());
+        spillLog.divert();
+        spillLog.offer(false, "topic", null, "first".getBytes(StandardCharsets.UTF_8), new RecordHeaders());
+        spillLog.offer(false, "topic", null, "second".getBytes(StandardCharsets.UTF_8), new RecordHeaders());
+        drainer = new SpillDrainer(spillLog, kafkaMessageService, properties);
+    }
+
+    @Test
+    void shouldReplayInOrderAndSendDirectlyOnceDrained() throws InterruptedException {
+        doReturn(CompletableFuture.completedFuture(null)).when(kafkaMessageService).replay(any());
+
+        assertThat(drainer.drainBatch()).isTrue();
+
+        ArgumentCaptor<SpillLog.Entry> entries = ArgumentCaptor.forClass(SpillLog.Entry.class);
+        verify(kafkaMessageService, times(2)).replay(entries.capture());
+        assertThat(entries.getAllValues()).extracting(entry -> new String(entry.value(), StandardCharsets.UTF_8))
+                .containsExactly("first", "second");
+        verify(kafkaMessageService).flush();
+        assertThat(spillLog.pendingRecords()).isZero();
+        assertThat(spillLog.isDiverting()).isTrue();
+
+        assertThat(drainer.drainBatch()).isFalse();
+        assertThat(spillLog.isDiverting()).isFalse();
+    }
+
+    @Test
+    void shouldKeepBatchThatKafkaDidNotAcknowledge() throws InterruptedException {
+        doReturn(CompletableFuture.completedFuture(null),
+                CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")))
+                .when(kafkaMessageService).replay(any());
+
+        assertThat(drainer.drainBatch()).isTrue();
+
+        assertThat(spillLog.pendingRecords()).isEqualTo(2);
+        assertThat(spillLog.isDiverting()).isTrue();
+    }
+
+    @Test
+    void shouldRejectEmptyReplayBatches() {
+        properties.setReplayBatchSize(0);
+
+        assertThatThrownBy(() -> new SpillDrainer(spillLog, kafkaMessageService, properties))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
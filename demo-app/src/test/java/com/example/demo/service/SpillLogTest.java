@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.config.SpillProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpillLogTest {
+
+    @TempDir
+    private Path directory;
+
+    private SpillProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SpillProperties();
+        properties.setDirectory(directory.toString());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldNotSpillUnlessDiverting() {
+        SpillLog spillLog = new SpillLog(properties, meterRegistry);
+
+        assertThat(spillLog.offer(false, "topic", null, bytes("payload"), new RecordHeaders())).isFalse();
+        assertThat(spillLog.peek(10)).isEmpty();
+    }
+
+    @Test
+    void shouldReplayInAppendOrderAndStopDivertingOnceDrained() {
+        SpillLog spillLog = new SpillLog(properties, meterRegistry);
+        spillLog.divert();
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("correlationId", bytes("run-1"));
+        headers.add("empty", null);
+
+        spillLog.offer(false, "cards", bytes("TERM0001"), bytes("first"), headers);
+        spillLog.offer(true, "settlements", null, bytes("second"), new RecordHeaders());
+        spillLog.offer(false, "cards", null, null, new RecordHeaders());
+
+        List<SpillLog.Entry> batch = spillLog.peek(2);
+        assertThat(batch).extracting(SpillLog.Entry::topic).containsExactly("cards", "settlements");
+        SpillLog.Entry first = batch.getFirst();
+        assertThat(first.binary()).isFalse();
+        assertThat(first.key()).isEqualTo(bytes("TERM0001"));
+        assertThat(first.value()).isEqualTo(bytes("first"));
+        assertThat(first.headers().lastHeader("correlationId").value()).isEqualTo(bytes("run-1"));
+        assertThat(first.headers().lastHeader("empty").value()).isNull();
+        assertThat(batch.get(1).binary()).isTrue();
+        assertThat(batch.get(1).key()).isNull();
+        assertThat(spillLog.peek(2)).hasSize(2);
+
+        spillLog.commit(batch);
+        assertThat(spillLog.finishIfDrained()).isFalse();
+        List<SpillLog.Entry> rest = spillLog.peek(2);
+        assertThat(rest).hasSize(1);
+        assertThat(rest.getFirst().value()).isNull();
+        spillLog.commit(rest);
+
+        assertThat(spillLog.finishIfDrained()).isTrue();
+        assertThat(spillLog.isDiverting()).isFalse();
+        assertThat(meterRegistry.get("bridge.spill.appended").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("bridge.spill.replayed").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("bridge.spill.messages").gauge().value()).isZero();
+        assertThat(meterRegistry.get("bridge.spill.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldRecoverUnreplayedRecordsAfterRestart() {
+        SpillLog spillLog = new SpillLog(properties, meterRegistry);
+        spillLog.divert();
+        spillLog.offer(false, "topic", null, bytes("first"), new RecordHeaders());
+        spillLog.offer(false, "topic", null, bytes("second"), new RecordHeaders());
+        spillLog.offer(false, "topic", null, bytes("third"), new RecordHeaders());
+        spillLog.commit(spillLog.peek(1));
+
+        SpillLog recovered = new SpillLog(properties, new SimpleMeterRegistry());
+
+        assertThat(recovered.isDiverting()).isTrue();
+        assertThat(recovered.pendingRecords()).isEqualTo(2);
+        assertThat(recovered.peek(10)).extracting(entry -> new String(entry.value(), StandardCharsets.UTF_8))
+                .containsExactly("second", "third");
+    }
+
+    @Test
+    void shouldIgnoreTornRecordOnRecovery() throws IOException {
+        SpillLog spillLog = new SpillLog(properties, meterRegistry);
+        spillLog.divert();
+        spillLog.offer(false, "topic", null, bytes("first"), new RecordHeaders());
+        spillLog.offer(false, "topic", null, bytes("second"), new RecordHeaders());
+        int firstSize = spillLog.peek(1).getFirst().size();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 8 + firstSize + 8 + 2);
+        }
+
+        SpillLog recovered = new SpillLog(properties, new SimpleMeterRegistry());
+
+        assertThat(recovered.pendingRecords()).isEqualTo(1);
+        assertThat(recovered.peek(10)).extracting(entry -> new String(entry.value(), StandardCharsets.UTF_8))
+                .containsExactly("first");
+    }
+
+    @Test
+    void shouldRollSegmentsAndReportFullUntilOneIsReplayed() {
+        properties.setSegmentSize(DataSize.ofKilobytes(1));
+        properties.setMaxSegments(2);
+        SpillLog spillLog = new SpillLog(properties, meterRegistry);
+        spillLog.divert();
+        byte[] payload = new byte[400];
+
+        for (int i = 0; i < 4; i++) {
+            spillLog.offer(true, "topic", null, payload, new RecordHeaders());
+        }
+        assertThat(meterRegistry.get("bridge.spill.segments").gauge().value()).isEqualTo(2.0);
+        assertThatThrownBy(() -> spillLog.offer(true, "topic", null, payload, new RecordHeaders()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(spillLog.isFull()).isTrue();
+
+        List<SpillLog.Entry> firstSegment = spillLog.peek(10);
+        assertThat(firstSegment).hasSize(2);
+        spillLog.commit(firstSegment);
+
+        assertThat(spillLog.isFull()).isFalse();
+        assertThat(meterRegistry.get("bridge.spill.segments").gauge().value()).isEqualTo(1.0);
+        assertThat(spillLog.offer(true, "topic", null, payload, new RecordHeaders())).isTrue();
+        assertThat(spillLog.pendingRecords()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectRecordLargerThanSegment() {
+        properties.setSegmentSize(DataSize.ofKilobytes(1));
+        SpillLog spillLog = new SpillLog(properties, meterRegistry);
+        spillLog.divert();
+
+        assertThatThrownBy(() -> spillLog.offer(true, "topic", null, new byte[2048], new RecordHeaders()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(spillLog.isFull()).isFalse();
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.perftest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size store of messages sent to MQ but not yet seen on Kafka, keyed by message sequence number.
+ * Each entry is a single {@code long} in a ring indexed by {@code sequence % capacity}, packing the sequence
+ * number (upper 32 bits) with the send time relative to the store's creation (lower 32 bits), so memory stays
+ * at 8 bytes per slot however long the run is. Entries are removed when the Kafka consumer matches them; entries
+ * that are not matched within {@code performance-test.correlation-timeout}, or that are overwritten because the
+ * ring wrapped around, are counted as lost.
+ */
+@Slf4j
+@Component
+public class CorrelationStore {
+
+    private static final long EMPTY = 0;
+    private static final long NOT_FOUND = -1;
+
+    private final PerformanceMetricsService metricsService;
+    private final PerformanceTestConfig config;
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long baseMillis = System.currentTimeMillis();
+
+    public CorrelationStore(PerformanceMetricsService metricsService, PerformanceTestConfig config) {
+        int capacity = config.getCorrelationCapacity();
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Correlation capacity must be a power of two: " + capacity);
+        }
+        this.metricsService = metricsService;
+        this.config = config;
+        this.slots = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Remembers a sent message; an unmatched entry in the same slot is counted as lost.
+     */
+    public void register(int sequence, long sendTimestampMillis) {
+        long previous = slots.getAndSet(sequence & mask, pack(sequence, sendTimestampMillis));
+        if (previous != EMPTY) {
+            metricsService.recordMessageLost(1);
+        }
+    }
+
+    /**
+     * Removes the entry of a message received from Kafka.
+     *
+     * @return the send timestamp of the message, or -1 if it is unknown, already matched or already counted as lost
+     */
+    public long complete(long sequence) {
+        if (sequence < 0) {
+            return NOT_FOUND;
+        }
+        int slot = (int) (sequence & mask);
+        long entry = slots.get(slot);
+        if (entry == EMPTY || (entry >>> 32) != sequence || !slots.compareAndSet(slot, entry, EMPTY)) {
+            return NOT_FOUND;
+        }
+        return sendTimestamp(entry);
+    }
+
+    /**
+     * Counts entries older than the correlation timeout as lost and frees their slots.
+     */
+    @Scheduled(fixedDelayString = "${performance-test.correlation-sweep-interval:5s}")
+    public void expireStaleEntries() {
+        int expired = expireSentBefore(System.currentTimeMillis() - config.getCorrelationTimeout().toMillis());
+        if (expired > 0) {
+            log.warn("{} messages not received from Kafka within {}, counted as lost",
+                    expired, config.getCorrelationTimeout());
+        }
+    }
+
+    /**
+     * Counts every outstanding entry as lost; used when the run ends.
+     *
+     * @return number of entries expired
+     */
+    public int expireAll() {
+        return expireSentBefore(Long.MAX_VALUE);
+    }
+
+    /**
+     * Number of messages sent but not yet matched or expired.
+     */
+    public int outstanding() {
+        int outstanding = 0;
+        for (int slot = 0; slot < slots.length(); slot++) {
+            if (slots.get(slot) != EMPTY) {
+                outstanding++;
+            }
+        }
+        return outstanding;
+    }
+
+    /**
+     * Parses the sequence number from the trailing digits of a correlation ID ({@code <testRunId>-<sequence>})
+     * without creating a {@code String}.
+     *
+     * @return the sequence number, or -1 if the ID does not end in digits
+     */
+    public static long sequenceOf(byte[] correlationId) {
+        long sequence = 0;
+        long multiplier = 1;
+        int index = correlationId.length - 1;
+        while (index >= 0 && correlationId[index] >= '0' && correlationId[index] <= '9') {
+            sequence += (correlationId[index] - '0') * multiplier;
+            multiplier *= 10;
+            index--;
+        }
+        return index < correlationId.length - 1 && index >= 0 && correlationId[index] == '-' ? sequence : -1;
+    }
+
+    private int expireSentBefore(long cutoffMillis) {
+        int expired = 0;
+        for (int slot = 0; slot < slots.length(); slot++) {
+            long entry = slots.get(slot);
+            if (entry != EMPTY && sendTimestamp(entry) < cutoffMillis && slots.compareAndSet(slot, entry, EMPTY)) {
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            metricsService.recordMessageLost(expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Packs the sequence with the send time as milliseconds since the store was created, plus one so that
+     * no live entry is {@link #EMPTY}.
+     */
+    private long pack(int sequence, long sendTimestampMillis) {
+        long offset = Math.clamp(sendTimestampMillis - baseMillis + 1, 1, 0xFFFF_FFFFL);
+        return ((long) sequence << 32) | offset;
+    }
+
+    private long sendTimestamp(long entry) {
+        return baseMillis + (entry & 0xFFFF_FFFFL) - 1;
+    }
+}
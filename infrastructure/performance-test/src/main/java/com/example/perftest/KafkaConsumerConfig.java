@@ -0,0 +1,52 @@
+package com.example.perftest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.springframework.boot.kafka.autoconfigure.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+
+/**
+ * Kafka consumer setup of the latency collector.
+ * Replaces Boot's default listener container factory with a batch factory that runs one consumer per
+ * partition of the topic, unless {@code performance-test.kafka-consumer-concurrency} sets the count, and
+ * positions new partitions at their end through {@link KafkaConsumerService}.
+ */
+@Slf4j
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KafkaAdmin kafkaAdmin,
+            KafkaConsumerService consumerService,
+            PerformanceTestConfig config) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(consumerConcurrency(kafkaAdmin, config));
+        factory.getContainerProperties().setConsumerRebalanceListener(consumerService);
+        return factory;
+    }
+
+    private static int consumerConcurrency(KafkaAdmin kafkaAdmin, PerformanceTestConfig config) {
+        if (config.getKafkaConsumerConcurrency() > 0) {
+            return config.getKafkaConsumerConcurrency();
+        }
+        try {
+            TopicDescription topic = kafkaAdmin.describeTopics(config.getKafkaTopic()).get(config.getKafkaTopic());
+            int partitions = topic.partitions().size();
+            log.info("Consuming {} with {} consumers, one per partition", config.getKafkaTopic(), partitions);
+            return partitions;
+        } catch (RuntimeException e) {
+            log.warn("Cannot describe topic {}, consuming with a single consumer", config.getKafkaTopic(), e);
+            return 1;
+        }
+    }
+}
@@ -1,89 +1,195 @@
 package com.example.perftest;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Service for consuming messages from Kafka topic "mq-messages".
- * Correlates received messages with sent timestamps to calculate end-to-end latency.
+ * Correlates received messages with sent timestamps to calculate end-to-end latency and releases
+ * their entries in the {@link CorrelationStore}. Only messages still outstanding in the store are recorded;
+ * duplicates, messages already counted as lost and IDs the store does not know are counted separately.
+ * Records arrive in batches from one consumer per partition, and headers are read straight from their bytes
+ * without decoding them into strings, so the measuring side keeps up with the bridge and does not add to the
+ * latency it measures.
+ * Each partition is positioned at its end the first time it is assigned, so the run only reads messages sent
+ * after the collector has started.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class KafkaConsumerService {
+public class KafkaConsumerService implements ConsumerAwareRebalanceListener {
+
+    public static final String LISTENER_ID = "latencyCollector";
+
+    private static final long MISSING = -1;
 
     private final PerformanceMetricsService metricsService;
-    private final MqPerformanceService mqService;
-    private final PerformanceTestConfig config;
+    private final CorrelationStore correlationStore;
+    private final Scenario scenario;
+    private final byte[] testRunId;
+    private final Set<TopicPartition> positionedPartitions = ConcurrentHashMap.newKeySet();
+
+    public KafkaConsumerService(PerformanceMetricsService metricsService,
+                                CorrelationStore correlationStore,
+                                Scenario scenario,
+                                PerformanceTestConfig config) {
+        this.metricsService = metricsService;
+        this.correlationStore = correlationStore;
+        this.scenario = scenario;
+        this.testRunId = config.getTestRunId().getBytes(StandardCharsets.UTF_8);
+    }
 
     /**
      * Listens to messages from the mq-messages Kafka topic.
-     * Extracts correlation ID and timestamp from headers to calculate end-to-end latency.
+     * Extracts correlation ID and timestamps from headers to calculate end-to-end latency.
      */
     @KafkaListener(
+            id = LISTENER_ID,
             topics = "${performance-test.kafka-topic}",
             groupId = "#{performanceTestConfig.testRunId}",
             autoStartup = "false",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void consumeMessage(ConsumerRecord<String, String> record) {
-        long receivedTimestamp = System.currentTimeMillis();
-
-        try {
-            // Extract headers from Kafka message (these come from demo-app forwarding)
-            String correlationId = extractHeader(record, "correlationId");
-            String sendTimestampStr = extractHeader(record, "sendTimestamp");
-            String testRunId = extractHeader(record, "testRunId");
-
-            // Validate this message belongs to our test run
-            if (testRunId != null && !config.getTestRunId().equals(testRunId)) {
-                log.debug("Ignoring message from different test run: {}", testRunId);
-                return;
+    public void consumeBatch(List<ConsumerRecord<byte[], byte[]>> records) {
+        long receivedMicros = LatencyRecorder.epochMicros();
+        for (ConsumerRecord<byte[], byte[]> record : records) {
+            try {
+                consumeMessage(record.headers(), receivedMicros);
+            } catch (RuntimeException e) {
+                log.error("Error processing Kafka message at offset {}", record.offset(), e);
             }
+        }
+    }
+
+    /**
+     * Moves partitions assigned for the first time to their end and resolves the position right away, so that
+     * messages sent once {@link #isPositioned} returns true are not skipped by a lazy seek.
+     */
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        List<TopicPartition> unpositioned = partitions.stream()
+                .filter(partition -> !positionedPartitions.contains(partition))
+                .toList();
+        if (unpositioned.isEmpty()) {
+            return;
+        }
+        consumer.seekToEnd(unpositioned);
+        for (TopicPartition partition : unpositioned) {
+            log.debug("Positioned {} at offset {}", partition, consumer.position(partition));
+        }
+        positionedPartitions.addAll(unpositioned);
+    }
+
+    /**
+     * Commits the position of revoked partitions, so a consumer they move to during a rebalance continues
+     * from there instead of from the end, even if no record has been received on them yet.
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> positions = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            positions.put(partition, new OffsetAndMetadata(consumer.position(partition)));
+        }
+        if (!positions.isEmpty()) {
+            consumer.commitSync(positions);
+        }
+    }
 
-            if (correlationId != null && sendTimestampStr != null) {
-                try {
-                    long sentTimestamp = Long.parseLong(sendTimestampStr);
+    /**
+     * Whether every given partition has been positioned at its end.
+     */
+    public boolean isPositioned(Collection<TopicPartition> assignedPartitions) {
+        return !assignedPartitions.isEmpty() && positionedPartitions.containsAll(assignedPartitions);
+    }
 
-                    // Record the message with end-to-end latency
-                    metricsService.recordMessageReceived(sentTimestamp, receivedTimestamp);
+    private void consumeMessage(Headers headers, long receivedMicros) {
+        // Validate this message belongs to our test run
+        byte[] recordTestRunId = headerValue(headers, "testRunId");
+        if (recordTestRunId != null && !Arrays.equals(testRunId, recordTestRunId)) {
+            log.debug("Ignoring message from a different test run");
+            return;
+        }
 
-                    log.debug("Received message {}, latency: {}ms",
-                            correlationId, receivedTimestamp - sentTimestamp);
-                } catch (NumberFormatException e) {
-                    log.warn("Invalid sendTimestamp header: {}", sendTimestampStr, e);
-                }
-            } else {
-                log.warn("Message missing required headers (correlationId or sendTimestamp)");
-            }
+        byte[] correlationId = headerValue(headers, "correlationId");
+        if (correlationId == null) {
+            log.warn("Message missing required header correlationId");
+            return;
+        }
+        long sequence = CorrelationStore.sequenceOf(correlationId);
+        if (correlationStore.complete(sequence) < 0) {
+            metricsService.recordMessageUnmatched();
+            return;
+        }
 
-            // Check if test is complete
-            if (metricsService.isComplete()) {
-                log.info("All messages received! Completion: {:.2f}%",
-                        metricsService.getCompletionPercentage());
+        long intendedSendMicros = timestampHeader(headers, "intendedSendMicros");
+        long sendMicros = timestampHeader(headers, "sendMicros");
+        if (intendedSendMicros == MISSING || sendMicros == MISSING) {
+            // bridge not forwarding the microsecond headers: fall back to millisecond resolution
+            long sendTimestamp = timestampHeader(headers, "sendTimestamp");
+            if (sendTimestamp == MISSING) {
+                log.warn("Message missing required header sendTimestamp");
+                return;
             }
-
-        } catch (Exception e) {
-            log.error("Error processing Kafka message", e);
+            intendedSendMicros = TimeUnit.MILLISECONDS.toMicros(sendTimestamp);
+            sendMicros = intendedSendMicros;
         }
+
+        // Record the message with end-to-end latency
+        metricsService.recordMessageReceived(scenario.classOf(sequence), intendedSendMicros, sendMicros,
+                receivedMicros);
     }
 
     /**
-     * Extracts a header value from the Kafka record.
+     * Reads a timestamp header.
+     * The bridge forwards numeric JMS properties as 8-byte big-endian values; decimal text is
+     * still accepted from older bridge versions.
+     *
+     * @return the timestamp, or -1 if the header is missing or invalid
      */
-    private String extractHeader(ConsumerRecord<String, String> record, String headerName) {
-        if (record.headers() != null) {
-            org.apache.kafka.common.header.Header header = record.headers().lastHeader(headerName);
-            if (header != null && header.value() != null) {
-                return new String(header.value());
+    static long timestampHeader(Headers headers, String headerName) {
+        byte[] value = headerValue(headers, headerName);
+        if (value == null || value.length == 0) {
+            return MISSING;
+        }
+        if (value.length == Long.BYTES) {
+            long timestamp = 0;
+            for (byte b : value) {
+                timestamp = (timestamp << 8) | (b & 0xFF);
             }
+            return timestamp;
+        }
+        long timestamp = 0;
+        for (byte b : value) {
+            if (b < '0' || b > '9' || timestamp > (Long.MAX_VALUE - 9) / 10) {
+                return MISSING;
+            }
+            timestamp = timestamp * 10 + (b - '0');
+        }
+        return timestamp;
+    }
+
+    private static byte[] headerValue(Headers headers, String headerName) {
+        if (headers == null) {
+            return null;
         }
-        return null;
+        Header header = headers.lastHeader(headerName);
+        return header != null ? header.value() : null;
     }
 }
@@ -0,0 +1,242 @@
+package com.example.perftest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * High-resolution end-to-end latency recording with HdrHistogram.
+ * Every received message is recorded twice in microseconds: corrected, measured from its intended send time in the
+ * load profile, and uncorrected, measured from when it was actually sent. The difference between the two is the
+ * latency a closed-loop generator would have omitted (coordinated omission). Writes go to {@link Recorder}s, which
+ * are lock-free and allocation-free for the recording threads; every {@code performance-test.latency-log-interval}
+ * the interval histograms are swapped out, appended to {@code <latency-log-directory>/<testRunId>.hlog} tagged
+ * {@code corrected} and {@code uncorrected}, and added to the totals of the run. The log can be compared across
+ * runs offline, e.g. with HistogramLogProcessor or HdrHistogram's plotter.
+ * With several message classes in the {@link Scenario} each class has its own recorders; their intervals are also
+ * logged tagged {@code corrected.<class>} and {@code uncorrected.<class>} and published with a {@code class} tag,
+ * which shows how one class (e.g. large messages) affects the tail latency of another.
+ */
+@Slf4j
+@Component
+public class LatencyRecorder {
+
+    public static final String CORRECTED = "corrected";
+    public static final String UNCORRECTED = "uncorrected";
+    public static final String ALL_CLASSES = "all";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] PUBLISHED_PERCENTILES = {50.0, 90.0, 99.0, 99.9, 100.0};
+
+    /**
+     * Wall clock anchor for {@link #epochMicros(long)}; {@code System.currentTimeMillis()} has only millisecond
+     * resolution, so microsecond timestamps are derived from {@code System.nanoTime()} relative to this anchor.
+     */
+    private static final long ANCHOR_EPOCH_MICROS = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private static final long ANCHOR_NANOS = System.nanoTime();
+
+    private final List<String> classNames;
+    private final ClassLatency[] classes;
+    private final Histogram correctedTotal = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram uncorrectedTotal = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram correctedInterval = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram uncorrectedInterval = new Histogram(SIGNIFICANT_DIGITS);
+    private final HistogramLogWriter logWriter;
+
+    public LatencyRecorder(PerformanceTestConfig config, Scenario scenario, MeterRegistry meterRegistry) {
+        this.logWriter = openLog(Path.of(config.getLatencyLogDirectory(), config.getTestRunId() + ".hlog"));
+        this.classNames = scenario.classes().stream().map(PerformanceTestConfig.MessageClass::getName).toList();
+        this.classes = new ClassLatency[classNames.size()];
+        for (int index = 0; index < classes.length; index++) {
+            classes[index] = new ClassLatency();
+        }
+
+        for (double percentile : PUBLISHED_PERCENTILES) {
+            registerPercentileGauge(meterRegistry, config, ALL_CLASSES, CORRECTED, correctedTotal, percentile);
+            registerPercentileGauge(meterRegistry, config, ALL_CLASSES, UNCORRECTED, uncorrectedTotal, percentile);
+            if (classes.length > 1) {
+                for (int index = 0; index < classes.length; index++) {
+                    registerPercentileGauge(meterRegistry, config, classNames.get(index), CORRECTED,
+                            classes[index].correctedTotal, percentile);
+                    registerPercentileGauge(meterRegistry, config, classNames.get(index), UNCORRECTED,
+                            classes[index].uncorrectedTotal, percentile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Current wall clock time in microseconds since the epoch.
+     */
+    public static long epochMicros() {
+        return epochMicros(System.nanoTime());
+    }
+
+    /**
+     * Converts a {@code System.nanoTime()} value to microseconds since the epoch.
+     */
+    public static long epochMicros(long nanoTime) {
+        return ANCHOR_EPOCH_MICROS + (nanoTime - ANCHOR_NANOS) / 1_000;
+    }
+
+    /**
+     * Records the latency of a received message; called concurrently by the Kafka listener threads.
+     *
+     * @param messageClass       index of the message's class in the scenario
+     * @param intendedSendMicros when the load profile scheduled the message
+     * @param sendMicros         when the message was actually sent to MQ
+     * @param receivedMicros     when the message was received from Kafka
+     */
+    public void record(int messageClass, long intendedSendMicros, long sendMicros, long receivedMicros) {
+        ClassLatency latency = classes[messageClass];
+        latency.correctedRecorder.recordValue(Math.max(0, receivedMicros - intendedSendMicros));
+        latency.uncorrectedRecorder.recordValue(Math.max(0, receivedMicros - sendMicros));
+    }
+
+    /**
+     * Swaps out the interval histograms, appends them to the log and adds them to the run totals.
+     */
+    @Scheduled(fixedDelayString = "${performance-test.latency-log-interval:10s}")
+    public synchronized void writeInterval() {
+        correctedInterval.reset();
+        uncorrectedInterval.reset();
+        long startMillis = Long.MAX_VALUE;
+        long endMillis = 0;
+        for (int index = 0; index < classes.length; index++) {
+            ClassLatency latency = classes[index];
+            latency.swapInterval();
+            correctedInterval.add(latency.correctedInterval);
+            uncorrectedInterval.add(latency.uncorrectedInterval);
+            startMillis = Math.min(startMillis, latency.correctedInterval.getStartTimeStamp());
+            endMillis = Math.max(endMillis, latency.correctedInterval.getEndTimeStamp());
+            if (classes.length > 1 && logWriter != null) {
+                latency.correctedInterval.setTag(CORRECTED + "." + classNames.get(index));
+                latency.uncorrectedInterval.setTag(UNCORRECTED + "." + classNames.get(index));
+                logWriter.outputIntervalHistogram(latency.correctedInterval);
+                logWriter.outputIntervalHistogram(latency.uncorrectedInterval);
+            }
+        }
+        correctedInterval.setStartTimeStamp(startMillis);
+        correctedInterval.setEndTimeStamp(endMillis);
+        uncorrectedInterval.setStartTimeStamp(startMillis);
+        uncorrectedInterval.setEndTimeStamp(endMillis);
+        correctedInterval.setTag(CORRECTED);
+        uncorrectedInterval.setTag(UNCORRECTED);
+
+        correctedTotal.add(correctedInterval);
+        uncorrectedTotal.add(uncorrectedInterval);
+        if (logWriter != null) {
+            logWriter.outputIntervalHistogram(correctedInterval);
+            logWriter.outputIntervalHistogram(uncorrectedInterval);
+        }
+    }
+
+    /**
+     * Copy of all latencies recorded up to the last interval, in microseconds.
+     *
+     * @param tag {@link #CORRECTED} or {@link #UNCORRECTED}
+     */
+    public synchronized Histogram total(String tag) {
+        return select(tag, correctedTotal, uncorrectedTotal).copy();
+    }
+
+    /**
+     * Copy of the latencies of one message class recorded up to the last interval, in microseconds.
+     *
+     * @param tag {@link #CORRECTED} or {@link #UNCORRECTED}
+     */
+    public synchronized Histogram total(String tag, int messageClass) {
+        ClassLatency latency = classes[messageClass];
+        return select(tag, latency.correctedTotal, latency.uncorrectedTotal).copy();
+    }
+
+    private static Histogram select(String tag, Histogram corrected, Histogram uncorrected) {
+        return switch (tag) {
+            case CORRECTED -> corrected;
+            case UNCORRECTED -> uncorrected;
+            default -> throw new IllegalArgumentException("Unknown latency histogram: " + tag);
+        };
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        writeInterval();
+        if (logWriter != null) {
+            logWriter.close();
+        }
+    }
+
+    private void registerPercentileGauge(MeterRegistry meterRegistry, PerformanceTestConfig config,
+                                         String messageClass, String tag, Histogram total, double percentile) {
+        Gauge.builder("perf.test.end.to.end.latency.percentile", this,
+                        recorder -> recorder.percentileMillis(total, percentile))
+                .description("End-to-end latency percentile over the run, from the intended (corrected) "
+                        + "or actual (uncorrected) send time")
+                .tag("test_run_id", config.getTestRunId())
+                .tag("queue", config.getQueueName())
+                .tag("class", messageClass)
+                .tag("correction", tag)
+                .tag("percentile", Double.toString(percentile))
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    private synchronized double percentileMillis(Histogram total, double percentile) {
+        return total.getTotalCount() == 0 ? Double.NaN : total.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    /**
+     * Opens the interval log; without a writable directory latencies are still recorded but not logged.
+     */
+    private static HistogramLogWriter openLog(Path logFile) {
+        try {
+            Files.createDirectories(logFile.toAbsolutePath().getParent());
+            HistogramLogWriter writer = new HistogramLogWriter(new PrintStream(logFile.toFile()));
+            long startMillis = TimeUnit.MICROSECONDS.toMillis(ANCHOR_EPOCH_MICROS);
+            writer.outputLogFormatVersion();
+            writer.outputComment("Latencies in microseconds");
+            writer.setBaseTime(startMillis);
+            writer.outputBaseTime(startMillis);
+            writer.outputStartTime(startMillis);
+            writer.outputLegend();
+            log.info("Writing latency histograms to {}", logFile.toAbsolutePath());
+            return writer;
+        } catch (IOException e) {
+            log.warn("Cannot write latency histogram log {}", logFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Recorders and run totals of one message class.
+     */
+    private static final class ClassLatency {
+
+        private final Recorder correctedRecorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Recorder uncorrectedRecorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram correctedTotal = new Histogram(SIGNIFICANT_DIGITS);
+        private final Histogram uncorrectedTotal = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram correctedInterval;
+        private Histogram uncorrectedInterval;
+
+        void swapInterval() {
+            correctedInterval = correctedRecorder.getIntervalHistogram(correctedInterval);
+            uncorrectedInterval = uncorrectedRecorder.getIntervalHistogram(uncorrectedInterval);
+            correctedTotal.add(correctedInterval);
+            uncorrectedTotal.add(uncorrectedInterval);
+        }
+    }
+}
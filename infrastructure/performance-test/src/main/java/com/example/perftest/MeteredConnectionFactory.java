@@ -0,0 +1,137 @@
+package com.example.perftest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection factory of the producer workers: every connection is a physical MQ connection, so each worker keeps
+ * its own, instrumented so a run shows whether the generator paid MQ handshakes during the measurement.
+ * {@code jms.pool.connection.create.time} and {@code jms.pool.session.create.time} time every connection and
+ * session opened, and the {@code jms.pool.connections.active} and {@code jms.pool.sessions.active} gauges show
+ * how many are open. Nothing is cached or shared between workers.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory {
+
+    private final ConnectionFactory targetConnectionFactory;
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Timer connectionCreateTimer;
+    private final Timer sessionCreateTimer;
+
+    public MeteredConnectionFactory(ConnectionFactory targetConnectionFactory, MeterRegistry meterRegistry) {
+        this.targetConnectionFactory = targetConnectionFactory;
+        this.connectionCreateTimer = Timer.builder("jms.pool.connection.create.time")
+                .description("Time taken to open a physical MQ connection")
+                .register(meterRegistry);
+        this.sessionCreateTimer = Timer.builder("jms.pool.session.create.time")
+                .description("Time taken to open a physical MQ session")
+                .register(meterRegistry);
+        Gauge.builder("jms.pool.connections.active", activeConnections, AtomicInteger::get)
+                .description("MQ connections currently open")
+                .register(meterRegistry);
+        Gauge.builder("jms.pool.sessions.active", activeSessions, AtomicInteger::get)
+                .description("MQ sessions currently open")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection createConnection() throws JMSException {
+        long startNanos = System.nanoTime();
+        Connection connection = targetConnectionFactory.createConnection();
+        connectionCreateTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return metered(connection);
+    }
+
+    @Override
+    public Connection createConnection(String userName, String password) throws JMSException {
+        long startNanos = System.nanoTime();
+        Connection connection = targetConnectionFactory.createConnection(userName, password);
+        connectionCreateTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return metered(connection);
+    }
+
+    @Override
+    public JMSContext createContext() {
+        return targetConnectionFactory.createContext();
+    }
+
+    @Override
+    public JMSContext createContext(String userName, String password) {
+        return targetConnectionFactory.createContext(userName, password);
+    }
+
+    @Override
+    public JMSContext createContext(String userName, String password, int sessionMode) {
+        return targetConnectionFactory.createContext(userName, password, sessionMode);
+    }
+
+    @Override
+    public JMSContext createContext(int sessionMode) {
+        return targetConnectionFactory.createContext(sessionMode);
+    }
+
+    /**
+     * Counts the connection as open until it is closed, and times and counts the sessions created on it.
+     */
+    private Connection metered(Connection connection) {
+        activeConnections.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(connection.getClass().getClassLoader(),
+                connection.getClass().getInterfaces(), (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "createSession" -> {
+                        long startNanos = System.nanoTime();
+                        Session session = (Session) invoke(connection, method, args);
+                        sessionCreateTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                        yield metered(session);
+                    }
+                    default -> {
+                        if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                            activeConnections.decrementAndGet();
+                        }
+                        yield invoke(connection, method, args);
+                    }
+                });
+    }
+
+    /**
+     * Counts the session as open until it is closed.
+     */
+    private Session metered(Session session) {
+        activeSessions.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Session) Proxy.newProxyInstance(session.getClass().getClassLoader(),
+                session.getClass().getInterfaces(), (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                            activeSessions.decrementAndGet();
+                        }
+                        yield invoke(session, method, args);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
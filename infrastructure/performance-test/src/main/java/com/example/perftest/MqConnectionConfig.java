@@ -0,0 +1,36 @@
+package com.example.perftest;
+
+import com.ibm.mq.jakarta.jms.MQConnectionFactory;
+import com.ibm.mq.spring.boot.MQConfigurationProperties;
+import com.ibm.mq.spring.boot.MQConnectionDetails;
+import com.ibm.mq.spring.boot.MQConnectionFactoryCustomizer;
+import com.ibm.mq.spring.boot.MQConnectionFactoryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * MQ connection setup of the producer workers.
+ * Replaces the MQ starter's implicit caching connection factory, which shares a single connection and session,
+ * with a plain metered one, so each worker opens its own connection and session once and keeps them for the run.
+ */
+@Configuration
+public class MqConnectionConfig {
+
+    @Bean
+    public MeteredConnectionFactory connectionFactory(
+            MQConnectionDetails connectionDetails,
+            MQConfigurationProperties mqProperties,
+            ObjectProvider<SslBundles> sslBundles,
+            ObjectProvider<List<MQConnectionFactoryCustomizer>> customizers,
+            MeterRegistry meterRegistry) {
+        MQConnectionFactory mqConnectionFactory = new MQConnectionFactoryFactory(connectionDetails, mqProperties,
+                sslBundles.getIfAvailable(), customizers.getIfAvailable())
+                .createConnectionFactory(MQConnectionFactory.class);
+        return new MeteredConnectionFactory(mqConnectionFactory, meterRegistry);
+    }
+}
@@ -1,64 +1,115 @@
 package com.example.perftest;
 
-import io.micrometer.core.annotation.Counted;
-import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
-import lombok.RequiredArgsConstructor;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for executing MQ performance tests.
  * Sends configurable number of messages to IBM MQ and tracks performance metrics.
  * Adds timestamps and correlation IDs to messages for end-to-end tracking.
+ * Messages are sent by {@code performance-test.workers} parallel workers on virtual threads, each with
+ * its own MQ connection and session, paced by a shared {@link RatePacer} so the generator is not the bottleneck.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class MqPerformanceService {
 
-    private final JmsTemplate jmsTemplate;
+    private final ConnectionFactory connectionFactory;
     private final PerformanceTestConfig config;
     private final MeterRegistry meterRegistry;
     private final PerformanceMetricsService metricsService;
+    private final CorrelationStore correlationStore;
+    private final PayloadFactory payloadFactory;
+    private final Scenario scenario;
 
-    // Track sent message timestamps for end-to-end latency calculation
-    private final ConcurrentHashMap<String, Long> sentMessageTimestamps = new ConcurrentHashMap<>();
+    private final Counter messagesSentCounter;
+    private final Counter sendErrorCounter;
+    private final Timer sendTimer;
+    private final Timer scheduleLagTimer;
+    private final AtomicInteger messagesSent = new AtomicInteger();
+
+    public MqPerformanceService(ConnectionFactory connectionFactory,
+                                PerformanceTestConfig config,
+                                MeterRegistry meterRegistry,
+                                PerformanceMetricsService metricsService,
+                                CorrelationStore correlationStore,
+                                PayloadFactory payloadFactory,
+                                Scenario scenario) {
+        this.connectionFactory = connectionFactory;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.metricsService = metricsService;
+        this.correlationStore = correlationStore;
+        this.payloadFactory = payloadFactory;
+        this.scenario = scenario;
+
+        List<Tag> tags = List.of(
+                Tag.of("test_run_id", config.getTestRunId()),
+                Tag.of("queue", config.getQueueName())
+        );
+        this.messagesSentCounter = Counter.builder("perf.test.messages.sent")
+                .description("Total number of messages sent to MQ during performance test")
+                .tags(tags)
+                .register(meterRegistry);
+        this.sendErrorCounter = Counter.builder("perf.test.messages.send.errors")
+                .description("Number of messages that could not be sent to MQ")
+                .tags(tags)
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("perf.test.message.send.time")
+                .description("Time taken to send each individual message to MQ")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.scheduleLagTimer = Timer.builder("perf.test.message.schedule.lag")
+                .description("How late each message was sent compared to its intended time in the load profile")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
 
     /**
-     * Executes the performance test by sending messages to MQ.
-     * Metrics are automatically tracked via @Counted and @Timed annotations.
+     * Executes the performance test by sending messages to MQ from parallel workers.
+     *
+     * @return how long sending took
      */
-    public void executePerformanceTest() {
+    public Duration executePerformanceTest() {
         Instant testStartTime = Instant.now();
 
-        log.info("Beginning performance test: sending {} messages", config.getMessageCount());
+        log.info("Beginning performance test: sending {} messages with {} workers, {} profile at {}",
+                config.getMessageCount(), config.getWorkers(), config.getLoadProfile(),
+                scenario.targetRate() > 0 ? scenario.targetRate() + " messages/second" : "maximum rate");
 
         // Create a timer for the entire test duration
         Timer.Sample overallSample = Timer.start(meterRegistry);
 
         // Send messages
-        for (int i = 0; i < config.getMessageCount(); i++) {
-            String correlationId = generateCorrelationId(i);
-            String message = generateMessage(i, correlationId);
-            sendMessage(message, correlationId);
-
-            // Log progress every 1000 messages
-            if ((i + 1) % 1000 == 0) {
-                log.info("Progress: {}/{} messages sent ({} %)",
-                        i + 1, config.getMessageCount(),
-                        String.format("%.1f", ((i + 1) * 100.0 / config.getMessageCount())));
-            }
-        }
+        RatePacer pacer = RatePacer.fromConfig(config, scenario);
+        runWorkers(pacer);
 
         // Record overall test duration
         overallSample.stop(Timer.builder("perf.test.duration")
@@ -69,7 +120,7 @@ public class MqPerformanceService {
 
         Instant testEndTime = Instant.now();
         Duration testDuration = Duration.between(testStartTime, testEndTime);
-        double messagesPerSecond = config.getMessageCount() / (testDuration.toMillis() / 1000.0);
+        double messagesPerSecond = messagesSent.get() / (testDuration.toMillis() / 1000.0);
 
         // Record throughput as a gauge
         meterRegistry.gauge("perf.test.throughput",
@@ -88,89 +139,133 @@ public class MqPerformanceService {
                 1.0);
 
         log.info("Performance test completed:");
-        log.info("  Total messages sent: {}", config.getMessageCount());
+        log.info("  Total messages sent: {}", messagesSent.get());
         log.info("  Total duration: {} seconds", testDuration.toSeconds());
-        log.info("  Average throughput: {:.2f} messages/second", messagesPerSecond);
+        log.info("  Average throughput: {} messages/second", String.format("%.2f", messagesPerSecond));
+        return testDuration;
     }
 
     /**
-     * Sends a single message to MQ with metrics tracking.
-     * Uses @Counted and @Timed for automatic metric collection.
-     * Adds correlation ID and timestamp as JMS properties for end-to-end tracking.
+     * Number of messages sent to MQ so far.
      */
-    @Counted(value = "perf.test.messages.sent",
-            description = "Total number of messages sent to MQ during performance test")
-    @Timed(value = "perf.test.message.send.time",
-            description = "Time taken to send each individual message to MQ",
-            percentiles = {0.5, 0.95, 0.99})
-    private void sendMessage(String message, String correlationId) {
-        long sendTimestamp = System.currentTimeMillis();
-
-        // Store timestamp for correlation when message is received from Kafka
-        sentMessageTimestamps.put(correlationId, sendTimestamp);
-
-        // Send message with JMS properties for correlation and timestamp
-        jmsTemplate.convertAndSend(config.getQueueName(), message, messagePostProcessor -> {
-            messagePostProcessor.setStringProperty("correlationId", correlationId);
-            messagePostProcessor.setLongProperty("sendTimestamp", sendTimestamp);
-            messagePostProcessor.setStringProperty("testRunId", config.getTestRunId());
-            return messagePostProcessor;
-        });
+    public int getMessagesSent() {
+        return messagesSent.get();
     }
 
     /**
-     * Gets the timestamp when a message was sent (for correlation).
+     * Number of messages that could not be sent to MQ.
      */
-    public Long getSentTimestamp(String correlationId) {
-        return sentMessageTimestamps.get(correlationId);
+    public long getSendErrors() {
+        return (long) sendErrorCounter.count();
     }
 
     /**
-     * Returns the map of all sent message timestamps.
+     * Runs the workers on virtual threads and waits until all messages have been claimed and sent.
      */
-    public ConcurrentHashMap<String, Long> getSentMessageTimestamps() {
-        return sentMessageTimestamps;
+    private void runWorkers(RatePacer pacer) {
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int worker = 0; worker < config.getWorkers(); worker++) {
+            int workerId = worker;
+            workers.add(() -> {
+                runWorker(workerId, pacer);
+                return null;
+            });
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            pacer.start();
+            for (Future<Void> result : executor.invokeAll(workers)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Performance test interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Producer worker failed", e.getCause());
+        }
     }
 
     /**
-     * Generates a correlation ID for message tracking.
+     * Sends claimed messages over the worker's own connection and session until all messages are claimed.
      */
-    private String generateCorrelationId(int messageNumber) {
-        return String.format("%s-%010d", config.getTestRunId(), messageNumber);
+    private void runWorker(int workerId, RatePacer pacer) throws JMSException {
+        try (Connection connection = connectionFactory.createConnection()) {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageProducer producer = session.createProducer(session.createQueue(config.getQueueName()));
+            PayloadFactory.Buffers payloads = payloadFactory.newBuffers();
+            log.debug("Producer worker {} connected", workerId);
+
+            long messageNumber;
+            while ((messageNumber = pacer.claim()) >= 0) {
+                long intendedNanos = pacer.startNanos() + pacer.awaitSlot(messageNumber);
+                sendMessage(session, producer, payloads, (int) messageNumber,
+                        LatencyRecorder.epochMicros(intendedNanos), System.nanoTime() - intendedNanos);
+            }
+        }
     }
 
     /**
-     * Generates a test message of the configured size.
+     * Sends a single message to MQ with metrics tracking.
+     * Adds correlation ID and timestamps as JMS properties for end-to-end tracking. {@code sendTimestamp}
+     * (milliseconds) and {@code intendedSendMicros} are the message's intended send time, so end-to-end latency
+     * includes any delay of the generator itself; {@code sendMicros} is when it was actually sent.
+     * The payload comes from the worker's pre-rendered buffers, in the type and with the headers of the message
+     * class the scenario assigns to the message number.
      */
-    private String generateMessage(int messageNumber, String correlationId) {
-        // Create a message with the specified size
-        StringBuilder messageBuilder = new StringBuilder();
-
-        // Add header with message number, correlation ID, and metadata
-        String header = String.format("MSG#%010d|CORR=%s|RUN=%s|SIZE=%d|",
-                messageNumber,
-                correlationId,
-                config.getTestRunId(),
-                config.getMessageSize());
-
-        messageBuilder.append(header);
-
-        // Fill the rest with padding to reach the desired message size
-        int remainingSize = config.getMessageSize() - header.length();
-        if (remainingSize > 0) {
-            // Use a repeating pattern for the payload
-            String pattern = "ABCDEFGHIJ";
-            int fullPatterns = remainingSize / pattern.length();
-            int remainder = remainingSize % pattern.length();
-
-            for (int i = 0; i < fullPatterns; i++) {
-                messageBuilder.append(pattern);
-            }
-            if (remainder > 0) {
-                messageBuilder.append(pattern, 0, remainder);
-            }
+    private void sendMessage(Session session, MessageProducer producer, PayloadFactory.Buffers payloads,
+                             int messageNumber, long intendedSendMicros, long scheduleLagNanos) {
+        String correlationId = payloadFactory.correlationId(messageNumber);
+        long sendTimestamp = TimeUnit.MICROSECONDS.toMillis(intendedSendMicros);
+
+        // Track the message until it is received from Kafka or times out as lost
+        correlationStore.register(messageNumber, sendTimestamp);
+
+        long startNanos = System.nanoTime();
+        try {
+            // Send message with JMS properties for correlation and timestamp
+            PerformanceTestConfig.MessageClass messageClass = scenario.classes().get(scenario.classOf(messageNumber));
+            Message message = createMessage(session, messageClass, payloads.next(messageNumber));
+            message.setStringProperty("correlationId", correlationId);
+            message.setLongProperty("sendTimestamp", sendTimestamp);
+            message.setLongProperty("intendedSendMicros", intendedSendMicros);
+            message.setLongProperty("sendMicros", LatencyRecorder.epochMicros());
+            message.setStringProperty("testRunId", config.getTestRunId());
+            producer.send(message);
+        } catch (JMSException e) {
+            correlationStore.complete(messageNumber);
+            sendErrorCounter.increment();
+            log.error("Failed to send message {}", correlationId, e);
+            return;
+        }
+        sendTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        scheduleLagTimer.record(Math.max(0, scheduleLagNanos), TimeUnit.NANOSECONDS);
+        messagesSentCounter.increment();
+
+        // Log progress every 1000 messages
+        int sent = messagesSent.incrementAndGet();
+        if (sent % 1000 == 0) {
+            log.info("Progress: {}/{} messages sent ({} %)",
+                    sent, config.getMessageCount(),
+                    String.format("%.1f", sent * 100.0 / config.getMessageCount()));
         }
+    }
 
-        return messageBuilder.toString();
+    /**
+     * Wraps a payload in a text or bytes message; both copy the payload, so the buffer can be reused.
+     */
+    private static Message createMessage(Session session, PerformanceTestConfig.MessageClass messageClass,
+                                         byte[] payload) throws JMSException {
+        Message message;
+        if (messageClass.getMessageType() == PerformanceTestConfig.MessageType.BYTES) {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes(payload);
+            message = bytesMessage;
+        } else {
+            message = session.createTextMessage(new String(payload, StandardCharsets.UTF_8));
+        }
+        for (Map.Entry<String, String> header : messageClass.getHeaders().entrySet()) {
+            message.setStringProperty(header.getKey(), header.getValue());
+        }
+        return message;
     }
 }
@@ -0,0 +1,193 @@
+package com.example.perftest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of message payloads for the producer workers, per message class of the {@link Scenario}.
+ * Payloads are rendered once up front, so sending a message costs no formatting and, apart from the JMS message
+ * itself, no allocation:
+ * <ul>
+ *   <li>Templates: one payload per size of the class's {@code payload-sizes} (or of its {@code message-size})
+ *   in the format {@code MSG#<sequence>|CORR=<correlationId>|RUN=<testRunId>|SIZE=<size>|ABCDEFGHIJ...}.
+ *   Each worker owns a copy, and only the two sequence numbers are patched in place per message.</li>
+ *   <li>Corpus: captured payloads from the class's {@code payload-corpus}, one hex-encoded message per line
+ *   (e.g. ISO 8583 samples), replayed in order as they are.</li>
+ * </ul>
+ * Sizes are picked per message according to their weights.
+ */
+@Slf4j
+@Component
+public class PayloadFactory {
+
+    private static final int SEQUENCE_DIGITS = 10;
+    private static final byte[] PADDING = "ABCDEFGHIJ".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] correlationPrefix;
+    private final Scenario scenario;
+    private final List<ClassPayloads> classes = new ArrayList<>();
+
+    public PayloadFactory(PerformanceTestConfig config, Scenario scenario) {
+        this.correlationPrefix = (config.getTestRunId() + "-").getBytes(StandardCharsets.UTF_8);
+        this.scenario = scenario;
+        for (PerformanceTestConfig.MessageClass messageClass : scenario.classes()) {
+            classes.add(ClassPayloads.of(config.getTestRunId(), messageClass));
+        }
+    }
+
+    /**
+     * Creates the payload buffers of one worker; buffers are not thread-safe.
+     */
+    public Buffers newBuffers() {
+        return new Buffers();
+    }
+
+    /**
+     * Formats the correlation ID {@code <testRunId>-<sequence>} with the sequence zero-padded to ten digits.
+     */
+    public String correlationId(int sequence) {
+        byte[] id = new byte[correlationPrefix.length + SEQUENCE_DIGITS];
+        System.arraycopy(correlationPrefix, 0, id, 0, correlationPrefix.length);
+        writeDigits(id, correlationPrefix.length, sequence);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a non-negative number as {@value #SEQUENCE_DIGITS} zero-padded ASCII digits.
+     */
+    static void writeDigits(byte[] target, int offset, int value) {
+        for (int index = offset + SEQUENCE_DIGITS - 1; index >= offset; index--) {
+            target[index] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static List<byte[]> readCorpus(Path file) {
+        try (var lines = Files.lines(file)) {
+            List<byte[]> payloads = lines.map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(HexFormat.of()::parseHex)
+                    .toList();
+            if (payloads.isEmpty()) {
+                throw new IllegalArgumentException("Payload corpus " + file + " contains no payloads");
+            }
+            return payloads;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read payload corpus " + file, e);
+        }
+    }
+
+    /**
+     * Pre-rendered payload of one size with the offsets of its sequence numbers.
+     */
+    private record Template(byte[] payload, int sequenceOffset, int correlationSequenceOffset) {
+
+        static Template render(String testRunId, int size) {
+            String zeros = "0".repeat(SEQUENCE_DIGITS);
+            String prefix = "MSG#";
+            String correlation = "|CORR=" + testRunId + "-";
+            byte[] header = (prefix + zeros + correlation + zeros + "|RUN=" + testRunId + "|SIZE=" + size + "|")
+                    .getBytes(StandardCharsets.UTF_8);
+            byte[] payload = new byte[Math.max(size, header.length)];
+            System.arraycopy(header, 0, payload, 0, header.length);
+            for (int index = header.length; index < payload.length; index++) {
+                payload[index] = PADDING[(index - header.length) % PADDING.length];
+            }
+            int sequenceOffset = prefix.length();
+            int correlationOffset = sequenceOffset + SEQUENCE_DIGITS
+                    + correlation.getBytes(StandardCharsets.UTF_8).length;
+            return new Template(payload, sequenceOffset, correlationOffset);
+        }
+    }
+
+    /**
+     * Payloads of one message class: either templates with the cumulative weights of their sizes, or a corpus.
+     */
+    private record ClassPayloads(List<Template> templates, int[] cumulativeWeights, List<byte[]> corpus) {
+
+        static ClassPayloads of(String testRunId, PerformanceTestConfig.MessageClass messageClass) {
+            String corpusFile = messageClass.getPayloadCorpus();
+            if (corpusFile != null && !corpusFile.isBlank()) {
+                List<byte[]> corpus = readCorpus(Path.of(corpusFile));
+                log.info("Replaying {} payloads from {} for class {}", corpus.size(), corpusFile,
+                        messageClass.getName());
+                return new ClassPayloads(List.of(), new int[0], corpus);
+            }
+            Map<Integer, Integer> sizes = messageClass.getPayloadSizes().isEmpty()
+                    ? Map.of(messageClass.getMessageSize(), 1)
+                    : messageClass.getPayloadSizes();
+            List<Template> templates = new ArrayList<>();
+            int[] cumulativeWeights = new int[sizes.size()];
+            int total = 0;
+            for (Map.Entry<Integer, Integer> size : sizes.entrySet()) {
+                if (size.getKey() < 1 || size.getValue() < 1) {
+                    throw new IllegalArgumentException("Payload sizes and weights must be positive: " + size);
+                }
+                total += size.getValue();
+                cumulativeWeights[templates.size()] = total;
+                templates.add(Template.render(testRunId, size.getKey()));
+            }
+            return new ClassPayloads(templates, cumulativeWeights, List.of());
+        }
+
+        int pick() {
+            if (cumulativeWeights.length == 1) {
+                return 0;
+            }
+            int weight = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int index = 0;
+            while (weight >= cumulativeWeights[index]) {
+                index++;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * A worker's own copies of the payloads; {@link #next} patches and returns one of them.
+     */
+    public final class Buffers {
+
+        private final byte[][][] payloads;
+
+        private Buffers() {
+            payloads = new byte[classes.size()][][];
+            for (int classIndex = 0; classIndex < payloads.length; classIndex++) {
+                List<Template> templates = classes.get(classIndex).templates();
+                payloads[classIndex] = new byte[templates.size()][];
+                for (int index = 0; index < templates.size(); index++) {
+                    payloads[classIndex][index] = templates.get(index).payload().clone();
+                }
+            }
+        }
+
+        /**
+         * Payload of a message of the class {@link Scenario#classOf} assigns to its sequence; valid until the
+         * next call.
+         */
+        public byte[] next(int sequence) {
+            int classIndex = scenario.classOf(sequence);
+            ClassPayloads classPayloads = classes.get(classIndex);
+            if (!classPayloads.corpus().isEmpty()) {
+                return classPayloads.corpus().get(sequence % classPayloads.corpus().size());
+            }
+            int index = classPayloads.pick();
+            Template template = classPayloads.templates().get(index);
+            byte[] payload = payloads[classIndex][index];
+            writeDigits(payload, template.sequenceOffset(), sequence);
+            writeDigits(payload, template.correlationSequenceOffset(), sequence);
+            return payload;
+        }
+    }
+}
@@ -1,19 +1,16 @@
 package com.example.perftest;
 
 import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
-import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for tracking end-to-end performance metrics.
@@ -25,26 +22,16 @@ public class PerformanceMetricsService {
 
     private final MeterRegistry meterRegistry;
     private final PerformanceTestConfig config;
+    private final LatencyRecorder latencyRecorder;
+    private final Scenario scenario;
 
     // Counters
     private final Counter messagesReceivedCounter;
     private final Counter messagesLostCounter;
+    private final Counter messagesUnmatchedCounter;
 
-    // Timers
-    private final Timer endToEndLatencyTimer;
-
-    // Distribution summary for latency
-    private final DistributionSummary endToEndLatencyDistribution;
-
-    // Atomic trackers
     @Getter
     private final AtomicInteger totalMessagesReceived = new AtomicInteger(0);
-    @Getter
-    private final AtomicLong totalLatencyMs = new AtomicLong(0);
-    @Getter
-    private final AtomicLong minLatencyMs = new AtomicLong(Long.MAX_VALUE);
-    @Getter
-    private final AtomicLong maxLatencyMs = new AtomicLong(0);
 
     // Timestamps for throughput calculation
     @Getter
@@ -52,9 +39,12 @@ public class PerformanceMetricsService {
     @Getter
     private volatile Long lastMessageReceivedTime;
 
-    public PerformanceMetricsService(MeterRegistry meterRegistry, PerformanceTestConfig config) {
+    public PerformanceMetricsService(MeterRegistry meterRegistry, PerformanceTestConfig config,
+                                     LatencyRecorder latencyRecorder, Scenario scenario) {
         this.meterRegistry = meterRegistry;
         this.config = config;
+        this.latencyRecorder = latencyRecorder;
+        this.scenario = scenario;
 
         List<Tag> tags = List.of(
                 Tag.of("test_run_id", config.getTestRunId()),
@@ -72,56 +62,38 @@ public class PerformanceMetricsService {
                 .tags(tags)
                 .register(meterRegistry);
 
-        // Initialize timer for end-to-end latency
-        this.endToEndLatencyTimer = Timer.builder("perf.test.end.to.end.latency")
-                .description("End-to-end latency from MQ send to Kafka receive")
+        this.messagesUnmatchedCounter = Counter.builder("perf.test.kafka.messages.unmatched")
+                .description("Messages received from Kafka that were duplicates, already counted as lost or unknown")
                 .tags(tags)
-                .publishPercentiles(0.5, 0.95, 0.99)
                 .register(meterRegistry);
 
-        // Initialize distribution summary
-        this.endToEndLatencyDistribution = DistributionSummary.builder("perf.test.end.to.end.latency.distribution")
-                .description("Distribution of end-to-end latency")
-                .baseUnit("milliseconds")
-                .tags(tags)
-                .publishPercentiles(0.5, 0.95, 0.99)
-                .register(meterRegistry);
-
-        // Initialize gauges for real-time metrics
+        // Initialize gauges for real-time metrics; latencies are read from the HdrHistogram totals,
+        // which are updated every latency log interval
         meterRegistry.gauge("perf.test.messages.received.total", tags, totalMessagesReceived);
-        meterRegistry.gauge("perf.test.latency.min.ms", tags, minLatencyMs);
-        meterRegistry.gauge("perf.test.latency.max.ms", tags, maxLatencyMs);
-        meterRegistry.gauge("perf.test.latency.avg.ms", tags, this, service -> {
-            int received = service.totalMessagesReceived.get();
-            return received > 0 ? (double) service.totalLatencyMs.get() / received : 0.0;
-        });
+        meterRegistry.gauge("perf.test.latency.min.ms", tags, this,
+                service -> service.correctedLatency().getMinValue() / 1_000.0);
+        meterRegistry.gauge("perf.test.latency.max.ms", tags, this,
+                service -> service.correctedLatency().getMaxValue() / 1_000.0);
+        meterRegistry.gauge("perf.test.latency.avg.ms", tags, this,
+                service -> service.correctedLatency().getMean() / 1_000.0);
     }
 
     /**
-     * Records a message received from Kafka and calculates end-to-end latency.
+     * Records a message received from Kafka with its end-to-end latency.
      *
-     * @param sentTimestamp When the message was sent to MQ (milliseconds)
-     * @param receivedTimestamp When the message was received from Kafka (milliseconds)
+     * @param messageClass Index of the message's class in the scenario
+     * @param intendedSendMicros When the load profile scheduled the message (microseconds since the epoch)
+     * @param sendMicros When the message was actually sent to MQ (microseconds since the epoch)
+     * @param receivedMicros When the message was received from Kafka (microseconds since the epoch)
      */
-    public void recordMessageReceived(long sentTimestamp, long receivedTimestamp) {
-        long latencyMs = receivedTimestamp - sentTimestamp;
-
-        // Increment counter
+    public void recordMessageReceived(int messageClass, long intendedSendMicros, long sendMicros,
+                                      long receivedMicros) {
         messagesReceivedCounter.increment();
-
-        // Record latency
-        endToEndLatencyTimer.record(latencyMs, TimeUnit.MILLISECONDS);
-        endToEndLatencyDistribution.record(latencyMs);
-
-        // Update atomic trackers
+        latencyRecorder.record(messageClass, intendedSendMicros, sendMicros, receivedMicros);
         int received = totalMessagesReceived.incrementAndGet();
-        totalLatencyMs.addAndGet(latencyMs);
-
-        // Update min/max latency
-        minLatencyMs.updateAndGet(currentMin -> Math.min(currentMin, latencyMs));
-        maxLatencyMs.updateAndGet(currentMax -> Math.max(currentMax, latencyMs));
 
         // Track first and last message timestamps for throughput calculation
+        long receivedTimestamp = TimeUnit.MICROSECONDS.toMillis(receivedMicros);
         if (firstMessageReceivedTime == null) {
             synchronized (this) {
                 if (firstMessageReceivedTime == null) {
@@ -134,17 +106,23 @@ public class PerformanceMetricsService {
 
         // Log progress every 1000 messages
         if (received % 1000 == 0) {
-            double avgLatency = (double) totalLatencyMs.get() / received;
-            log.info("Kafka Progress: {}/{} messages received, avg latency: {:.2f}ms",
-                    received, config.getMessageCount(), avgLatency);
+            log.info("Kafka Progress: {}/{} messages received", received, config.getMessageCount());
         }
     }
 
     /**
-     * Records a lost message (sent to MQ but not received from Kafka).
+     * Records messages sent to MQ but not received from Kafka.
      */
-    public void recordMessageLost() {
-        messagesLostCounter.increment();
+    public void recordMessageLost(long count) {
+        messagesLostCounter.increment(count);
+    }
+
+    /**
+     * Records a message received from Kafka that matched no outstanding send, so it is left out of the
+     * received count and the latency.
+     */
+    public void recordMessageUnmatched() {
+        messagesUnmatchedCounter.increment();
     }
 
     /**
@@ -156,18 +134,14 @@ public class PerformanceMetricsService {
         int messagesLost = totalSent - totalReceived;
 
         if (messagesLost > 0) {
+            // perf.test.messages.lost is counted by the CorrelationStore as messages time out
             log.warn("Message loss detected: {} messages sent but {} received (lost: {})",
                     totalSent, totalReceived, messagesLost);
-            for (int i = 0; i < messagesLost; i++) {
-                messagesLostCounter.increment();
-            }
         }
 
         // Calculate end-to-end throughput
         if (firstMessageReceivedTime != null && lastMessageReceivedTime != null) {
-            long durationMs = lastMessageReceivedTime - firstMessageReceivedTime;
-            double durationSec = durationMs / 1000.0;
-            double throughput = totalReceived / durationSec;
+            double throughput = endToEndThroughput();
 
             // Record throughput as a gauge
             meterRegistry.gauge("perf.test.kafka.throughput",
@@ -177,28 +151,58 @@ public class PerformanceMetricsService {
                     ),
                     throughput);
 
-            log.info("End-to-end throughput: {:.2f} messages/second", throughput);
+            log.info("End-to-end throughput: {} messages/second", String.format("%.2f", throughput));
         }
 
         // Calculate latency statistics
         if (totalReceived > 0) {
-            double avgLatency = (double) totalLatencyMs.get() / totalReceived;
+            latencyRecorder.writeInterval();
+            Histogram latency = correctedLatency();
+            Histogram uncorrected = latencyRecorder.total(LatencyRecorder.UNCORRECTED);
 
             log.info("=".repeat(80));
             log.info("End-to-End Performance Metrics:");
             log.info("  Messages sent to MQ: {}", totalSent);
             log.info("  Messages received from Kafka: {}", totalReceived);
             log.info("  Messages lost: {}", messagesLost);
-            log.info("  Message loss rate: {:.2f}%", (messagesLost * 100.0 / totalSent));
-            log.info("  Average end-to-end latency: {:.2f}ms", avgLatency);
-            log.info("  Min latency: {}ms", minLatencyMs.get());
-            log.info("  Max latency: {}ms", maxLatencyMs.get());
+            log.info("  Message loss rate: {}%", String.format("%.2f", messagesLost * 100.0 / totalSent));
+            log.info("  Average end-to-end latency: {}ms", String.format("%.2f", latency.getMean() / 1_000.0));
+            log.info("  Min latency: {}µs", latency.getMinValue());
+            log.info("  p50 / p99 / p99.9 latency: {}µs / {}µs / {}µs", latency.getValueAtPercentile(50.0),
+                    latency.getValueAtPercentile(99.0), latency.getValueAtPercentile(99.9));
+            log.info("  Max latency: {}µs", latency.getMaxValue());
+            log.info("  p99 latency without coordinated omission correction: {}µs",
+                    uncorrected.getValueAtPercentile(99.0));
+            List<PerformanceTestConfig.MessageClass> classes = scenario.classes();
+            for (int index = 0; classes.size() > 1 && index < classes.size(); index++) {
+                Histogram classLatency = latencyRecorder.total(LatencyRecorder.CORRECTED, index);
+                log.info("  Class {}: {} messages, p50 / p99 / p99.9 latency: {}µs / {}µs / {}µs",
+                        classes.get(index).getName(), classLatency.getTotalCount(),
+                        classLatency.getValueAtPercentile(50.0), classLatency.getValueAtPercentile(99.0),
+                        classLatency.getValueAtPercentile(99.9));
+            }
             log.info("=".repeat(80));
         } else {
             log.error("No messages received from Kafka! Test may have failed.");
         }
     }
 
+    /**
+     * Messages per second received from Kafka between the first and the last message, 0 before two have arrived.
+     */
+    public double endToEndThroughput() {
+        Long first = firstMessageReceivedTime;
+        Long last = lastMessageReceivedTime;
+        if (first == null || last == null || last <= first) {
+            return 0.0;
+        }
+        return totalMessagesReceived.get() * 1000.0 / (last - first);
+    }
+
+    private Histogram correctedLatency() {
+        return latencyRecorder.total(LatencyRecorder.CORRECTED);
+    }
+
     /**
      * Gets the current completion percentage.
      */
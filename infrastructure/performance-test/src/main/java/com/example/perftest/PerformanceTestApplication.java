@@ -6,29 +6,47 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.time.Duration;
 
 /**
  * Spring Boot application for MQ performance testing.
- * Runs as a CommandLineRunner to send configurable number of messages to IBM MQ,
- * then keeps the application alive to expose Prometheus metrics.
+ * Runs as a CommandLineRunner to send configurable number of messages to IBM MQ and collect them from Kafka,
+ * optionally keeps the application alive to expose Prometheus metrics, then exits with the result of the run.
  */
 @Slf4j
 @SpringBootApplication
+@EnableScheduling
 public class PerformanceTestApplication {
 
+    /**
+     * First argument that compares two earlier runs instead of running a test.
+     */
+    static final String COMPARE_COMMAND = "compare";
+
     public static void main(String[] args) {
-        SpringApplication.run(PerformanceTestApplication.class, args);
+        System.exit(SpringApplication.exit(SpringApplication.run(PerformanceTestApplication.class, args)));
     }
 
     /**
      * CommandLineRunner that executes the performance test on startup.
+     * With {@code compare <baselineTestRunId> <candidateTestRunId>} it compares the reports of two earlier runs
+     * instead. The application exits once done, with the exit code of the {@link TestRunLifecycle.Outcome}.
      */
     @Bean
-    public CommandLineRunner performanceTestRunner(MqPerformanceService performanceService,
-                                                    PerformanceTestConfig config) {
+    public CommandLineRunner performanceTestRunner(TestRunLifecycle testRun, PerformanceTestConfig config) {
         return args -> {
+            if (args.length > 0 && COMPARE_COMMAND.equals(args[0])) {
+                if (args.length != 3) {
+                    throw new IllegalArgumentException("Usage: compare <baselineTestRunId> <candidateTestRunId>");
+                }
+                TestRunLifecycle.Outcome outcome = testRun.compare(args[1], args[2]);
+                log.info("Comparison of {} against {}: {} (exit code {})", args[2], args[1], outcome,
+                        outcome.exitCode());
+                return;
+            }
+
             log.info("=".repeat(80));
             log.info("Starting MQ Performance Test");
             log.info("=".repeat(80));
@@ -38,22 +56,25 @@ public class PerformanceTestApplication {
             log.info("  Message Size: {} bytes", config.getMessageSize());
             log.info("  Queue Manager: {}", config.getQueueManager());
             log.info("  Queue Name: {}", config.getQueueName());
+            log.info("  Kafka Topic: {}", config.getKafkaTopic());
             log.info("=".repeat(80));
 
             // Execute the performance test
-            performanceService.executePerformanceTest();
+            TestRunLifecycle.Outcome outcome = testRun.run();
 
             log.info("=".repeat(80));
-            log.info("Performance test completed successfully");
-            log.info("Metrics available at: http://localhost:8080/actuator/prometheus");
-            log.info("Application will remain running for {} to allow metrics scraping",
-                    Duration.ofMinutes(config.getKeepAliveMinutes()));
-            log.info("=".repeat(80));
+            log.info("Performance test finished: {} (exit code {})", outcome, outcome.exitCode());
+            if (config.getKeepAliveMinutes() > 0) {
+                log.info("Metrics available at: http://localhost:8080/actuator/prometheus");
+                log.info("Application will remain running for {} to allow metrics scraping",
+                        Duration.ofMinutes(config.getKeepAliveMinutes()));
+                log.info("=".repeat(80));
 
-            // Keep application alive for metrics scraping
-            Thread.sleep(Duration.ofMinutes(config.getKeepAliveMinutes()).toMillis());
+                // Keep application alive for metrics scraping
+                Thread.sleep(Duration.ofMinutes(config.getKeepAliveMinutes()).toMillis());
 
-            log.info("Keep-alive period expired. Shutting down.");
+                log.info("Keep-alive period expired. Shutting down.");
+            }
         };
     }
 }
@@ -5,6 +5,12 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration properties for the performance test.
  * Values can be overridden via environment variables or application.yaml.
@@ -30,11 +36,116 @@ public class PerformanceTestConfig {
      */
     private int messageSize = 1024;
 
+    /**
+     * Payload sizes in bytes mapped to their relative weight, e.g. {@code {512: 80, 4096: 15, 65536: 5}};
+     * empty sends every message with {@code messageSize}.
+     */
+    private Map<Integer, Integer> payloadSizes = new LinkedHashMap<>();
+
+    /**
+     * File of captured payloads, one hex-encoded message per line, replayed instead of the generated payloads.
+     */
+    private String payloadCorpus;
+
+    /**
+     * Whether payloads are sent as JMS text or bytes messages.
+     */
+    private MessageType messageType = MessageType.TEXT;
+
+    /**
+     * Message classes of a mixed workload, typically defined by a scenario profile; empty sends a single class
+     * built from the payload settings above.
+     */
+    private List<MessageClass> messageClasses = new ArrayList<>();
+
+    /**
+     * Number of parallel producer workers, each with its own MQ connection and session.
+     */
+    private int workers = 4;
+
+    /**
+     * Target send rate in messages per second across all workers; 0 sends as fast as the workers can.
+     */
+    private double targetRate = 0;
+
+    /**
+     * How the send rate develops over the test: constant, a linear ramp or equal steps up to the target rate.
+     */
+    private LoadProfile loadProfile = LoadProfile.CONSTANT;
+
+    /**
+     * Time to reach the target rate with the ramp and step profiles.
+     */
+    private Duration rampDuration = Duration.ofSeconds(30);
+
+    /**
+     * Number of equal rate increments of the step profile; the first starts the run and the last is reached
+     * when the ramp duration ends.
+     */
+    private int rampSteps = 5;
+
+    /**
+     * Kafka topic the bridge forwards the test messages to.
+     */
+    private String kafkaTopic = "mq-messages";
+
+    /**
+     * Number of Kafka consumers collecting latencies; 0 runs one consumer per partition of the topic.
+     */
+    private int kafkaConsumerConcurrency = 0;
+
+    /**
+     * Number of sent messages tracked until they are received from Kafka; must be a power of two and larger
+     * than the number of messages in flight (send rate times end-to-end latency), as an entry overwritten
+     * before it was matched counts as lost. Each slot takes 8 bytes.
+     */
+    private int correlationCapacity = 1 << 20;
+
+    /**
+     * Time after which a message not yet received from Kafka is counted as lost.
+     */
+    private Duration correlationTimeout = Duration.ofSeconds(60);
+
+    /**
+     * Directory of the HdrHistogram interval log {@code <testRunId>.hlog}.
+     */
+    private String latencyLogDirectory = "latency-logs";
+
+    /**
+     * Interval at which latency histograms are written to the log and the latency gauges are updated.
+     */
+    private Duration latencyLogInterval = Duration.ofSeconds(10);
+
+    /**
+     * Maximum time to wait for the Kafka latency collector to be assigned its partitions before sending.
+     */
+    private Duration kafkaAssignmentTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Time without any message received from Kafka after which the run ends and outstanding messages are lost.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Directory the run reports ({@code <testRunId>.json} and {@code runs.csv}) are written to and compared from.
+     */
+    private String resultsDirectory = "results";
+
+    /**
+     * Relative drop of end-to-end throughput beyond which a compared run counts as a regression.
+     */
+    private double regressionThroughputTolerance = 0.05;
+
+    /**
+     * Relative growth of p99 or p99.9 latency beyond which a compared run counts as a regression.
+     */
+    private double regressionLatencyTolerance = 0.10;
+
     /**
      * How long to keep the application alive after test completion (in minutes).
-     * This allows Prometheus to scrape the metrics.
+     * This allows Prometheus to scrape the metrics; 0 exits as soon as the run is over.
      */
-    private int keepAliveMinutes = 5;
+    private int keepAliveMinutes = 0;
 
     /**
      * Queue manager name (from ibm.mq configuration).
@@ -45,4 +156,79 @@ public class PerformanceTestConfig {
      * Queue name (from ibm.mq configuration).
      */
     private String queueName;
+
+    /**
+     * One class of messages in a mixed workload, e.g. small authorizations or large settlement batches.
+     * Latencies are recorded per class.
+     */
+    @Getter
+    @Setter
+    public static class MessageClass {
+
+        /**
+         * Name of the class, used as the {@code class} tag of latency metrics.
+         */
+        private String name;
+
+        /**
+         * Share of the messages relative to the other classes.
+         */
+        private int weight = 1;
+
+        /**
+         * Messages per second of this class; when set on all classes, replaces the weights and the target rate.
+         */
+        private double rate = 0;
+
+        /**
+         * Size of each message in bytes, unless payload sizes are set.
+         */
+        private int messageSize = 1024;
+
+        /**
+         * Payload sizes in bytes mapped to their relative weight within the class.
+         */
+        private Map<Integer, Integer> payloadSizes = new LinkedHashMap<>();
+
+        /**
+         * File of captured payloads replayed for this class, one hex-encoded message per line.
+         */
+        private String payloadCorpus;
+
+        /**
+         * Whether messages of this class are sent as JMS text or bytes messages.
+         */
+        private MessageType messageType = MessageType.TEXT;
+
+        /**
+         * Additional JMS string properties set on every message of the class.
+         */
+        private Map<String, String> headers = new LinkedHashMap<>();
+    }
+
+    public enum LoadProfile {
+        /**
+         * The target rate from the first message on.
+         */
+        CONSTANT,
+        /**
+         * Rate grows linearly from zero to the target rate over the ramp duration.
+         */
+        RAMP,
+        /**
+         * Rate grows in equal steps to the target rate over the ramp duration.
+         */
+        STEP
+    }
+
+    public enum MessageType {
+        /**
+         * {@code TextMessage} with the payload decoded as UTF-8.
+         */
+        TEXT,
+        /**
+         * {@code BytesMessage} with the payload as is.
+         */
+        BYTES
+    }
 }
@@ -0,0 +1,127 @@
+package com.example.perftest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop pacer shared by all producer workers.
+ * Works as a token bucket whose tokens are issued on the schedule of the load profile: message {@code n}
+ * may be sent once its intended time has come, regardless of how long earlier sends took. Tokens never
+ * expire, so a worker that falls behind sends its backlog immediately, and because latency is measured from
+ * each message's intended time rather than from when it was actually sent, the time spent waiting behind a
+ * slow send is counted instead of silently omitted (coordinated omission correction).
+ * A target rate of 0 turns pacing off and every message is due when it is claimed.
+ */
+public class RatePacer {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final PerformanceTestConfig.LoadProfile profile;
+    private final double targetRate;
+    private final double rampSeconds;
+    private final int steps;
+    private final long messageCount;
+    private final AtomicLong nextMessage = new AtomicLong();
+
+    private volatile long startNanos;
+
+    public RatePacer(PerformanceTestConfig.LoadProfile profile, double targetRate, Duration rampDuration,
+                     int steps, long messageCount) {
+        if (targetRate < 0) {
+            throw new IllegalArgumentException("Target rate must not be negative: " + targetRate);
+        }
+        if (profile != PerformanceTestConfig.LoadProfile.CONSTANT && (rampDuration.isZero() || steps < 1)) {
+            throw new IllegalArgumentException("Ramp and step profiles need a positive ramp duration and steps");
+        }
+        this.profile = profile;
+        this.targetRate = targetRate;
+        this.rampSeconds = rampDuration.toNanos() / NANOS_PER_SECOND;
+        this.steps = steps;
+        this.messageCount = messageCount;
+    }
+
+    public static RatePacer fromConfig(PerformanceTestConfig config, Scenario scenario) {
+        return new RatePacer(config.getLoadProfile(), scenario.targetRate(), config.getRampDuration(),
+                config.getRampSteps(), config.getMessageCount());
+    }
+
+    /**
+     * Starts the schedule; intended times are offsets from this instant.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Claims the next message number, or -1 once all messages have been claimed.
+     */
+    public long claim() {
+        long message = nextMessage.getAndIncrement();
+        return message < messageCount ? message : -1;
+    }
+
+    /**
+     * Waits until the intended send time of a claimed message.
+     *
+     * @return the intended send time as an offset in nanoseconds from {@link #start()}
+     */
+    public long awaitSlot(long message) {
+        if (targetRate == 0) {
+            return System.nanoTime() - startNanos;
+        }
+        long offsetNanos = intendedOffsetNanos(message);
+        long remaining;
+        while ((remaining = startNanos + offsetNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+        return offsetNanos;
+    }
+
+    /**
+     * Offset from the start at which message {@code n} is due, from the inverse of the cumulative
+     * message count of the profile.
+     */
+    long intendedOffsetNanos(long message) {
+        if (targetRate == 0) {
+            return 0;
+        }
+        return Math.round(intendedSeconds(message) * NANOS_PER_SECOND);
+    }
+
+    private double intendedSeconds(long message) {
+        double n = message;
+        return switch (profile) {
+            case CONSTANT -> n / targetRate;
+            case RAMP -> {
+                // rate(t) = targetRate * t / ramp, so count(t) = targetRate * t^2 / (2 * ramp)
+                double rampMessages = targetRate * rampSeconds / 2;
+                yield n < rampMessages
+                        ? Math.sqrt(2 * rampSeconds * n / targetRate)
+                        : rampSeconds + (n - rampMessages) / targetRate;
+            }
+            case STEP -> {
+                // step k runs at targetRate * (k + 1) / steps; the steps below the target share the ramp
+                // equally, so the last step reaches the target rate when the ramp ends
+                double stepSeconds = steps > 1 ? rampSeconds / (steps - 1) : 0;
+                double elapsed = 0;
+                double remaining = n;
+                int step = 0;
+                while (step < steps - 1 && remaining >= stepRate(step) * stepSeconds) {
+                    remaining -= stepRate(step) * stepSeconds;
+                    elapsed += stepSeconds;
+                    step++;
+                }
+                yield elapsed + remaining / stepRate(step);
+            }
+        };
+    }
+
+    private double stepRate(int step) {
+        return targetRate * (step + 1) / steps;
+    }
+}
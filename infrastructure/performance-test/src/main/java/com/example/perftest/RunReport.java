@@ -0,0 +1,50 @@
+package com.example.perftest;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Summary of one performance test run, written to the results directory as JSON and as a CSV row.
+ * Latencies are end-to-end in milliseconds and, unless noted otherwise, measured from the intended send time.
+ */
+public record RunReport(
+        String testRunId,
+        String outcome,
+        Instant startedAt,
+        Instant finishedAt,
+        int messageCount,
+        int messageSize,
+        int workers,
+        double targetRate,
+        String loadProfile,
+        long messagesSent,
+        long sendErrors,
+        long messagesReceived,
+        long messagesLost,
+        double lossRate,
+        double sendThroughput,
+        double endToEndThroughput,
+        double latencyP50,
+        double latencyP95,
+        double latencyP99,
+        double latencyP999,
+        double latencyMax,
+        double uncorrectedLatencyP99) {
+
+    static final List<String> CSV_COLUMNS = List.of(
+            "testRunId", "outcome", "startedAt", "finishedAt", "messageCount", "messageSize", "workers",
+            "targetRate", "loadProfile", "messagesSent", "sendErrors", "messagesReceived", "messagesLost",
+            "lossRate", "sendThroughput", "endToEndThroughput", "latencyP50", "latencyP95", "latencyP99",
+            "latencyP999", "latencyMax", "uncorrectedLatencyP99");
+
+    /**
+     * Values in the order of {@link #CSV_COLUMNS}.
+     */
+    List<Object> csvValues() {
+        return List.of(
+                testRunId, outcome, startedAt, finishedAt, messageCount, messageSize, workers,
+                targetRate, loadProfile, messagesSent, sendErrors, messagesReceived, messagesLost,
+                lossRate, sendThroughput, endToEndThroughput, latencyP50, latencyP95, latencyP99,
+                latencyP999, latencyMax, uncorrectedLatencyP99);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.perftest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes run reports to {@code performance-test.results-directory} and compares them.
+ * Each run is written as {@code <testRunId>.json} and appended as a row to {@code runs.csv}. A comparison reads two
+ * JSON reports and fails when the candidate's end-to-end throughput dropped, or its p99 or p99.9 latency grew,
+ * by more than the configured tolerance relative to the baseline, or when it lost messages and the baseline did not.
+ */
+@Slf4j
+@Service
+public class RunReportService {
+
+    static final String CSV_FILE = "runs.csv";
+
+    private final PerformanceTestConfig config;
+    private final PerformanceMetricsService metricsService;
+    private final LatencyRecorder latencyRecorder;
+    private final Scenario scenario;
+    private final JsonMapper jsonMapper;
+
+    public RunReportService(PerformanceTestConfig config,
+                            PerformanceMetricsService metricsService,
+                            LatencyRecorder latencyRecorder,
+                            Scenario scenario,
+                            JsonMapper jsonMapper) {
+        this.config = config;
+        this.metricsService = metricsService;
+        this.latencyRecorder = latencyRecorder;
+        this.scenario = scenario;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Builds the report of the run that just ended from the collected metrics.
+     */
+    public RunReport create(TestRunLifecycle.Outcome outcome, Instant startedAt, Duration sendDuration,
+                            long messagesSent, long sendErrors) {
+        Histogram latency = latencyRecorder.total(LatencyRecorder.CORRECTED);
+        Histogram uncorrected = latencyRecorder.total(LatencyRecorder.UNCORRECTED);
+        long received = metricsService.getTotalMessagesReceived().get();
+        long lost = Math.max(0, config.getMessageCount() - received);
+
+        return new RunReport(
+                config.getTestRunId(),
+                outcome.name(),
+                startedAt,
+                Instant.now(),
+                config.getMessageCount(),
+                config.getMessageSize(),
+                config.getWorkers(),
+                scenario.targetRate(),
+                config.getLoadProfile().name(),
+                messagesSent,
+                sendErrors,
+                received,
+                lost,
+                lost * 100.0 / config.getMessageCount(),
+                sendDuration.isZero() ? 0.0 : messagesSent * 1_000_000_000.0 / sendDuration.toNanos(),
+                metricsService.endToEndThroughput(),
+                percentileMillis(latency, 50.0),
+                percentileMillis(latency, 95.0),
+                percentileMillis(latency, 99.0),
+                percentileMillis(latency, 99.9),
+                latency.getMaxValue() / 1_000.0,
+                percentileMillis(uncorrected, 99.0));
+    }
+
+    /**
+     * Writes the report as JSON and appends it to the CSV of all runs.
+     */
+    public void write(RunReport report) {
+        Path directory = Path.of(config.getResultsDirectory());
+        Path json = directory.resolve(report.testRunId() + ".json");
+        Path csv = directory.resolve(CSV_FILE);
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(json, jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+
+            StringBuilder lines = new StringBuilder();
+            if (!Files.exists(csv)) {
+                lines.append(String.join(",", RunReport.CSV_COLUMNS)).append('\n');
+            }
+            lines.append(report.csvValues().stream()
+                    .map(RunReportService::csvValue)
+                    .collect(Collectors.joining(","))).append('\n');
+            Files.writeString(csv, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write run report to " + directory.toAbsolutePath(), e);
+        }
+        log.info("Run report written to {}", json.toAbsolutePath());
+    }
+
+    /**
+     * Reads the JSON report of an earlier run.
+     */
+    public RunReport read(String testRunId) {
+        Path json = Path.of(config.getResultsDirectory(), testRunId + ".json");
+        if (!Files.exists(json)) {
+            throw new IllegalArgumentException("No run report for test run " + testRunId + " at "
+                    + json.toAbsolutePath());
+        }
+        try {
+            return jsonMapper.readValue(Files.readString(json), RunReport.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read run report " + json.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Compares a candidate run against a baseline and logs the differences.
+     *
+     * @return the regressions found, empty if the candidate is within tolerance
+     */
+    public List<String> compare(RunReport baseline, RunReport candidate) {
+        double throughputTolerance = config.getRegressionThroughputTolerance();
+        double latencyTolerance = config.getRegressionLatencyTolerance();
+
+        log.info("{}", String.format("%-24s %16s %16s %9s", "", baseline.testRunId(), candidate.testRunId(), "change"));
+        logRow("Throughput (msg/s)", baseline.endToEndThroughput(), candidate.endToEndThroughput());
+        logRow("Send throughput (msg/s)", baseline.sendThroughput(), candidate.sendThroughput());
+        logRow("Latency p50 (ms)", baseline.latencyP50(), candidate.latencyP50());
+        logRow("Latency p95 (ms)", baseline.latencyP95(), candidate.latencyP95());
+        logRow("Latency p99 (ms)", baseline.latencyP99(), candidate.latencyP99());
+        logRow("Latency p99.9 (ms)", baseline.latencyP999(), candidate.latencyP999());
+        logRow("Latency max (ms)", baseline.latencyMax(), candidate.latencyMax());
+        logRow("Messages lost", baseline.messagesLost(), candidate.messagesLost());
+
+        List<String> regressions = new ArrayList<>();
+        if (candidate.endToEndThroughput() < baseline.endToEndThroughput() * (1 - throughputTolerance)) {
+            regressions.add(regression("throughput", baseline.endToEndThroughput(), candidate.endToEndThroughput()));
+        }
+        if (candidate.latencyP99() > baseline.latencyP99() * (1 + latencyTolerance)) {
+            regressions.add(regression("p99 latency", baseline.latencyP99(), candidate.latencyP99()));
+        }
+        if (candidate.latencyP999() > baseline.latencyP999() * (1 + latencyTolerance)) {
+            regressions.add(regression("p99.9 latency", baseline.latencyP999(), candidate.latencyP999()));
+        }
+        if (candidate.messagesLost() > 0 && baseline.messagesLost() == 0) {
+            regressions.add(candidate.messagesLost() + " messages lost, none in the baseline");
+        }
+        return regressions;
+    }
+
+    private static void logRow(String name, double baseline, double candidate) {
+        String change = baseline == 0 ? "n/a" : String.format("%+.1f%%", (candidate - baseline) * 100.0 / baseline);
+        log.info("{}", String.format("%-24s %16.2f %16.2f %9s", name, baseline, candidate, change));
+    }
+
+    private static String regression(String metric, double baseline, double candidate) {
+        return String.format("%s regressed from %.2f to %.2f (%+.1f%%)", metric, baseline, candidate,
+                (candidate - baseline) * 100.0 / baseline);
+    }
+
+    private static double percentileMillis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0.0 : histogram.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    static String csvValue(Object value) {
+        String text = String.valueOf(value);
+        if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.perftest;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mix of message classes sent during a run, from {@code performance-test.message-classes}.
+ * Each message is assigned a class by its sequence number from a fixed cycle in which every class appears in
+ * proportion to its weight (or rate) and evenly spread out, so the Kafka side derives the class of a received
+ * message from its correlation ID without any extra header. Without configured classes all messages belong to a
+ * single {@value #DEFAULT_CLASS} class built from the global payload settings.
+ */
+@Component
+public class Scenario {
+
+    public static final String DEFAULT_CLASS = "default";
+
+    /**
+     * Upper bound of the class cycle length; longer cycles are cut off, which only approximates the shares.
+     */
+    private static final int MAX_CYCLE_LENGTH = 1 << 16;
+
+    private final List<PerformanceTestConfig.MessageClass> classes;
+    private final double targetRate;
+    private final int[] cycle;
+
+    public Scenario(PerformanceTestConfig config) {
+        this.classes = config.getMessageClasses().isEmpty()
+                ? List.of(defaultClass(config))
+                : List.copyOf(config.getMessageClasses());
+        validate(classes);
+
+        boolean rated = classes.getFirst().getRate() > 0;
+        if (rated) {
+            this.targetRate = classes.stream().mapToDouble(PerformanceTestConfig.MessageClass::getRate).sum();
+        } else {
+            this.targetRate = config.getTargetRate();
+        }
+        this.cycle = buildCycle(classes.stream()
+                .mapToDouble(messageClass -> rated ? messageClass.getRate() : messageClass.getWeight())
+                .toArray());
+    }
+
+    public List<PerformanceTestConfig.MessageClass> classes() {
+        return classes;
+    }
+
+    /**
+     * Total send rate: the sum of the class rates if classes are rated, otherwise
+     * {@code performance-test.target-rate}.
+     */
+    public double targetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Index into {@link #classes()} of the message with the given sequence number; 0 for unknown sequences.
+     */
+    public int classOf(long sequence) {
+        return sequence < 0 ? 0 : cycle[(int) (sequence % cycle.length)];
+    }
+
+    private static PerformanceTestConfig.MessageClass defaultClass(PerformanceTestConfig config) {
+        PerformanceTestConfig.MessageClass messageClass = new PerformanceTestConfig.MessageClass();
+        messageClass.setName(DEFAULT_CLASS);
+        messageClass.setMessageSize(config.getMessageSize());
+        messageClass.setPayloadSizes(config.getPayloadSizes());
+        messageClass.setPayloadCorpus(config.getPayloadCorpus());
+        messageClass.setMessageType(config.getMessageType());
+        return messageClass;
+    }
+
+    private static void validate(List<PerformanceTestConfig.MessageClass> classes) {
+        Set<String> names = new HashSet<>();
+        long rated = classes.stream().filter(messageClass -> messageClass.getRate() > 0).count();
+        if (rated != 0 && rated != classes.size()) {
+            throw new IllegalArgumentException("Either all message classes or none must set a rate");
+        }
+        for (PerformanceTestConfig.MessageClass messageClass : classes) {
+            if (messageClass.getName() == null || messageClass.getName().isBlank()
+                    || !names.add(messageClass.getName())) {
+                throw new IllegalArgumentException("Message classes need unique names: " + messageClass.getName());
+            }
+            if (messageClass.getWeight() < 1 || messageClass.getRate() < 0) {
+                throw new IllegalArgumentException("Message class " + messageClass.getName()
+                        + " needs a positive weight and a non-negative rate");
+            }
+        }
+    }
+
+    /**
+     * Smooth weighted round robin over the shares: each step picks the class furthest behind its share, which
+     * spreads every class evenly over the cycle. The cycle is as long as the sum of the shares reduced to
+     * whole numbers.
+     */
+    private static int[] buildCycle(double[] shares) {
+        long[] units = new long[shares.length];
+        long divisor = 0;
+        for (int index = 0; index < shares.length; index++) {
+            units[index] = Math.max(1, Math.round(shares[index] * 1000));
+            divisor = gcd(divisor, units[index]);
+        }
+        long total = 0;
+        for (int index = 0; index < units.length; index++) {
+            units[index] /= divisor;
+            total += units[index];
+        }
+
+        int length = (int) Math.min(MAX_CYCLE_LENGTH, total);
+        int[] cycle = new int[length];
+        long[] current = new long[units.length];
+        for (int step = 0; step < length; step++) {
+            int chosen = 0;
+            for (int index = 0; index < units.length; index++) {
+                current[index] += units[index];
+                if (current[index] > current[chosen]) {
+                    chosen = index;
+                }
+            }
+            current[chosen] -= total;
+            cycle[step] = chosen;
+        }
+        return cycle;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.perftest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Runs one performance test from start to finish.
+ * Starts the Kafka latency collector and waits until its partitions are positioned at their end, sends the
+ * messages to MQ, then waits until every message has been received from Kafka or no further message has arrived
+ * for {@code performance-test.drain-timeout}. Messages still outstanding at that point are counted as lost before
+ * the final metrics are computed and the run report is written. Alternatively compares the reports of two earlier
+ * runs. The outcome becomes the exit code of the application.
+ */
+@Slf4j
+@Component
+public class TestRunLifecycle implements ExitCodeGenerator {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final MqPerformanceService performanceService;
+    private final PerformanceMetricsService metricsService;
+    private final CorrelationStore correlationStore;
+    private final KafkaConsumerService consumerService;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final RunReportService reportService;
+    private final PerformanceTestConfig config;
+
+    private volatile Outcome outcome = Outcome.FAILED;
+
+    public TestRunLifecycle(MqPerformanceService performanceService,
+                            PerformanceMetricsService metricsService,
+                            CorrelationStore correlationStore,
+                            KafkaConsumerService consumerService,
+                            KafkaListenerEndpointRegistry listenerRegistry,
+                            RunReportService reportService,
+                            PerformanceTestConfig config) {
+        this.performanceService = performanceService;
+        this.metricsService = metricsService;
+        this.correlationStore = correlationStore;
+        this.consumerService = consumerService;
+        this.listenerRegistry = listenerRegistry;
+        this.reportService = reportService;
+        this.config = config;
+    }
+
+    /**
+     * Executes the test run.
+     *
+     * @return the outcome, also reported as exit code
+     */
+    public Outcome run() throws InterruptedException {
+        MessageListenerContainer collector = listenerRegistry.getListenerContainer(KafkaConsumerService.LISTENER_ID);
+        if (collector == null) {
+            throw new IllegalStateException("Kafka listener " + KafkaConsumerService.LISTENER_ID + " not registered");
+        }
+        Instant startedAt = Instant.now();
+        Duration sendDuration;
+        try {
+            startCollector(collector);
+            sendDuration = performanceService.executePerformanceTest();
+            awaitDrained();
+        } catch (RuntimeException e) {
+            log.error("Performance test failed", e);
+            outcome = Outcome.FAILED;
+            return outcome;
+        } finally {
+            collector.stop();
+        }
+
+        int lost = correlationStore.expireAll();
+        metricsService.recordFinalMetrics();
+        outcome = metricsService.isComplete() && lost == 0 ? Outcome.PASSED : Outcome.MESSAGES_LOST;
+        reportService.write(reportService.create(outcome, startedAt, sendDuration,
+                performanceService.getMessagesSent(), performanceService.getSendErrors()));
+        return outcome;
+    }
+
+    /**
+     * Compares the reports of two earlier runs instead of running a test.
+     *
+     * @return {@link Outcome#REGRESSION} if the candidate regressed beyond the configured tolerances
+     */
+    public Outcome compare(String baselineRunId, String candidateRunId) {
+        try {
+            List<String> regressions = reportService.compare(
+                    reportService.read(baselineRunId), reportService.read(candidateRunId));
+            regressions.forEach(regression -> log.error("Regression: {}", regression));
+            outcome = regressions.isEmpty() ? Outcome.PASSED : Outcome.REGRESSION;
+        } catch (RuntimeException e) {
+            log.error("Cannot compare test runs {} and {}", baselineRunId, candidateRunId, e);
+            outcome = Outcome.FAILED;
+        }
+        return outcome;
+    }
+
+    @Override
+    public int getExitCode() {
+        return outcome.exitCode();
+    }
+
+    private void startCollector(MessageListenerContainer collector) throws InterruptedException {
+        log.info("Starting Kafka latency collector");
+        collector.start();
+        long deadline = System.nanoTime() + config.getKafkaAssignmentTimeout().toNanos();
+        while (!consumerService.isPositioned(collector.getAssignedPartitions())) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Kafka latency collector not assigned any partition of "
+                        + config.getKafkaTopic() + " within " + config.getKafkaAssignmentTimeout());
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        log.info("Kafka latency collector positioned on {}", collector.getAssignedPartitions());
+    }
+
+    /**
+     * Waits until all messages are received, or until none has arrived for the drain timeout.
+     */
+    private void awaitDrained() throws InterruptedException {
+        Duration drainTimeout = config.getDrainTimeout();
+        int received = metricsService.getTotalMessagesReceived().get();
+        long lastProgressNanos = System.nanoTime();
+        while (!metricsService.isComplete()) {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+            int current = metricsService.getTotalMessagesReceived().get();
+            if (current != received) {
+                received = current;
+                lastProgressNanos = System.nanoTime();
+            } else if (System.nanoTime() - lastProgressNanos >= drainTimeout.toNanos()) {
+                log.warn("No message received from Kafka for {}, ending the run with {}/{} messages received",
+                        drainTimeout, received, config.getMessageCount());
+                return;
+            }
+        }
+        log.info("All {} messages received from Kafka", config.getMessageCount());
+    }
+
+    /**
+     * Result of a test run and the exit code it maps to.
+     */
+    public enum Outcome {
+        /**
+         * Every message sent to MQ was received from Kafka, or a compared run is within tolerance.
+         */
+        PASSED(0),
+        /**
+         * Some messages were not received from Kafka.
+         */
+        MESSAGES_LOST(1),
+        /**
+         * The run did not complete, e.g. MQ or Kafka were unreachable.
+         */
+        FAILED(2),
+        /**
+         * A compared run regressed against its baseline.
+         */
+        REGRESSION(3);
+
+        private final int exitCode;
+
+        Outcome(int exitCode) {
+            this.exitCode = exitCode;
+        }
+
+        public int exitCode() {
+            return exitCode;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.perftest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CorrelationStoreTest {
+
+    private static final int CAPACITY = 4;
+
+    @Mock
+    private PerformanceMetricsService metricsService;
+
+    private PerformanceTestConfig config;
+    private CorrelationStore correlationStore;
+
+    @BeforeEach
+    void setUp() {
+        config = new PerformanceTestConfig();
+        config.setCorrelationCapacity(CAPACITY);
+        config.setCorrelationTimeout(Duration.ofSeconds(60));
+        correlationStore = new CorrelationStore(metricsService, config);
+    }
+
+    @Test
+    void shouldReturnSendTimestampOfRegisteredMessage() {
+        long sentAt = System.currentTimeMillis();
+        correlationStore.register(1, sentAt);
+
+        assertThat(correlationStore.outstanding()).isEqualTo(1);
+        assertThat(correlationStore.complete(1)).isEqualTo(sentAt);
+        assertThat(correlationStore.outstanding()).isZero();
+        verify(metricsService, never()).recordMessageLost(anyLong());
+    }
+
+    @Test
+    void shouldNotMatchDuplicateOrUnknownMessage() {
+        correlationStore.register(1, System.currentTimeMillis());
+        correlationStore.complete(1);
+
+        assertThat(correlationStore.complete(1)).isEqualTo(-1);
+        assertThat(correlationStore.complete(2)).isEqualTo(-1);
+        assertThat(correlationStore.complete(-1)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldCountOverwrittenEntryAsLostWhenRingWrapsAround() {
+        long sentAt = System.currentTimeMillis();
+        correlationStore.register(1, sentAt);
+        correlationStore.register(1 + CAPACITY, sentAt + 5);
+
+        verify(metricsService).recordMessageLost(1);
+        assertThat(correlationStore.outstanding()).isEqualTo(1);
+        assertThat(correlationStore.complete(1)).isEqualTo(-1);
+        assertThat(correlationStore.complete(1 + CAPACITY)).isEqualTo(sentAt + 5);
+    }
+
+    @Test
+    void shouldNotCountMatchedSlotAsLostWhenReused() {
+        correlationStore.register(2, System.currentTimeMillis());
+        correlationStore.complete(2);
+        correlationStore.register(2 + CAPACITY, System.currentTimeMillis());
+
+        verify(metricsService, never()).recordMessageLost(anyLong());
+    }
+
+    @Test
+    void shouldExpireOnlyEntriesOlderThanTimeout() {
+        config.setCorrelationTimeout(Duration.ZERO);
+        long sentAt = System.currentTimeMillis();
+        long sentLater = sentAt + Duration.ofMinutes(1).toMillis();
+        correlationStore.register(1, sentAt);
+        correlationStore.register(2, sentLater);
+        while (System.currentTimeMillis() <= sentAt) {
+            Thread.onSpinWait();
+        }
+
+        correlationStore.expireStaleEntries();
+
+        verify(metricsService).recordMessageLost(1);
+        assertThat(correlationStore.complete(1)).isEqualTo(-1);
+        assertThat(correlationStore.complete(2)).isEqualTo(sentLater);
+    }
+
+    @Test
+    void shouldExpireAllOutstandingEntries() {
+        long now = System.currentTimeMillis();
+        correlationStore.register(0, now);
+        correlationStore.register(1, now);
+        correlationStore.register(2, now);
+        correlationStore.complete(1);
+
+        assertThat(correlationStore.expireAll()).isEqualTo(2);
+
+        verify(metricsService).recordMessageLost(2);
+        assertThat(correlationStore.outstanding()).isZero();
+        assertThat(correlationStore.complete(0)).isEqualTo(-1);
+        assertThat(correlationStore.expireAll()).isZero();
+    }
+
+    @Test
+    void shouldParseSequenceFromCorrelationId() {
+        assertThat(CorrelationStore.sequenceOf(bytes("run-1-42"))).isEqualTo(42);
+        assertThat(CorrelationStore.sequenceOf(bytes("run-0"))).isZero();
+        assertThat(CorrelationStore.sequenceOf(bytes("run-"))).isEqualTo(-1);
+        assertThat(CorrelationStore.sequenceOf(bytes("42"))).isEqualTo(-1);
+        assertThat(CorrelationStore.sequenceOf(bytes("run-4x"))).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldRejectCapacityThatIsNotPowerOfTwo() {
+        config.setCorrelationCapacity(3);
+
+        assertThatThrownBy(() -> new CorrelationStore(metricsService, config))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("power of two");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.perftest;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaConsumerServiceTest {
+
+    @Mock
+    private PerformanceMetricsService metricsService;
+
+    @Mock
+    private Scenario scenario;
+
+    private CorrelationStore correlationStore;
+    private KafkaConsumerService consumerService;
+
+    @BeforeEach
+    void setUp() {
+        PerformanceTestConfig config = new PerformanceTestConfig();
+        config.setTestRunId("run");
+        config.setCorrelationCapacity(16);
+        correlationStore = new CorrelationStore(metricsService, config);
+        consumerService = new KafkaConsumerService(metricsService, correlationStore, scenario, config);
+    }
+
+    @Test
+    void shouldRecordOutstandingMessageOnce() {
+        correlationStore.register(7, System.currentTimeMillis());
+
+        consumerService.consumeBatch(List.of(record("run-7"), record("run-7")));
+
+        verify(metricsService).recordMessageReceived(anyInt(), eq(1_000L), eq(2_000L), anyLong());
+        verify(metricsService).recordMessageUnmatched();
+    }
+
+    @Test
+    void shouldCountUnknownMessageAsUnmatched() {
+        consumerService.consumeBatch(List.of(record("run-3"), record("run-x")));
+
+        verify(metricsService, times(2)).recordMessageUnmatched();
+        verify(metricsService, never()).recordMessageReceived(anyInt(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldIgnoreMessageOfOtherTestRun() {
+        correlationStore.register(7, System.currentTimeMillis());
+        ConsumerRecord<byte[], byte[]> record = record("other-7");
+        record.headers().remove("testRunId");
+        record.headers().add("testRunId", bytes("other"));
+
+        consumerService.consumeBatch(List.of(record));
+
+        verify(metricsService, never()).recordMessageUnmatched();
+        verify(metricsService, never()).recordMessageReceived(anyInt(), anyLong(), anyLong(), anyLong());
+    }
+
+    private static ConsumerRecord<byte[], byte[]> record(String correlationId) {
+        ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>("mq-messages", 0, 0, null, new byte[0]);
+        record.headers().add("testRunId", bytes("run"));
+        record.headers().add("correlationId", bytes(correlationId));
+        record.headers().add("intendedSendMicros", bytes("1000"));
+        record.headers().add("sendMicros", bytes("2000"));
+        return record;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.perftest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class RatePacerTest {
+
+    private static final Duration RAMP = Duration.ofSeconds(4);
+
+    @Test
+    void shouldPaceConstantProfileAtTargetRate() {
+        RatePacer pacer = new RatePacer(PerformanceTestConfig.LoadProfile.CONSTANT, 100, RAMP, 5, 300);
+
+        assertThat(messagesPerSecond(pacer, 300, 3)).containsExactly(100, 100, 100);
+    }
+
+    @Test
+    void shouldRampRateLinearlyToTarget() {
+        RatePacer pacer = new RatePacer(PerformanceTestConfig.LoadProfile.RAMP, 100, RAMP, 5, 400);
+
+        // rate(t) = 100 * t / 4, so second k carries 12.5 * (2k + 1) messages until the ramp ends
+        int[] perSecond = messagesPerSecond(pacer, 400, 6);
+        double[] expected = {12.5, 37.5, 62.5, 87.5, 100, 100};
+        for (int second = 0; second < expected.length; second++) {
+            assertThat((double) perSecond[second]).as("second %d", second).isCloseTo(expected[second], within(1.0));
+        }
+    }
+
+    @Test
+    void shouldStepRateInEqualIncrementsReachingTargetWhenRampEnds() {
+        // four steps below the target share the 4 s ramp, one second each
+        RatePacer pacer = new RatePacer(PerformanceTestConfig.LoadProfile.STEP, 100, RAMP, 5, 500);
+
+        assertThat(messagesPerSecond(pacer, 500, 6)).containsExactly(20, 40, 60, 80, 100, 100);
+    }
+
+    @Test
+    void shouldStartSingleStepAtTargetRate() {
+        RatePacer pacer = new RatePacer(PerformanceTestConfig.LoadProfile.STEP, 100, RAMP, 1, 200);
+
+        assertThat(messagesPerSecond(pacer, 200, 2)).containsExactly(100, 100);
+    }
+
+    @Test
+    void shouldNotPaceWithoutTargetRate() {
+        RatePacer pacer = new RatePacer(PerformanceTestConfig.LoadProfile.STEP, 0, RAMP, 5, 10);
+
+        assertThat(pacer.intendedOffsetNanos(9)).isZero();
+    }
+
+    @Test
+    void shouldStopClaimingAfterMessageCount() {
+        RatePacer pacer = new RatePacer(PerformanceTestConfig.LoadProfile.CONSTANT, 0, RAMP, 5, 2);
+
+        assertThat(pacer.claim()).isZero();
+        assertThat(pacer.claim()).isEqualTo(1);
+        assertThat(pacer.claim()).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldRejectStepProfileWithoutSteps() {
+        assertThatThrownBy(() -> new RatePacer(PerformanceTestConfig.LoadProfile.STEP, 100, RAMP, 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RatePacer(PerformanceTestConfig.LoadProfile.RAMP, 100, Duration.ZERO, 5, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Number of messages due in each whole second of the schedule.
+     */
+    private static int[] messagesPerSecond(RatePacer pacer, long messages, int seconds) {
+        int[] perSecond = new int[seconds];
+        for (long message = 0; message < messages; message++) {
+            long second = pacer.intendedOffsetNanos(message) / TimeUnit.SECONDS.toNanos(1);
+            if (second < seconds) {
+                perSecond[(int) second]++;
+            }
+        }
+        return perSecond;
+    }
+}
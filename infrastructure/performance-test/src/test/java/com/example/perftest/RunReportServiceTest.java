@@ -0,0 +1,112 @@
+package com.example.perftest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RunReportServiceTest {
+
+    @TempDir
+    private Path resultsDirectory;
+
+    private PerformanceTestConfig config;
+    private RunReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        config = new PerformanceTestConfig();
+        config.setResultsDirectory(resultsDirectory.toString());
+        config.setRegressionThroughputTolerance(0.05);
+        config.setRegressionLatencyTolerance(0.10);
+        reportService = new RunReportService(config, null, null, null, JsonMapper.builder().build());
+    }
+
+    @Test
+    void shouldPassCandidateWithinTolerance() {
+        RunReport baseline = report("baseline", 1000.0, 10.0, 20.0, 0);
+        RunReport candidate = report("candidate", 950.0, 11.0, 22.0, 0);
+
+        assertThat(reportService.compare(baseline, candidate)).isEmpty();
+    }
+
+    @Test
+    void shouldFlagThroughputDropBeyondTolerance() {
+        RunReport baseline = report("baseline", 1000.0, 10.0, 20.0, 0);
+        RunReport candidate = report("candidate", 949.0, 10.0, 20.0, 0);
+
+        assertThat(reportService.compare(baseline, candidate))
+                .singleElement().asString().startsWith("throughput regressed from 1000.00 to 949.00");
+    }
+
+    @Test
+    void shouldFlagTailLatencyGrowthBeyondTolerance() {
+        RunReport baseline = report("baseline", 1000.0, 10.0, 20.0, 0);
+        RunReport candidate = report("candidate", 1000.0, 11.1, 22.1, 0);
+
+        List<String> regressions = reportService.compare(baseline, candidate);
+
+        assertThat(regressions).hasSize(2);
+        assertThat(regressions.get(0)).startsWith("p99 latency regressed");
+        assertThat(regressions.get(1)).startsWith("p99.9 latency regressed");
+    }
+
+    @Test
+    void shouldFlagLostMessagesOnlyWhenBaselineLostNone() {
+        RunReport lossless = report("baseline", 1000.0, 10.0, 20.0, 0);
+        RunReport lossy = report("lossy-baseline", 1000.0, 10.0, 20.0, 3);
+        RunReport candidate = report("candidate", 1000.0, 10.0, 20.0, 5);
+
+        assertThat(reportService.compare(lossless, candidate))
+                .containsExactly("5 messages lost, none in the baseline");
+        assertThat(reportService.compare(lossy, candidate)).isEmpty();
+    }
+
+    @Test
+    void shouldQuoteCsvValuesOnlyWhenNeeded() {
+        assertThat(RunReportService.csvValue("run-1")).isEqualTo("run-1");
+        assertThat(RunReportService.csvValue(12.5)).isEqualTo("12.5");
+        assertThat(RunReportService.csvValue("a,b")).isEqualTo("\"a,b\"");
+        assertThat(RunReportService.csvValue("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(RunReportService.csvValue("two\nlines")).isEqualTo("\"two\nlines\"");
+        assertThat(RunReportService.csvValue(null)).isEqualTo("null");
+    }
+
+    @Test
+    void shouldWriteCsvHeaderOnceAndReadJsonBack() throws IOException {
+        RunReport first = report("run-1", 1000.0, 10.0, 20.0, 0);
+        RunReport second = report("run-2", 900.0, 12.0, 24.0, 1);
+
+        reportService.write(first);
+        reportService.write(second);
+
+        List<String> rows = Files.readAllLines(resultsDirectory.resolve(RunReportService.CSV_FILE));
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0)).isEqualTo(String.join(",", RunReport.CSV_COLUMNS));
+        assertThat(rows.get(1)).startsWith("run-1,PASSED,");
+        assertThat(rows.get(2)).startsWith("run-2,PASSED,");
+        assertThat(reportService.read("run-2")).isEqualTo(second);
+    }
+
+    @Test
+    void shouldRejectUnknownRun() {
+        assertThatThrownBy(() -> reportService.read("missing"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing");
+    }
+
+    private static RunReport report(String testRunId, double throughput, double p99, double p999, long lost) {
+        return new RunReport(testRunId, "PASSED", Instant.parse("2026-01-01T00:00:00Z"),
+                Instant.parse("2026-01-01T00:01:00Z"), 10_000, 1024, 4, 0.0, "CONSTANT", 10_000, 0,
+                10_000 - lost, lost, lost / 100.0, 1200.0, throughput, 2.0, 5.0, p99, p999, p999 * 2, p99);
+    }
+}
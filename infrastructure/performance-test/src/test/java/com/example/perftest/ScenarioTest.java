@@ -0,0 +1,94 @@
+package com.example.perftest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScenarioTest {
+
+    @Test
+    void shouldAssignAllMessagesToDefaultClassWithoutConfiguredClasses() {
+        PerformanceTestConfig config = new PerformanceTestConfig();
+        config.setTargetRate(250);
+
+        Scenario scenario = new Scenario(config);
+
+        assertThat(scenario.classes()).singleElement()
+                .extracting(PerformanceTestConfig.MessageClass::getName).isEqualTo(Scenario.DEFAULT_CLASS);
+        assertThat(scenario.targetRate()).isEqualTo(250);
+        assertThat(scenario.classOf(0)).isZero();
+        assertThat(scenario.classOf(-1)).isZero();
+    }
+
+    @Test
+    void shouldSpreadWeightedClassesEvenlyOverCycle() {
+        Scenario scenario = scenario(messageClass("payment", 3, 0), messageClass("refund", 1, 0));
+
+        // smooth weighted round robin: the lighter class lands between the heavier ones
+        assertThat(classesOf(scenario, 8)).containsExactly(0, 0, 1, 0, 0, 0, 1, 0);
+    }
+
+    @Test
+    void shouldKeepClassSharesProportionalToWeights() {
+        Scenario scenario = scenario(messageClass("a", 5, 0), messageClass("b", 3, 0), messageClass("c", 2, 0));
+
+        int[] counts = new int[3];
+        int previous = -1;
+        for (int sequence = 0; sequence < 1000; sequence++) {
+            int messageClass = scenario.classOf(sequence);
+            counts[messageClass]++;
+            if (messageClass != 0) {
+                assertThat(messageClass).as("sequence %d", sequence).isNotEqualTo(previous);
+            }
+            previous = messageClass;
+        }
+        assertThat(counts).containsExactly(500, 300, 200);
+    }
+
+    @Test
+    void shouldDeriveTargetRateAndSharesFromClassRates() {
+        Scenario scenario = scenario(messageClass("fast", 1, 150.0), messageClass("slow", 1, 50.0));
+
+        assertThat(scenario.targetRate()).isEqualTo(200.0);
+        assertThat(classesOf(scenario, 4)).containsExactly(0, 0, 1, 0);
+    }
+
+    @Test
+    void shouldRejectMixOfRatedAndUnratedClasses() {
+        assertThatThrownBy(() -> scenario(messageClass("a", 1, 10.0), messageClass("b", 1, 0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("rate");
+    }
+
+    @Test
+    void shouldRejectDuplicateClassNames() {
+        assertThatThrownBy(() -> scenario(messageClass("a", 1, 0), messageClass("a", 2, 0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unique names");
+    }
+
+    private static Scenario scenario(PerformanceTestConfig.MessageClass... classes) {
+        PerformanceTestConfig config = new PerformanceTestConfig();
+        config.setMessageClasses(List.of(classes));
+        return new Scenario(config);
+    }
+
+    private static PerformanceTestConfig.MessageClass messageClass(String name, int weight, double rate) {
+        PerformanceTestConfig.MessageClass messageClass = new PerformanceTestConfig.MessageClass();
+        messageClass.setName(name);
+        messageClass.setWeight(weight);
+        messageClass.setRate(rate);
+        return messageClass;
+    }
+
+    private static int[] classesOf(Scenario scenario, int messages) {
+        int[] classes = new int[messages];
+        for (int sequence = 0; sequence < messages; sequence++) {
+            classes[sequence] = scenario.classOf(sequence);
+        }
+        return classes;
+    }
+}